@@ -0,0 +1,122 @@
+package com.example.BudgetTracker;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Kontostandstabelle: die Trigger halten Stand und Anzahl bei Einfügen, Ändern und Löschen gleich der
+ * Live-Summe über die Transaktionen, und die Konsistenzprüfung erkennt einen beschädigten Stand und baut ihn neu auf.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BalanceTriggerTest {
+
+    private static final int USERS = 3;
+    private static final long FIRST_DAY = 19_000;
+
+    private DatabaseHelper dbHelper;
+    private TransactionRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new DatabaseHelper(context, null); // In-Memory-Datenbank
+        for (int user = 1; user <= USERS; user++) {
+            dbHelper.getWritableDatabase().execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)",
+                    new Object[]{user, "user" + user, "pw"});
+        }
+        repository = new TransactionRepository(dbHelper);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void triggers_keepBalanceEqualToLiveSum() {
+        Random random = new Random(4);
+        List<Integer> ids = new ArrayList<>();
+        for (int step = 0; step < 600; step++) {
+            int op = random.nextInt(10);
+            if (op < 6 || ids.isEmpty()) {
+                int user = 1 + random.nextInt(2); // Benutzer 3 bleibt ohne Transaktionen
+                int type = random.nextInt(3) == 0 ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE;
+                String description = "Buchung " + step;
+                assertTrue(repository.addTransaction(user, type, 1 + random.nextInt(50_000), "Kategorie " + random.nextInt(5),
+                        FIRST_DAY + random.nextInt(400), description));
+                ids.add((int) DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                        "SELECT id FROM transactions WHERE description = ?", new String[]{description}));
+            } else if (op < 8) {
+                int id = ids.get(random.nextInt(ids.size()));
+                assertTrue(repository.updateTransaction(id, random.nextInt(50_000), "Kategorie " + random.nextInt(5),
+                        FIRST_DAY + random.nextInt(400), "geändert"));
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                assertTrue(repository.deleteTransaction(id));
+            }
+            if (step % 50 == 49) {
+                assertBalancesMatchLiveSums();
+            }
+        }
+        assertTrue(repository.verifyBalances()); // nichts neu aufzubauen
+        assertBalancesMatchLiveSums();
+    }
+
+    @Test
+    public void corruptedBalance_isDetectedAndRebuilt() {
+        for (int i = 0; i < 20; i++) {
+            repository.addTransaction(1 + i % 2, i % 4 == 0 ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE,
+                    1_000 + i, "Lebensmittel", FIRST_DAY + i, null);
+        }
+        assertTrue(repository.verifyBalances());
+
+        // Falscher Stand, fehlende Zeile und Stand ohne Transaktionen
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("UPDATE balances SET balance_cents = balance_cents + 1 WHERE user_id = 1");
+        assertNotEquals(liveSum(1), dbHelper.getBalance(1));
+        assertFalse(repository.verifyBalances());
+        assertBalancesMatchLiveSums();
+
+        db.execSQL("DELETE FROM balances WHERE user_id = 2");
+        assertFalse(repository.verifyBalances());
+        assertBalancesMatchLiveSums();
+
+        db.execSQL("INSERT OR REPLACE INTO balances (user_id, balance_cents, transaction_count) VALUES (3, 500, 1)");
+        assertFalse(repository.verifyBalances());
+        assertBalancesMatchLiveSums();
+
+        assertTrue(repository.verifyBalances());
+    }
+
+    private void assertBalancesMatchLiveSums() {
+        for (int user = 1; user <= USERS; user++) {
+            assertEquals("Benutzer " + user, liveSum(user), repository.getBalance(user));
+            assertEquals("Benutzer " + user, liveCount(user), repository.getTransactionCount(user));
+        }
+    }
+
+    private long liveSum(int userId) {
+        return DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                "SELECT COALESCE(SUM(amount_cents), 0) FROM transactions WHERE user_id = ?", new String[]{String.valueOf(userId)});
+    }
+
+    private long liveCount(int userId) {
+        return DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                "SELECT COUNT(*) FROM transactions WHERE user_id = ?", new String[]{String.valueOf(userId)});
+    }
+}
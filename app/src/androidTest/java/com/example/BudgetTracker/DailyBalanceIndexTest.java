@@ -0,0 +1,144 @@
+package com.example.BudgetTracker;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Eigenschaftstests des Präfixsummen-Index: zufällige Einfüge-, Änder- und Löschfolgen über das
+ * Repository, danach Kontostand zu einem Datum und Saldo beliebiger Zeiträume gegen SUM in SQL.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DailyBalanceIndexTest {
+
+    private static final int USERS = 3;
+    private static final int FIRST_DAY = 18_000;
+    private static final int DAYS = 3 * 365;
+
+    private DatabaseHelper dbHelper;
+    private TransactionRepository repository;
+    private final Random random = new Random(13);
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new DatabaseHelper(context, null); // In-Memory-Datenbank
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        for (int user = 1; user <= USERS; user++) {
+            db.execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{user, "user" + user, "pw"});
+        }
+        repository = new TransactionRepository(dbHelper);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void randomWrites_matchSqlSums() {
+        List<Integer> ids = new ArrayList<>();
+        for (int step = 0; step < 2_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || ids.isEmpty()) {
+                int type = random.nextBoolean() ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE;
+                assertTrue(repository.addTransaction(1 + random.nextInt(USERS), type, randomCents(), "Kategorie", randomDay(), null));
+                ids.add(lastId());
+            } else if (operation < 8) {
+                int id = ids.get(random.nextInt(ids.size()));
+                assertTrue(repository.updateTransaction(id, randomCents(), "Kategorie", randomDay(), null));
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                assertTrue(repository.deleteTransaction(id));
+            }
+
+            if (step % 100 == 0) {
+                assertMatchesSql(repository);
+            }
+        }
+        assertMatchesSql(repository);
+
+        // Neues Repository: Baum wird aus der persistierten Tabelle daily_totals aufgebaut
+        assertMatchesSql(new TransactionRepository(dbHelper));
+    }
+
+    @Test
+    public void outlierDays_collectNextToRange() {
+        // Jahr 1 und 9999 gelangen über fromIso nicht mehr hinein, können aber aus älteren Daten stammen
+        long yearOne = LocalDate.of(1, 1, 1).toEpochDay();
+        long year9999 = LocalDate.of(9999, 12, 31).toEpochDay();
+        assertTrue(repository.addTransaction(1, DatabaseHelper.EINNAHME, 1_000, "Kategorie", yearOne, null));
+        assertTrue(repository.addTransaction(1, DatabaseHelper.AUSGABE, -300, "Kategorie", FIRST_DAY, null));
+        assertEquals(700, repository.getBalanceAsOf(1, FIRST_DAY)); // Baum geladen, ohne ein Feld je Tag seit dem Jahr 1
+        assertTrue(repository.addTransaction(1, DatabaseHelper.AUSGABE, -50, "Kategorie", year9999, null));
+        assertTrue(repository.addTransaction(1, DatabaseHelper.AUSGABE, -20, "Kategorie", yearOne + 1, null));
+
+        // Innerhalb des Bereichs exakt wie SQL, danach und beim Neuaufbau aus daily_totals ebenso
+        for (TransactionRepository current : new TransactionRepository[]{repository, new TransactionRepository(dbHelper)}) {
+            SQLiteDatabase db = dbHelper.getReadableDatabase();
+            for (long day : new long[]{EpochDay.MIN_DAY, FIRST_DAY - 1, FIRST_DAY, EpochDay.MAX_DAY}) {
+                assertEquals(sqlSum(db, 1, Long.MIN_VALUE, day), current.getBalanceAsOf(1, day));
+            }
+            assertEquals(-300, current.getNetFlow(1, EpochDay.MIN_DAY + 1, EpochDay.MAX_DAY));
+            assertEquals(current.getBalance(1), current.getBalanceAsOf(1, Long.MAX_VALUE / 2));
+        }
+    }
+
+    private void assertMatchesSql(TransactionRepository repository) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        for (int check = 0; check < 20; check++) {
+            int userId = 1 + random.nextInt(USERS);
+            // Auch Tage vor der ersten und nach der letzten Buchung abfragen
+            long from = randomDay() - 30;
+            long to = from + random.nextInt(DAYS);
+            assertEquals(sqlSum(db, userId, Long.MIN_VALUE, to), repository.getBalanceAsOf(userId, to));
+            assertEquals(sqlSum(db, userId, from, to), repository.getNetFlow(userId, from, to));
+        }
+        for (int userId = 1; userId <= USERS; userId++) {
+            assertEquals(repository.getBalance(userId), repository.getBalanceAsOf(userId, Long.MAX_VALUE / 2));
+        }
+    }
+
+    private static long sqlSum(SQLiteDatabase db, int userId, long from, long to) {
+        return DatabaseUtils.longForQuery(db, "SELECT COALESCE(SUM(amount_cents), 0) FROM transactions WHERE user_id = ? AND epoch_day BETWEEN ? AND ?",
+                new String[]{String.valueOf(userId), String.valueOf(from), String.valueOf(to)});
+    }
+
+    private int lastId() {
+        try (Cursor cursor = dbHelper.getReadableDatabase().rawQuery("SELECT MAX(id) FROM transactions", null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private long randomCents() {
+        return random.nextInt(200_000) - 100_000;
+    }
+
+    // Meist innerhalb des Zeitraums, gelegentlich davor oder weit danach (der Baum muss wachsen)
+    private long randomDay() {
+        int choice = random.nextInt(20);
+        if (choice == 0) {
+            return FIRST_DAY - random.nextInt(2 * DAYS);
+        } else if (choice == 1) {
+            return FIRST_DAY + DAYS + random.nextInt(2 * DAYS);
+        }
+        return FIRST_DAY + random.nextInt(DAYS);
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.BudgetTracker;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmarks der Datenbankschicht auf einer echten Datenbankdatei. Die Ergebnisse stehen im
+ * Logcat (Tag "DatabaseBenchmark"):
+ * - Speichern → Dashboard laden mit Neuöffnen der Datenbank gegenüber einer offen gehaltenen Verbindung
+ * - häufige Einzeloperationen mit rawQuery/ContentValues gegenüber vorkompilierten Statements
+ * - Summen über Zeitraum und Kategorie per SQL gegenüber dem spaltenweisen Speicher (1 Mio. Zeilen)
+ * - Summen je Tag bis Jahr und Kategorie: GROUP BY je Stufe gegenüber einem (parallelen) Durchlauf (100k, 1 Mio. Zeilen)
+ * - 1k/10k/100k Inserts mit einer Transaktion je Zeile gegenüber Write-Behind mit Gruppen-Commit
+ * - Wechsel zwischen Dashboard, Bericht und Statistik ohne Änderung: Treffer im Ergebnis-Cache statt SQLite
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseBenchmarkTest {
+
+    private static final String TAG = "DatabaseBenchmark";
+    private static final String DATABASE_NAME = "benchmark.db";
+    private static final int ROUNDS = 200;
+    private static final int OPERATIONS = 10_000;
+    private static final int USER_ID = 1;
+    private static final int ANALYTICS_ROWS = 1_000_000;
+    private static final int CATEGORIES = 20;
+    private static final int[] INSERT_COUNTS = {1_000, 10_000, 100_000};
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        helper.getWritableDatabase().execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{USER_ID, "benchmark", "pw"});
+        helper.close();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void addTransactionThenDashboard_reopenVersusSharedConnection() {
+        // Früher: jede Activity hat einen eigenen Helper, addTransaction schließt die Verbindung
+        long[] reopen = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            DatabaseHelper addHelper = new DatabaseHelper(context, DATABASE_NAME);
+            new TransactionRepository(addHelper).addTransaction(USER_ID, DatabaseHelper.AUSGABE, 1_00, "Benchmark", 19_723, "Runde " + i);
+            addHelper.close();
+            DatabaseHelper dashboardHelper = new DatabaseHelper(context, DATABASE_NAME);
+            loadDashboard(new TransactionRepository(dashboardHelper));
+            reopen[i] = System.nanoTime() - start;
+            dashboardHelper.close();
+        }
+
+        // Jetzt: eine Verbindung für den gesamten Prozess
+        DatabaseHelper shared = new DatabaseHelper(context, DATABASE_NAME);
+        TransactionRepository repository = new TransactionRepository(shared);
+        shared.getWritableDatabase(); // Öffnen einmalig beim Prozessstart, nicht Teil der Runde
+        long[] sharedTimes = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            repository.addTransaction(USER_ID, DatabaseHelper.AUSGABE, 1_00, "Benchmark", 19_723, "Runde " + i);
+            loadDashboard(repository);
+            sharedTimes[i] = System.nanoTime() - start;
+        }
+
+        assertEquals(-2L * ROUNDS * 1_00, repository.getBalance(USER_ID));
+        assertEquals(2 * ROUNDS, repository.getTransactionCount(USER_ID));
+        shared.close();
+
+        long reopenMedian = median(reopen);
+        long sharedMedian = median(sharedTimes);
+        Log.i(TAG, "Speichern → Dashboard, Median über " + ROUNDS + " Runden: mit Neuöffnen " + reopenMedian / 1_000 + " µs, "
+                + "gemeinsame Verbindung " + sharedMedian / 1_000 + " µs, gespart " + (reopenMedian - sharedMedian) / 1_000 + " µs");
+        // Streuung dazu, damit ein einzelner Lauf mit Ausreißern (GC, Flash) erkennbar ist
+        Log.i(TAG, "Speichern → Dashboard, 10./90. Perzentil: mit Neuöffnen " + percentile(reopen, 10) / 1_000 + "/"
+                + percentile(reopen, 90) / 1_000 + " µs, gemeinsame Verbindung " + percentile(sharedTimes, 10) / 1_000 + "/"
+                + percentile(sharedTimes, 90) / 1_000 + " µs");
+    }
+
+    @Test
+    public void navigateBetweenScreens_readsFromCache() {
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        TransactionRepository repository = new TransactionRepository(helper);
+        repository.addTransaction(USER_ID, DatabaseHelper.AUSGABE, 1_00, "Benchmark", 19_723, "Navigation");
+
+        loadDashboard(repository);
+        repository.getMonthlyStatistics(USER_ID);
+        long misses = repository.getCacheMissCount();
+
+        // Zurück zum Dashboard, Bericht, Statistik: nichts geändert, also keine Datenbankabfrage
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            loadDashboard(repository);
+            repository.getMonthlyStatistics(USER_ID);
+        }
+        long cached = System.nanoTime() - start;
+        assertEquals(misses, repository.getCacheMissCount());
+
+        // Jede Änderung macht die Ergebnisse des Benutzers ungültig
+        repository.addTransaction(USER_ID, DatabaseHelper.AUSGABE, 1_00, "Benchmark", 19_723, "Navigation 2");
+        loadDashboard(repository);
+        assertEquals(misses + 3, repository.getCacheMissCount());
+        assertEquals(-2_00, repository.getBalance(USER_ID));
+        helper.close();
+
+        Log.i(TAG, "Bildschirmwechsel ohne Änderung: " + cached / ROUNDS / 1_000.0 + " µs je Runde, Cache "
+                + repository.getCacheHitCount() + " Treffer, " + repository.getCacheMissCount() + " Fehlschläge");
+    }
+
+    @Test
+    public void hotStatements_rawQueryVersusStatementCache() {
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        String[] userArgs = {String.valueOf(USER_ID)};
+        int categoryId = helper.getCategories().idFor("Benchmark");
+
+        // Vorher: SQL-Zeichenkette, rawQuery bzw. ContentValues bei jedem Aufruf
+        long[] ids = new long[OPERATIONS];
+        long insertBefore = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            ContentValues values = new ContentValues();
+            values.put(DatabaseHelper.COLUMN_USER_ID, USER_ID);
+            values.put(DatabaseHelper.COLUMN_TYPE, DatabaseHelper.AUSGABE);
+            values.put(DatabaseHelper.COLUMN_AMOUNT_CENTS, -1_00);
+            values.put(DatabaseHelper.COLUMN_CATEGORY_ID, categoryId);
+            values.put(DatabaseHelper.COLUMN_EPOCH_DAY, 19_723);
+            values.put(DatabaseHelper.COLUMN_DESCRIPTION, "Vorher " + i);
+            ids[i] = db.insert(DatabaseHelper.TABLE_TRANSACTIONS, null, values);
+        }
+        insertBefore = System.nanoTime() - insertBefore;
+
+        long balanceBefore = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            try (Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.COLUMN_BALANCE_CENTS + " FROM " + DatabaseHelper.TABLE_BALANCES
+                    + " WHERE " + DatabaseHelper.COLUMN_USER_ID + " = ?", userArgs)) {
+                cursor.moveToFirst();
+            }
+        }
+        balanceBefore = System.nanoTime() - balanceBefore;
+
+        long updateBefore = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            ContentValues values = new ContentValues();
+            values.put(DatabaseHelper.COLUMN_AMOUNT_CENTS, -2_00);
+            values.put(DatabaseHelper.COLUMN_CATEGORY_ID, categoryId);
+            values.put(DatabaseHelper.COLUMN_EPOCH_DAY, 19_724);
+            values.put(DatabaseHelper.COLUMN_DESCRIPTION, "Vorher geändert " + i);
+            db.update(DatabaseHelper.TABLE_TRANSACTIONS, values, "id = ?", new String[]{String.valueOf(ids[i])});
+        }
+        updateBefore = System.nanoTime() - updateBefore;
+
+        long deleteBefore = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            db.delete(DatabaseHelper.TABLE_TRANSACTIONS, "id = ?", new String[]{String.valueOf(ids[i])});
+        }
+        deleteBefore = System.nanoTime() - deleteBefore;
+
+        // Nachher: dieselben Operationen über die vorkompilierten Statements des DatabaseHelper
+        long insertAfter = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            helper.addTransaction(USER_ID, DatabaseHelper.AUSGABE, 1_00, categoryId, 19_723, "Nachher " + i);
+        }
+        insertAfter = System.nanoTime() - insertAfter;
+        try (Cursor cursor = db.rawQuery("SELECT id FROM transactions ORDER BY id", null)) {
+            for (int i = 0; cursor.moveToNext(); i++) {
+                ids[i] = cursor.getLong(0);
+            }
+        }
+
+        long balanceAfter = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            helper.getBalance(USER_ID);
+        }
+        balanceAfter = System.nanoTime() - balanceAfter;
+
+        long updateAfter = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            helper.updateTransaction((int) ids[i], -2_00, categoryId, 19_724, "Nachher geändert " + i);
+        }
+        updateAfter = System.nanoTime() - updateAfter;
+        assertEquals(-2L * OPERATIONS * 1_00, helper.getBalance(USER_ID));
+
+        long deleteAfter = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            helper.deleteTransaction((int) ids[i]);
+        }
+        deleteAfter = System.nanoTime() - deleteAfter;
+
+        assertEquals(0, helper.getTransactionCount(USER_ID));
+        helper.close();
+
+        logPerCall("Insert", insertBefore, insertAfter);
+        logPerCall("Kontostand", balanceBefore, balanceAfter);
+        logPerCall("Update", updateBefore, updateAfter);
+        logPerCall("Delete", deleteBefore, deleteAfter);
+    }
+
+    @Test
+    public void rangeSums_sqlVersusColumnStore() {
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        Random random = new Random(42);
+        insertCategories(db);
+        insertAnalyticsRows(db, random, ANALYTICS_ROWS);
+
+        TransactionRepository repository = new TransactionRepository(helper);
+        long loadStart = System.nanoTime();
+        TransactionColumnStore.Columns columns = repository.getColumns(USER_ID);
+        long load = System.nanoTime() - loadStart;
+        assertEquals(ANALYTICS_ROWS, columns.size());
+
+        // Ausgaben einer Kategorie in einem Jahr (2020) und alle Buchungen über den gesamten Zeitraum
+        long[][] filters = {{18_262, 18_627, 7, DatabaseHelper.AUSGABE}, {0, 30_000, TransactionColumnStore.ANY, TransactionColumnStore.ANY}};
+        for (long[] filter : filters) {
+            long sqlStart = System.nanoTime();
+            long sqlSum;
+            try (Cursor cursor = db.rawQuery("SELECT COALESCE(SUM(amount_cents), 0) FROM transactions WHERE user_id = ? AND epoch_day BETWEEN ? AND ?"
+                            + (filter[2] == TransactionColumnStore.ANY ? "" : " AND category_id = " + filter[2])
+                            + (filter[3] == TransactionColumnStore.ANY ? "" : " AND type = " + filter[3]),
+                    new String[]{String.valueOf(USER_ID), String.valueOf(filter[0]), String.valueOf(filter[1])})) {
+                cursor.moveToFirst();
+                sqlSum = cursor.getLong(0);
+            }
+            long sql = System.nanoTime() - sqlStart;
+
+            long columnStart = System.nanoTime();
+            long columnSum = columns.sumCents(filter[0], filter[1], (int) filter[2], (int) filter[3]);
+            long column = System.nanoTime() - columnStart;
+
+            assertEquals(sqlSum, columnSum);
+            Log.i(TAG, "Summe über Tage " + filter[0] + "-" + filter[1] + ": SQL " + sql / 1_000 + " µs, Spalten " + column / 1_000 + " µs");
+        }
+
+        // Top 8 der Ausgaben nach Kategorie über alle 15 Jahre, verglichen mit dem Jahr davor
+        long sqlStart = System.nanoTime();
+        long sqlTop;
+        try (Cursor cursor = db.rawQuery("SELECT category_id, -SUM(amount_cents) AS spent FROM transactions WHERE user_id = ? AND type = "
+                + DatabaseHelper.AUSGABE + " AND epoch_day BETWEEN 14610 AND 20089 GROUP BY category_id ORDER BY spent DESC LIMIT 8",
+                new String[]{String.valueOf(USER_ID)})) {
+            cursor.moveToFirst();
+            sqlTop = cursor.getLong(1);
+        }
+        long sql = System.nanoTime() - sqlStart;
+        long breakdownStart = System.nanoTime();
+        CategoryBreakdown breakdown = repository.getCategoryBreakdown(USER_ID, 14_610, 20_089, 14_245, 14_609, 8);
+        long column = System.nanoTime() - breakdownStart;
+        assertEquals(sqlTop, breakdown.cents(0));
+        Log.i(TAG, "Top 8 Kategorien über 15 Jahre: SQL " + sql / 1_000 + " µs, Spalten " + column / 1_000 + " µs");
+        helper.close();
+        Log.i(TAG, "Spalten für " + ANALYTICS_ROWS + " Zeilen geladen in " + load / 1_000_000 + " ms");
+    }
+
+    @Test
+    public void aggregation_sqlGroupByVersusSinglePass() {
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        Random random = new Random(43);
+        insertCategories(db);
+        int rows = 0;
+        for (int target : new int[]{100_000, ANALYTICS_ROWS}) {
+            insertAnalyticsRows(db, random, target - rows);
+            rows = target;
+            TransactionColumnStore.Columns columns = new TransactionRepository(helper).getColumns(USER_ID);
+            assertEquals(rows, columns.size());
+
+            // Bisher: eine GROUP-BY-Abfrage je Stufe und für die Kategorien
+            String[] groups = {"epoch_day", "epoch_day - (epoch_day + 3) % 7", "strftime('%Y-%m', epoch_day * 86400, 'unixepoch')",
+                    "strftime('%Y', epoch_day * 86400, 'unixepoch') || ((CAST(strftime('%m', epoch_day * 86400, 'unixepoch') AS INTEGER) + 2) / 3)",
+                    "strftime('%Y', epoch_day * 86400, 'unixepoch')", "category_id"};
+            int[] sqlGroups = new int[groups.length];
+            long sqlStart = System.nanoTime();
+            for (int g = 0; g < groups.length; g++) {
+                try (Cursor cursor = db.rawQuery("SELECT " + groups[g] + " AS bucket, SUM(CASE WHEN type = " + DatabaseHelper.EINNAHME
+                                + " THEN amount_cents ELSE 0 END), SUM(CASE WHEN type = " + DatabaseHelper.EINNAHME + " THEN 0 ELSE -amount_cents END)"
+                                + " FROM transactions WHERE user_id = ? GROUP BY bucket",
+                        new String[]{String.valueOf(USER_ID)})) {
+                    sqlGroups[g] = cursor.getCount();
+                }
+            }
+            long sql = System.nanoTime() - sqlStart;
+
+            // Ein Durchlauf über die Spalten, einmal auf einem Thread und einmal auf dem gemeinsamen Pool verteilt
+            long sequentialStart = System.nanoTime();
+            Aggregates sequential = columns.aggregateWith(new ForkJoinPool(1), Integer.MAX_VALUE);
+            long single = System.nanoTime() - sequentialStart;
+            long parallelStart = System.nanoTime();
+            Aggregates parallel = columns.aggregate();
+            long forkJoin = System.nanoTime() - parallelStart;
+
+            for (int level = Aggregates.DAY; level <= Aggregates.YEAR; level++) {
+                assertEquals(sqlGroups[level], parallel.level(level).size());
+                assertEquals(sequential.level(level).size(), parallel.level(level).size());
+            }
+            assertEquals(sqlGroups[groups.length - 1], parallel.categoryCount());
+            Log.i(TAG, rows + " Zeilen, Tag bis Jahr und Kategorien: SQL " + sql / 1_000_000 + " ms (" + groups.length + " Abfragen), "
+                    + "ein Durchlauf " + single / 1_000_000 + " ms, parallel " + forkJoin / 1_000_000 + " ms ("
+                    + Runtime.getRuntime().availableProcessors() + " Kerne)");
+        }
+        helper.close();
+    }
+
+    private static void insertCategories(SQLiteDatabase db) {
+        for (int category = 1; category <= CATEGORIES; category++) {
+            db.execSQL("INSERT INTO categories (id, name) VALUES (?, ?)", new Object[]{category, "Kategorie " + category});
+        }
+    }
+
+    // Zufällige Buchungen 2010 bis 2024, ein Viertel Einnahmen, in einer Transaktion
+    private static void insertAnalyticsRows(SQLiteDatabase db, Random random, int count) {
+        db.beginTransaction();
+        try {
+            SQLiteStatement insert = db.compileStatement("INSERT INTO transactions (user_id, type, amount_cents, category_id, epoch_day, description) VALUES (?, ?, ?, ?, ?, NULL)");
+            for (int i = 0; i < count; i++) {
+                boolean income = random.nextInt(4) == 0;
+                insert.bindLong(1, USER_ID);
+                insert.bindLong(2, income ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE);
+                insert.bindLong(3, (income ? 1 : -1) * random.nextInt(100_000));
+                insert.bindLong(4, 1 + random.nextInt(CATEGORIES));
+                insert.bindLong(5, 14_610 + random.nextInt(15 * 365)); // 2010 bis 2024
+                insert.executeInsert();
+            }
+            insert.close();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Test
+    public void inserts_directVersusWriteBehind() throws InterruptedException {
+        for (int count : INSERT_COUNTS) {
+            // Bisher: jede Zeile in einer eigenen Transaktion
+            DatabaseHelper helper = emptyDatabase(); // beide Wege starten mit leerer Tabelle und gleich großen Indizes
+            TransactionRepository repository = new TransactionRepository(helper);
+            long direct = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                repository.addTransaction(USER_ID, DatabaseHelper.AUSGABE, 1_00, "Benchmark", 19_723, "Direkt " + i);
+            }
+            direct = System.nanoTime() - direct;
+            assertEquals(count, repository.getTransactionCount(USER_ID));
+            helper.close();
+
+            // Write-Behind: einreihen und am Ende auf den letzten Commit warten
+            helper = emptyDatabase();
+            repository = new TransactionRepository(helper);
+            repository.setWriteBehind(true);
+            long queued = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                repository.addTransactionAsync(USER_ID, DatabaseHelper.AUSGABE, 1_00, "Benchmark", 19_723, "Gruppe " + i, success -> { });
+            }
+            repository.flushWrites();
+            queued = System.nanoTime() - queued;
+            repository.setWriteBehind(false);
+            assertEquals(count, repository.getTransactionCount(USER_ID));
+            helper.close();
+
+            Log.i(TAG, count + " Inserts: einzeln " + count * 1_000_000_000L / direct + " Zeilen/s (" + direct / 1_000_000 + " ms), "
+                    + "Write-Behind " + count * 1_000_000_000L / queued + " Zeilen/s (" + queued / 1_000_000 + " ms)");
+        }
+    }
+
+    // Neue Datenbankdatei mit dem Benutzer wie in setUp(), bereits geöffnet
+    private DatabaseHelper emptyDatabase() {
+        context.deleteDatabase(DATABASE_NAME);
+        DatabaseHelper helper = new DatabaseHelper(context, DATABASE_NAME);
+        helper.getWritableDatabase().execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{USER_ID, "benchmark", "pw"});
+        return helper;
+    }
+
+    private static void logPerCall(String operation, long beforeNanos, long afterNanos) {
+        Log.i(TAG, operation + " über " + OPERATIONS + " Aufrufe: vorher " + beforeNanos / OPERATIONS / 1_000.0 + " µs/Aufruf, "
+                + "nachher " + afterNanos / OPERATIONS / 1_000.0 + " µs/Aufruf");
+    }
+
+    // Was das Dashboard nach dem Speichern liest: Kontostand, Anzahl und erste Seite
+    private static void loadDashboard(TransactionRepository repository) {
+        repository.getBalance(USER_ID);
+        repository.getTransactionCount(USER_ID);
+        repository.getTransactionPage(USER_ID, true, null, null, PagedTransactionList.PAGE_SIZE);
+    }
+
+    private static long median(long[] values) {
+        return percentile(values, 50);
+    }
+
+    private static long percentile(long[] values, int percent) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
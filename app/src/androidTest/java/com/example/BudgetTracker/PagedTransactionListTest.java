@@ -0,0 +1,196 @@
+package com.example.BudgetTracker;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prüft, dass Änderungen nur die betroffenen Zeilen melden: gezählt wird, wie viele Zeilen der Adapter
+ * neu binden müsste (geändert oder eingefügt), statt der ganzen Liste wie bei notifyDataSetChanged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PagedTransactionListTest {
+
+    private static final int USER_ID = 1;
+    private static final int ROWS = 3 * PagedTransactionList.PAGE_SIZE;
+    private static final long FIRST_DAY = 19_000;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private DatabaseHelper dbHelper;
+    private TransactionRepository repository;
+    private PagedTransactionList list;
+    private final CountingListener listener = new CountingListener();
+
+    @Before
+    public void setUp() {
+        Context context = instrumentation.getTargetContext();
+        dbHelper = new DatabaseHelper(context, null); // In-Memory-Datenbank
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{USER_ID, "user", "pw"});
+        repository = new TransactionRepository(dbHelper);
+        for (int i = 0; i < ROWS; i++) {
+            assertTrue(repository.addTransaction(USER_ID, DatabaseHelper.AUSGABE, -100 - i, "Kategorie", FIRST_DAY + i, "Zeile " + i));
+        }
+
+        instrumentation.runOnMainSync(() -> {
+            list = new PagedTransactionList(repository, USER_ID, true, listener);
+            repository.addChangeListener(list::applyChanges); // wie der Adapter
+            list.refresh();
+        });
+        awaitIdle();
+        // Alle Seiten laden, wie beim Scrollen durch die Liste
+        for (int position = 0; position < ROWS; position += PagedTransactionList.PAGE_SIZE / 2) {
+            int current = position;
+            instrumentation.runOnMainSync(() -> list.get(current));
+            awaitIdle();
+        }
+        listener.reset();
+    }
+
+    @After
+    public void tearDown() {
+        instrumentation.runOnMainSync(() -> list.release());
+        dbHelper.close();
+    }
+
+    @Test
+    public void singleRowEdit_bindsOneRow() {
+        Transaction row = rowAt(10);
+        assertTrue(repository.updateTransaction(row.getId(), row.getAmountCents(), "Kategorie", row.getEpochDay(), "geändert"));
+        awaitIdle();
+
+        assertEquals(1, listener.bound);
+        assertEquals(0, listener.inserted + listener.removed + listener.moved + listener.reloaded);
+        assertEquals("geändert", rowAt(10).getDescription());
+    }
+
+    @Test
+    public void singleRowEditThatMoves_bindsOneRow() {
+        Transaction row = rowAt(10);
+        // Neuestes Datum: die Zeile wandert an den Anfang der nach Datum absteigend sortierten Liste
+        assertTrue(repository.updateTransaction(row.getId(), row.getAmountCents(), "Kategorie", FIRST_DAY + ROWS, row.getDescription()));
+        awaitIdle();
+
+        assertEquals(1, listener.bound);
+        assertEquals(1, listener.moved);
+        assertEquals(0, listener.inserted + listener.removed + listener.reloaded);
+        assertEquals(row.getId(), rowAt(0).getId());
+        assertMatchesDatabase();
+    }
+
+    @Test
+    public void singleRowDelete_bindsNothing() {
+        Transaction row = rowAt(70);
+        assertTrue(repository.deleteTransaction(row.getId()));
+        awaitIdle();
+
+        assertEquals(0, listener.bound);
+        assertEquals(1, listener.removed);
+        assertEquals(0, listener.reloaded);
+        assertMatchesDatabase();
+    }
+
+    @Test
+    public void singleRowInsert_bindsOneRow() {
+        assertTrue(repository.addTransaction(USER_ID, DatabaseHelper.EINNAHME, 500, "Kategorie", FIRST_DAY + 42, "neu"));
+        awaitIdle();
+
+        assertEquals(1, listener.bound);
+        assertEquals(1, listener.inserted);
+        assertEquals(0, listener.removed + listener.reloaded);
+        assertMatchesDatabase();
+    }
+
+    // Reihenfolge und Inhalt wie eine frische Abfrage
+    private void assertMatchesDatabase() {
+        TransactionSnapshot expected = repository.getTransactionPage(USER_ID, true, null, null, Integer.MAX_VALUE);
+        int[] size = new int[1];
+        instrumentation.runOnMainSync(() -> size[0] = list.size());
+        assertEquals(expected.size(), size[0]);
+        for (int position = 0; position < expected.size(); position++) {
+            assertEquals(expected.id(position), rowAt(position).getId());
+        }
+    }
+
+    // Zeile an der Position; lädt ihre Seite bei Bedarf nach
+    private Transaction rowAt(int position) {
+        Transaction[] row = new Transaction[1];
+        instrumentation.runOnMainSync(() -> row[0] = list.get(position));
+        if (row[0] == null) {
+            awaitIdle();
+            instrumentation.runOnMainSync(() -> row[0] = list.get(position));
+        }
+        assertNotNull(row[0]);
+        return row[0];
+    }
+
+    // Wartet, bis Änderungsmeldungen zugestellt und alle Ladevorgänge abgeschlossen sind
+    private void awaitIdle() {
+        boolean[] idle = new boolean[1];
+        for (int attempt = 0; attempt < 500; attempt++) {
+            instrumentation.waitForIdleSync();
+            instrumentation.runOnMainSync(() -> idle[0] = list.isIdle());
+            if (idle[0]) {
+                return;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        fail("Liste lädt nach 5 s noch");
+    }
+
+    private static final class CountingListener implements PagedTransactionList.Listener {
+        int bound; // Zeilen, die der Adapter neu binden müsste
+        int inserted;
+        int removed;
+        int moved;
+        int reloaded;
+
+        void reset() {
+            bound = inserted = removed = moved = reloaded = 0;
+        }
+
+        @Override
+        public void onReloaded() {
+            reloaded++;
+        }
+
+        @Override
+        public void onCountChanged(int count) {
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserted += count;
+            bound += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removed += count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            moved++;
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            bound += count;
+        }
+    }
+}
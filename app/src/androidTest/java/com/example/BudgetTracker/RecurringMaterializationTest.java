@@ -0,0 +1,88 @@
+package com.example.BudgetTracker;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Daueraufträge über das Repository: fällige Ausführungen werden in Gruppen genau einmal gebucht,
+ * geplante erscheinen in Kontostand, Zeitraumsummen und Liste, ohne als Zeilen gespeichert zu sein.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecurringMaterializationTest {
+
+    private static final int USER_ID = 1;
+    private static final long START = 18_000;
+
+    private DatabaseHelper dbHelper;
+    private TransactionRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new DatabaseHelper(context, null); // In-Memory-Datenbank
+        dbHelper.getWritableDatabase().execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{USER_ID, "user", "pw"});
+        repository = new TransactionRepository(dbHelper);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void materialize_booksDueOccurrencesOnce() {
+        long today = START + 1_199; // 1.200 tägliche Ausführungen: mehrere Schreibgruppen
+        dbHelper.addRecurringRule(USER_ID, DatabaseHelper.AUSGABE, 250, CategoryDictionary.NONE, "Kaffee", START,
+                RecurringRule.OPEN_END, RecurringRule.DAY, 1);
+
+        assertEquals(1_200, repository.materializeRecurring(USER_ID, today));
+        assertEquals(0, repository.materializeRecurring(USER_ID, today)); // nichts doppelt
+        assertEquals(1, repository.materializeRecurring(USER_ID, today + 1));
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        assertEquals(1_201, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM transactions WHERE user_id = " + USER_ID, null));
+        assertEquals(-250 * 1_201, repository.getBalance(USER_ID));
+        assertEquals(1_201, repository.getRecurringRules(USER_ID).get(0).getNextIndex());
+        assertEquals(1_201, repository.getColumns(USER_ID).size());
+    }
+
+    @Test
+    public void plannedOccurrences_appearInReadsWithoutRows() {
+        long today = START + 10;
+        dbHelper.addRecurringRule(USER_ID, DatabaseHelper.EINNAHME, 300_000, CategoryDictionary.NONE, "Gehalt", START,
+                RecurringRule.OPEN_END, RecurringRule.MONTH, 1);
+        assertTrue(repository.addTransaction(USER_ID, DatabaseHelper.AUSGABE, 5_000, "Lebensmittel", today + 3, null));
+        repository.materializeRecurring(USER_ID, today); // bucht nur die erste Ausführung
+
+        long inYear = today + 365;
+        RecurringRule salary = repository.getRecurringRules(USER_ID).get(0);
+        long planned = salary.plannedCount(today + 1, inYear);
+        assertEquals(12, planned);
+        assertEquals(300_000 - 5_000 + planned * 300_000, repository.getBalanceAsOf(USER_ID, inYear));
+        assertEquals(-5_000 + planned * 300_000, repository.getNetFlow(USER_ID, today + 1, inYear));
+
+        TransactionSnapshot rows = repository.getTransactionsBetween(USER_ID, today + 1, inYear, 5);
+        assertEquals(5, rows.size());
+        assertFalse(OccurrenceMerge.isPlanned(rows.id(0))); // gespeicherte Ausgabe vor der nächsten Gehaltszahlung
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(OccurrenceMerge.isPlanned(rows.id(i)));
+            assertTrue(rows.epochDay(i) >= rows.epochDay(i - 1));
+        }
+        assertEquals(2, DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(), "SELECT COUNT(*) FROM transactions", null));
+
+        // Beendet: keine geplanten Ausführungen mehr
+        assertTrue(repository.endRecurringRule(USER_ID, salary.getId(), today));
+        assertEquals(300_000 - 5_000, repository.getBalanceAsOf(USER_ID, inYear));
+    }
+}
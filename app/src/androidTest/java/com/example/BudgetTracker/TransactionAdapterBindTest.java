@@ -0,0 +1,147 @@
+package com.example.BudgetTracker;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Debug;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bindet einen ViewHolder über den echten Pfad des Adapters (Seite, Kategorienamen, Beschreibung,
+ * Formatierung, setText) wiederholt an Zeilen aus geladenen Seiten. Gezählt werden die Allokationen
+ * des Main-Threads; abgezogen wird nur, was die TextViews beim setText für ihre Textkopie anlegen.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransactionAdapterBindTest {
+
+    private static final String TAG = "TransactionAdapterBind";
+    private static final int USER_ID = 1;
+    private static final int ROWS = 3 * PagedTransactionList.PAGE_SIZE;
+    private static final long FIRST_DAY = 19_000;
+    private static final int BINDS = 10_000;
+    private static final int SLACK_OBJECTS = 64; // Messung selbst, unabhängig von der Anzahl der Bindungen
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private DatabaseHelper dbHelper;
+    private TransactionRepository repository;
+    private TransactionAdapter adapter;
+    private TransactionAdapter.ViewHolder holder;
+
+    @Before
+    public void setUp() {
+        Context context = instrumentation.getTargetContext();
+        dbHelper = new DatabaseHelper(context, null); // In-Memory-Datenbank
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{USER_ID, "user", "pw"});
+        repository = new TransactionRepository(dbHelper);
+        String[] categories = {"Lebensmittel", "Miete", "Freizeit", null};
+        for (int i = 0; i < ROWS; i++) {
+            int type = i % 5 == 0 ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE;
+            String description = i % 7 == 0 ? null : "Zeile " + i; // auch Standardtexte binden
+            assertTrue(repository.addTransaction(USER_ID, type, type == DatabaseHelper.EINNAHME ? 250_000 : -1_999 - i,
+                    categories[i % categories.length], FIRST_DAY + i, description));
+        }
+
+        instrumentation.runOnMainSync(() -> {
+            Context themed = new ContextThemeWrapper(context, R.style.Theme_Myapp);
+            adapter = new TransactionAdapter(themed, repository, USER_ID, true);
+            holder = adapter.onCreateViewHolder(new FrameLayout(themed), 0);
+            adapter.refresh();
+        });
+        awaitAllPagesLoaded();
+    }
+
+    @After
+    public void tearDown() {
+        instrumentation.runOnMainSync(() -> adapter.release());
+        dbHelper.close();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation") // Debug.*AllocCount: einziger Zähler je Thread unter ART
+    public void bind_allocatesOnlyTextCopies() {
+        long[] counts = new long[4];
+        instrumentation.runOnMainSync(() -> {
+            bindRows(BINDS); // Aufwärmen: Puffer auf Endgröße, Farben im Cache
+            Debug.startAllocCounting();
+            try {
+                Debug.resetThreadAllocCount();
+                Debug.resetThreadAllocSize();
+                bindRows(BINDS);
+                counts[0] = Debug.getThreadAllocCount();
+                counts[1] = Debug.getThreadAllocSize();
+
+                // Vergleich: nur die fünf setText-Aufrufe mit denselben Puffern wie beim Binden
+                Debug.resetThreadAllocCount();
+                Debug.resetThreadAllocSize();
+                setTexts(BINDS);
+                counts[2] = Debug.getThreadAllocCount();
+                counts[3] = Debug.getThreadAllocSize();
+            } finally {
+                Debug.stopAllocCounting();
+            }
+        });
+
+        long bindObjects = counts[0], textObjects = counts[2];
+        Log.i(TAG, BINDS + " Bindungen: " + bindObjects + " Objekte / " + counts[1] + " Bytes, davon setText allein "
+                + textObjects + " Objekte / " + counts[3] + " Bytes");
+        assertTrue("Zähler liefert nichts, Messung ungültig", textObjects > 0);
+        assertTrue("Allokation beim Binden außer den Texten: " + (bindObjects - textObjects) + " Objekte",
+                bindObjects - textObjects < SLACK_OBJECTS);
+    }
+
+    // Echter Bindepfad über alle Zeilen, reihum
+    private void bindRows(int binds) {
+        for (int i = 0; i < binds; i++) {
+            adapter.onBindViewHolder(holder, i % ROWS);
+        }
+    }
+
+    // Dieselben Texte wie beim Binden erneut setzen; misst die Kopie, die jede TextView anlegt
+    private void setTexts(int binds) {
+        CharSequence type = holder.typeTextView.getText().toString();
+        for (int i = 0; i < binds; i++) {
+            holder.typeTextView.setText(type);
+            holder.amountTextView.setText(holder.amountText);
+            holder.categoryTextView.setText(holder.categoryText);
+            holder.dateTextView.setText(holder.dateText);
+            holder.descriptionTextView.setText(holder.descriptionText);
+        }
+    }
+
+    // Bindet jede Position, bis keine mehr als Platzhalter gebunden wird
+    private void awaitAllPagesLoaded() {
+        boolean[] loaded = new boolean[1];
+        for (int attempt = 0; attempt < 500; attempt++) {
+            instrumentation.waitForIdleSync();
+            instrumentation.runOnMainSync(() -> {
+                loaded[0] = adapter.getItemCount() == ROWS;
+                for (int position = 0; position < ROWS && loaded[0]; position++) {
+                    adapter.onBindViewHolder(holder, position);
+                    loaded[0] = holder.rows != null && holder.row == PagedTransactionList.rowInPage(position);
+                }
+            });
+            if (loaded[0]) {
+                return;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        fail("Seiten nach 5 s nicht geladen");
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.BudgetTracker;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prüft die Abfragepläne der Transaktionsliste (Seite, Schlüssel an einer Position, Anzahl dahinter):
+ * ohne Suche werden beide Sortierungen direkt aus ihrem Index gelesen, ohne temporäre Sortierung
+ * (USE TEMP B-TREE); mit Suche beginnt die Abfrage bei den Treffern des Volltextindex.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransactionQueryPlanTest {
+
+    private static final String TAG = "TransactionQueryPlan";
+    private static final int ROWS = 500_000;
+    private static final int USERS = 5;
+    private static final String MATCH = TransactionRepository.toMatchQuery("Buchung 4242");
+    private static final PagedTransactionList.Key KEY = new PagedTransactionList.Key(17_000, 250_000); // Mitte der Liste
+
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new DatabaseHelper(context, null); // In-Memory-Datenbank
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        Random random = new Random(42);
+        db.beginTransaction();
+        try {
+            for (int user = 1; user <= USERS; user++) {
+                db.execSQL("INSERT INTO users (id, username, password) VALUES (?, ?, ?)", new Object[]{user, "user" + user, "pw"});
+            }
+            for (int category = 1; category <= 20; category++) {
+                db.execSQL("INSERT INTO categories (id, name) VALUES (?, ?)", new Object[]{category, "Kategorie " + category});
+            }
+            SQLiteStatement insert = db.compileStatement("INSERT INTO transactions (user_id, type, amount_cents, category_id, epoch_day, description) VALUES (?, ?, ?, ?, ?, ?)");
+            for (int i = 0; i < ROWS; i++) {
+                boolean income = random.nextInt(4) == 0;
+                insert.bindLong(1, 1 + random.nextInt(USERS));
+                insert.bindLong(2, income ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE);
+                insert.bindLong(3, (income ? 1 : -1) * random.nextInt(100_000));
+                insert.bindLong(4, 1 + random.nextInt(20));
+                insert.bindLong(5, 14_610 + random.nextInt(15 * 365)); // 2010 bis 2024
+                insert.bindString(6, "Buchung " + i);
+                insert.executeInsert();
+            }
+            insert.close();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        db.execSQL("ANALYZE");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void sortByDate_readsIndexWithoutTempBTree() {
+        assertIndexOnly(true, DatabaseHelper.INDEX_USER_DATE);
+    }
+
+    @Test
+    public void sortByAmount_readsIndexWithoutTempBTree() {
+        assertIndexOnly(false, DatabaseHelper.INDEX_USER_AMOUNT);
+    }
+
+    @Test
+    public void search_startsFromFullTextMatches() {
+        // Mit Suche liefert der Volltextindex die wenigen Treffer, nur diese werden per id gelesen und sortiert
+        for (boolean sortByDate : new boolean[]{true, false}) {
+            for (PagedTransactionList.Key after : new PagedTransactionList.Key[]{null, KEY}) {
+                assertFromMatches(explain(TransactionRepository.pageQuery(sortByDate, MATCH, after),
+                        TransactionRepository.listArgs(1, MATCH, after, PagedTransactionList.PAGE_SIZE)));
+                assertFromMatches(explain(TransactionRepository.keyQuery(sortByDate, MATCH, after),
+                        TransactionRepository.listArgs(1, MATCH, after, PagedTransactionList.PAGE_SIZE)));
+            }
+            assertFromMatches(explain(TransactionRepository.countAfterQuery(sortByDate, MATCH),
+                    TransactionRepository.keyArgs(1, MATCH, KEY).toArray(new String[0])));
+        }
+    }
+
+    @Test
+    public void search_firstPageReadsOnlyMatches() {
+        TransactionRepository repository = new TransactionRepository(dbHelper);
+        String query = TransactionRepository.toMatchQuery("Buchung 4242");
+        // Plan der Abfrage, die ein Tastendruck auslöst: Treffer aus dem Volltextindex, keine Zeile der Tabelle durchsucht
+        String plan = explain(TransactionRepository.pageQuery(true, query, null),
+                TransactionRepository.listArgs(1, query, null, PagedTransactionList.PAGE_SIZE));
+        assertFromMatches(plan);
+        assertNoTableScan(plan);
+
+        // Aufwärmen mit einer anderen Suche; dieselbe käme beim zweiten Mal aus dem Ergebnis-Cache
+        repository.getTransactionPage(1, true, TransactionRepository.toMatchQuery("Buchung 4243"), null, PagedTransactionList.PAGE_SIZE);
+
+        long start = System.nanoTime();
+        TransactionSnapshot page = repository.getTransactionPage(1, true, query, null, PagedTransactionList.PAGE_SIZE);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        assertFalse(page.isEmpty());
+        for (int i = 0; i < page.size(); i++) {
+            assertTrue(page.description(i).startsWith("Buchung 4242"));
+            assertTrue("nach Datum absteigend", i == 0 || page.epochDay(i - 1) >= page.epochDay(i));
+        }
+        // Zeit nur zur Information; geprüft wird der Plan, nicht die Geschwindigkeit des Geräts
+        Log.i(TAG, "Erste Suchseite (" + page.size() + " Treffer) aus " + ROWS + " Zeilen in " + micros + " µs");
+    }
+
+    // Seite, Schlüssel und Anzahl ohne Suche, erste Seite und mit Startschlüssel: nur der Index, keine Sortierung
+    private void assertIndexOnly(boolean sortByDate, String index) {
+        for (PagedTransactionList.Key after : new PagedTransactionList.Key[]{null, KEY}) {
+            String[] args = TransactionRepository.listArgs(1, null, after, PagedTransactionList.PAGE_SIZE);
+            assertIndexWithoutSort(explain(TransactionRepository.pageQuery(sortByDate, null, after), args), index);
+            assertIndexWithoutSort(explain(TransactionRepository.keyQuery(sortByDate, null, after), args), index);
+        }
+        assertIndexWithoutSort(explain(TransactionRepository.countAfterQuery(sortByDate, null),
+                TransactionRepository.keyArgs(1, null, KEY).toArray(new String[0])), index);
+    }
+
+    private static void assertIndexWithoutSort(String plan, String index) {
+        assertFalse(plan, plan.contains("USE TEMP B-TREE"));
+        assertTrue(plan, plan.contains(index));
+    }
+
+    private static void assertFromMatches(String plan) {
+        assertTrue(plan, plan.contains(DatabaseHelper.TABLE_TRANSACTIONS_FTS));
+        assertTrue(plan, plan.contains("INTEGER PRIMARY KEY"));
+    }
+
+    // Kein SCAN außer dem des Volltextindex; "SCAN transactions" (bzw. "SCAN TABLE" vor SQLite 3.36) liest jede Zeile
+    private static void assertNoTableScan(String plan) {
+        for (String line : plan.split("\n")) {
+            assertFalse(plan, line.startsWith("SCAN") && !line.contains(DatabaseHelper.TABLE_TRANSACTIONS_FTS));
+        }
+    }
+
+    // Liefert alle Zeilen von EXPLAIN QUERY PLAN als einen String
+    private String explain(String sql, String[] args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = dbHelper.getReadableDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -9,16 +9,22 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
+import android.widget.Spinner;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 public class AddTransactionActivity extends AppCompatActivity {
 
+    // Abstand je Eintrag von R.array.repeat_options; Eintrag 0 = einmalige Transaktion
+    private static final int[] REPEAT_UNITS = {0, RecurringRule.WEEK, RecurringRule.MONTH, RecurringRule.MONTH, RecurringRule.YEAR};
+    private static final int[] REPEAT_EVERY = {0, 1, 1, 3, 1};
+
     // UI-Komponenten für die Benutzereingabe
     private EditText amountEditText, categoryEditText, dateEditText, descriptionEditText;
     private RadioGroup typeRadioGroup;
     private RadioButton incomeRadioButton, expenseRadioButton;
+    private Spinner repeatSpinner; // Einmalig oder Dauerauftrag ab dem gewählten Datum
     private Button saveButton;
 
     // Variablen für Transaktionsdetails
@@ -48,6 +54,7 @@ public class AddTransactionActivity extends AppCompatActivity {
         typeRadioGroup = findViewById(R.id.radioGroupType);
         incomeRadioButton = findViewById(R.id.radioButtonIncome);
         expenseRadioButton = findViewById(R.id.radioButtonExpense);
+        repeatSpinner = findViewById(R.id.spinnerRepeat);
         saveButton = findViewById(R.id.buttonSaveTransaction);
 
         // Abrufen der übergebenen Daten aus dem Intent
@@ -66,7 +73,7 @@ public class AddTransactionActivity extends AppCompatActivity {
         dateEditText.setText(date);
 
         // Initialisierung des TransactionRepository
-        transactionRepository = new TransactionRepository(this);
+        transactionRepository = TransactionRepository.getInstance(this);
 
         // Klick-Listener für das Datumseingabefeld
         dateEditText.setOnClickListener(view -> showDatePickerDialog());
@@ -110,13 +117,13 @@ public class AddTransactionActivity extends AppCompatActivity {
             return false;
         }
 
-        if (!date.matches("\\d{4}-\\d{2}-\\d{2}")) {
-            Toast.makeText(this, "Ungültiges Datum! Bitte verwenden Sie das Format YYYY-MM-DD.", Toast.LENGTH_SHORT).show();
+        if (!EpochDay.isValidIso(date)) {
+            Toast.makeText(this, "Ungültiges Datum! Bitte verwenden Sie das Format YYYY-MM-DD (1900 bis 2199).", Toast.LENGTH_SHORT).show();
             return false;
         }
 
         try {
-            Double.parseDouble(amountText);
+            Money.parseCents(amountText);
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Ungültiger Betrag!", Toast.LENGTH_SHORT).show();
             return false;
@@ -146,20 +153,65 @@ public class AddTransactionActivity extends AppCompatActivity {
             return;
         }
 
-        // Konvertiert den Betrag in eine Zahl
-        double amount = Double.parseDouble(amountText);
+        // Konvertiert Betrag und Datum erst hier in das Speicherformat (Cent, Epochentag)
+        long amountCents = Money.parseCents(amountText);
+        long epochDay = EpochDay.fromIso(date);
         // Ermittelt den Transaktionstyp (Einnahme oder Ausgabe)
         int type = incomeRadioButton.isChecked() ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE;
 
-        // Fügt die Transaktion hinzu
-        transactionRepository.addTransaction(userId, type, amount, category, date, description);
-        Log.d("AddTransactionActivity", "Transaktion gespeichert: Betrag=" + amount +
-                ", Typ=" + (type == DatabaseHelper.EINNAHME ? "Einnahme" : "Ausgabe") +
-                ", Kategorie=" + category + ", Datum=" + date +
-                ", Beschreibung=" + description);
+        // Doppelklicks während des Speicherns verhindern
+        saveButton.setEnabled(false);
+        int repeat = repeatSpinner.getSelectedItemPosition();
+        if (repeat > 0) {
+            saveRecurringRule(userId, type, amountCents, category, epochDay, description, repeat);
+            return;
+        }
+
+        // Fügt die Transaktion im Hintergrund hinzu
+        transactionRepository.addTransactionAsync(userId, type, amountCents, category, epochDay, description, new TransactionRepository.Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean saved) {
+                Log.d("AddTransactionActivity", "Transaktion gespeichert: Betrag=" + Money.toPlainString(amountCents) +
+                        ", Typ=" + (type == DatabaseHelper.EINNAHME ? "Einnahme" : "Ausgabe") +
+                        ", Kategorie=" + category + ", Datum=" + date +
+                        ", Beschreibung=" + description);
+
+                // Erfolgsnachricht anzeigen
+                Toast.makeText(AddTransactionActivity.this, "Transaktion erfolgreich gespeichert", Toast.LENGTH_SHORT).show();
+                finish(); // Schließt die Aktivität
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e("AddTransactionActivity", "Transaktion konnte nicht gespeichert werden", e);
+                Toast.makeText(AddTransactionActivity.this, "Transaktion konnte nicht gespeichert werden", Toast.LENGTH_SHORT).show();
+                saveButton.setEnabled(true);
+            }
+        });
+    }
 
-        // Erfolgsnachricht anzeigen
-        Toast.makeText(this, "Transaktion erfolgreich gespeichert", Toast.LENGTH_SHORT).show();
-        finish(); // Schließt die Aktivität
+    // Speichert einen Dauerauftrag ab epochDay; fällige Ausführungen bucht das Repository sofort, spätere erst an ihrem Tag
+    private void saveRecurringRule(int userId, int type, long amountCents, String category, long epochDay, String description, int repeat) {
+        transactionRepository.addRecurringRuleAsync(userId, type, amountCents, category, description, epochDay, RecurringRule.OPEN_END,
+                REPEAT_UNITS[repeat], REPEAT_EVERY[repeat], new TransactionRepository.Callback<Long>() {
+                    @Override
+                    public void onResult(Long ruleId) {
+                        if (ruleId == -1) {
+                            onError(new IllegalStateException("Dauerauftrag wurde nicht angelegt"));
+                            return;
+                        }
+                        Log.d("AddTransactionActivity", "Dauerauftrag gespeichert: id=" + ruleId + ", Betrag=" + Money.toPlainString(amountCents)
+                                + ", Start=" + EpochDay.toIso(epochDay));
+                        Toast.makeText(AddTransactionActivity.this, R.string.recurring_saved, Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("AddTransactionActivity", "Dauerauftrag konnte nicht gespeichert werden", e);
+                        Toast.makeText(AddTransactionActivity.this, "Transaktion konnte nicht gespeichert werden", Toast.LENGTH_SHORT).show();
+                        saveButton.setEnabled(true);
+                    }
+                });
     }
 }
@@ -0,0 +1,224 @@
+package com.example.BudgetTracker;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Einnahmen und Ausgaben eines Benutzers je Tag, ISO-Woche, Monat, Quartal, Jahr und Kategorie.
+ *
+ * Alle Stufen entstehen in einem Durchlauf über die nach Datum sortierten Spalten des
+ * {@link TransactionColumnStore}: je Zeile wird nur geprüft, ob sie noch in den aktuellen Bucket jeder
+ * Stufe fällt. Große Historien werden in Datumsabschnitte geteilt, auf einem Fork-Join-Pool parallel
+ * summiert und danach zusammengeführt ({@link AggregationTask}). Ausgaben sind als Betrag (positiv) gezählt;
+ * ob eine Buchung Einnahme oder Ausgabe ist, entscheidet wie bei den Monatssummen das Vorzeichen, Beträge von 0 zählen nicht.
+ * Das Ergebnis ist unveränderlich und kann zwischen Threads geteilt werden.
+ */
+public final class Aggregates {
+
+    public static final int DAY = 0;
+    public static final int WEEK = 1; // ISO-Woche, beginnt montags
+    public static final int MONTH = 2;
+    public static final int QUARTER = 3;
+    public static final int YEAR = 4;
+    static final int LEVELS = 5;
+
+    private final Buckets[] levels;
+    private final int[] categoryIds; // aufsteigend, nur Kategorien mit Buchungen; 0 = ohne Kategorie
+    private final long[] categoryIncomeCents;
+    private final long[] categoryExpenseCents;
+    private final int[] categoryCounts;
+
+    Aggregates(Buckets[] levels, int[] categoryIds, long[] categoryIncomeCents, long[] categoryExpenseCents, int[] categoryCounts) {
+        this.levels = levels;
+        this.categoryIds = categoryIds;
+        this.categoryIncomeCents = categoryIncomeCents;
+        this.categoryExpenseCents = categoryExpenseCents;
+        this.categoryCounts = categoryCounts;
+    }
+
+    /**
+     * Berechnet alle Stufen über die ersten {@code size} Zeilen paralleler, nach Epochentag sortierter Spalten.
+     * Der Aufrufer stellt sicher, dass die Arrays währenddessen nicht verändert werden.
+     */
+    static Aggregates compute(int[] epochDays, long[] amountCents, int[] categoryIds, int size, ForkJoinPool pool) {
+        return compute(epochDays, amountCents, categoryIds, size, pool, AggregationTask.CHUNK_ROWS);
+    }
+
+    // Mit wählbarer Abschnittsgröße, z. B. für Tests der Zusammenführung oder einen Vergleich ohne Parallelität
+    static Aggregates compute(int[] epochDays, long[] amountCents, int[] categoryIds, int size, ForkJoinPool pool, int chunkRows) {
+        return pool.invoke(new AggregationTask(epochDays, amountCents, categoryIds, 0, size, chunkRows)).toAggregates();
+    }
+
+    // Buckets einer Stufe (DAY bis YEAR), aufsteigend nach Datum; Tage ohne Buchung fehlen
+    public Buckets level(int granularity) {
+        return levels[granularity];
+    }
+
+    public int categoryCount() {
+        return categoryIds.length;
+    }
+
+    public int categoryId(int index) {
+        return categoryIds[index];
+    }
+
+    public long categoryIncomeCents(int index) {
+        return categoryIncomeCents[index];
+    }
+
+    public long categoryExpenseCents(int index) {
+        return categoryExpenseCents[index];
+    }
+
+    public int categoryTransactionCount(int index) {
+        return categoryCounts[index];
+    }
+
+    // Erster Tag des Buckets, in den epochDay auf der Stufe fällt
+    static long bucketStart(int granularity, long epochDay) {
+        switch (granularity) {
+            case DAY:
+                return epochDay;
+            case WEEK:
+                return epochDay - Math.floorMod(epochDay + 3, 7); // 1970-01-01 war ein Donnerstag
+            case MONTH:
+                return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+            case QUARTER:
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1).toEpochDay();
+            default:
+                return LocalDate.ofEpochDay(epochDay).withDayOfYear(1).toEpochDay();
+        }
+    }
+
+    // Erster Tag nach dem Bucket, der an start beginnt
+    static long bucketEnd(int granularity, long start) {
+        switch (granularity) {
+            case DAY:
+                return start + 1;
+            case WEEK:
+                return start + 7;
+            case MONTH:
+                return LocalDate.ofEpochDay(start).plusMonths(1).toEpochDay();
+            case QUARTER:
+                return LocalDate.ofEpochDay(start).plusMonths(3).toEpochDay();
+            default:
+                return LocalDate.ofEpochDay(start).plusYears(1).toEpochDay();
+        }
+    }
+
+    /**
+     * Summen einer Stufe als parallele Arrays. Während der Berechnung wächst eine Instanz Bucket für
+     * Bucket; nach außen gegeben wird sie erst, wenn sie fertig ist.
+     */
+    public static final class Buckets {
+        private int size;
+        private long[] starts;
+        private long[] ends;
+        private long[] incomeCents;
+        private long[] expenseCents;
+        private int[] incomeCounts;
+        private int[] expenseCounts;
+
+        Buckets(int capacity) {
+            starts = new long[capacity];
+            ends = new long[capacity];
+            incomeCents = new long[capacity];
+            expenseCents = new long[capacity];
+            incomeCounts = new int[capacity];
+            expenseCounts = new int[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Erster Tag des Buckets (Epochentag)
+        public long start(int index) {
+            return starts[index];
+        }
+
+        // Erster Tag nach dem Bucket
+        public long end(int index) {
+            return ends[index];
+        }
+
+        public long incomeCents(int index) {
+            return incomeCents[index];
+        }
+
+        public long expenseCents(int index) {
+            return expenseCents[index];
+        }
+
+        public int incomeCount(int index) {
+            return incomeCounts[index];
+        }
+
+        public int expenseCount(int index) {
+            return expenseCounts[index];
+        }
+
+        // Hängt einen leeren Bucket an
+        void open(long start, long end) {
+            if (size == starts.length) {
+                resize(Math.max(16, size * 2));
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        // Zählt eine Buchung (Ausgaben als Betrag) zum letzten Bucket
+        void add(long cents, boolean income) {
+            int last = size - 1;
+            if (income) {
+                incomeCents[last] += cents;
+                incomeCounts[last]++;
+            } else {
+                expenseCents[last] += cents;
+                expenseCounts[last]++;
+            }
+        }
+
+        // Hängt die Buckets eines späteren Abschnitts an; ein Bucket, der über die Grenze reicht, wird zusammengefasst
+        void append(Buckets later) {
+            int from = 0;
+            if (size > 0 && later.size > 0 && starts[size - 1] == later.starts[0]) {
+                int last = size - 1;
+                incomeCents[last] += later.incomeCents[0];
+                expenseCents[last] += later.expenseCents[0];
+                incomeCounts[last] += later.incomeCounts[0];
+                expenseCounts[last] += later.expenseCounts[0];
+                from = 1;
+            }
+            int count = later.size - from;
+            if (size + count > starts.length) {
+                resize(size + count);
+            }
+            System.arraycopy(later.starts, from, starts, size, count);
+            System.arraycopy(later.ends, from, ends, size, count);
+            System.arraycopy(later.incomeCents, from, incomeCents, size, count);
+            System.arraycopy(later.expenseCents, from, expenseCents, size, count);
+            System.arraycopy(later.incomeCounts, from, incomeCounts, size, count);
+            System.arraycopy(later.expenseCounts, from, expenseCounts, size, count);
+            size += count;
+        }
+
+        // Gibt ungenutzte Kapazität frei, bevor das Ergebnis gespeichert wird
+        Buckets trim() {
+            resize(size);
+            return this;
+        }
+
+        private void resize(int capacity) {
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            incomeCents = Arrays.copyOf(incomeCents, capacity);
+            expenseCents = Arrays.copyOf(expenseCents, capacity);
+            incomeCounts = Arrays.copyOf(incomeCounts, capacity);
+            expenseCounts = Arrays.copyOf(expenseCounts, capacity);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.BudgetTracker;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Summiert einen Zeilenbereich der Spalten für alle Stufen von {@link Aggregates}.
+ *
+ * Bereiche über {@code chunkRows} Zeilen werden an einer Tagesgrenze halbiert; die rechte Hälfte
+ * läuft auf einem anderen Thread des Pools. Beim Zusammenführen wird ein Bucket, der über die Grenze
+ * reicht (z. B. eine Woche oder ein Monat), zu einem Bucket zusammengefasst.
+ */
+final class AggregationTask extends RecursiveTask<AggregationTask.Partial> {
+
+    static final int CHUNK_ROWS = 1 << 16; // kleinere Abschnitte lohnen den Thread-Wechsel nicht
+
+    private final int[] epochDays;
+    private final long[] amountCents;
+    private final int[] categoryIds;
+    private final int from;
+    private final int to;
+    private final int chunkRows;
+
+    AggregationTask(int[] epochDays, long[] amountCents, int[] categoryIds, int from, int to, int chunkRows) {
+        this.epochDays = epochDays;
+        this.amountCents = amountCents;
+        this.categoryIds = categoryIds;
+        this.from = from;
+        this.to = to;
+        this.chunkRows = Math.max(1, chunkRows);
+    }
+
+    @Override
+    protected Partial compute() {
+        if (to - from <= chunkRows) {
+            return scan();
+        }
+        // Teilen an einer Tagesgrenze, damit kein Tag in zwei Abschnitten liegt
+        int mid = (from + to) >>> 1;
+        while (mid < to && epochDays[mid] == epochDays[mid - 1]) {
+            mid++;
+        }
+        if (mid == to) {
+            mid = (from + to) >>> 1; // alles an einem Tag: Zusammenführen fasst den Tag wieder zusammen
+        }
+        AggregationTask later = new AggregationTask(epochDays, amountCents, categoryIds, mid, to, chunkRows);
+        later.fork();
+        Partial result = new AggregationTask(epochDays, amountCents, categoryIds, from, mid, chunkRows).compute();
+        result.append(later.join());
+        return result;
+    }
+
+    // Ein Durchlauf über den Bereich; neue Buckets nur, wenn ein Tag die Grenze des aktuellen überschreitet.
+    // Einnahme oder Ausgabe nach dem Vorzeichen wie in den Monatssummen (trg_monthly_rollups_*)
+    private Partial scan() {
+        Partial partial = new Partial();
+        Aggregates.Buckets[] levels = partial.levels;
+        for (int i = from; i < to; i++) {
+            if (amountCents[i] == 0) {
+                continue; // weder Einnahme noch Ausgabe
+            }
+            long day = epochDays[i];
+            boolean income = amountCents[i] > 0;
+            long cents = Math.abs(amountCents[i]);
+            for (int level = 0; level < Aggregates.LEVELS; level++) {
+                Aggregates.Buckets buckets = levels[level];
+                int size = buckets.size();
+                if (size == 0 || day >= buckets.end(size - 1)) {
+                    long start = Aggregates.bucketStart(level, day);
+                    buckets.open(start, Aggregates.bucketEnd(level, start));
+                }
+                buckets.add(cents, income);
+            }
+            partial.addCategory(categoryIds[i], cents, income);
+        }
+        return partial;
+    }
+
+    // Zwischenergebnis eines Abschnitts; Kategorien nach id indiziert
+    static final class Partial {
+        final Aggregates.Buckets[] levels = new Aggregates.Buckets[Aggregates.LEVELS];
+        private long[] categoryIncome = new long[16];
+        private long[] categoryExpense = new long[16];
+        private int[] categoryCounts = new int[16];
+
+        Partial() {
+            for (int level = 0; level < Aggregates.LEVELS; level++) {
+                levels[level] = new Aggregates.Buckets(16);
+            }
+        }
+
+        void addCategory(int categoryId, long cents, boolean income) {
+            if (categoryId >= categoryCounts.length) {
+                growCategories(Math.max(categoryId + 1, categoryCounts.length * 2));
+            }
+            if (income) {
+                categoryIncome[categoryId] += cents;
+            } else {
+                categoryExpense[categoryId] += cents;
+            }
+            categoryCounts[categoryId]++;
+        }
+
+        // Hängt das Ergebnis des folgenden Abschnitts an
+        void append(Partial later) {
+            for (int level = 0; level < Aggregates.LEVELS; level++) {
+                levels[level].append(later.levels[level]);
+            }
+            if (later.categoryCounts.length > categoryCounts.length) {
+                growCategories(later.categoryCounts.length);
+            }
+            for (int id = 0; id < later.categoryCounts.length; id++) {
+                categoryIncome[id] += later.categoryIncome[id];
+                categoryExpense[id] += later.categoryExpense[id];
+                categoryCounts[id] += later.categoryCounts[id];
+            }
+        }
+
+        Aggregates toAggregates() {
+            Aggregates.Buckets[] trimmed = new Aggregates.Buckets[Aggregates.LEVELS];
+            for (int level = 0; level < Aggregates.LEVELS; level++) {
+                trimmed[level] = levels[level].trim();
+            }
+            int count = 0;
+            for (int categoryCount : categoryCounts) {
+                if (categoryCount > 0) {
+                    count++;
+                }
+            }
+            int[] ids = new int[count];
+            long[] income = new long[count];
+            long[] expense = new long[count];
+            int[] counts = new int[count];
+            for (int id = 0, i = 0; id < categoryCounts.length; id++) {
+                if (categoryCounts[id] > 0) {
+                    ids[i] = id;
+                    income[i] = categoryIncome[id];
+                    expense[i] = categoryExpense[id];
+                    counts[i++] = categoryCounts[id];
+                }
+            }
+            return new Aggregates(trimmed, ids, income, expense, counts);
+        }
+
+        private void growCategories(int capacity) {
+            categoryIncome = Arrays.copyOf(categoryIncome, capacity);
+            categoryExpense = Arrays.copyOf(categoryExpense, capacity);
+            categoryCounts = Arrays.copyOf(categoryCounts, capacity);
+        }
+    }
+}
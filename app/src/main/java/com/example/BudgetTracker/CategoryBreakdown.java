@@ -0,0 +1,132 @@
+package com.example.BudgetTracker;
+
+/**
+ * Ausgaben je Kategorie in einem Zeitraum: die N Kategorien mit den höchsten Ausgaben, ihr Anteil
+ * an allen Ausgaben und der Vergleich mit einem Vorzeitraum. Alle übrigen Kategorien sind in
+ * {@link #otherCents()} zusammengefasst.
+ *
+ * Die Auswahl läuft über die Summen je Kategorie-id und behält nur die N größten; weder die
+ * Transaktionen noch alle Kategorien werden sortiert. Beträge sind positiv (Ausgaben als Betrag).
+ */
+public final class CategoryBreakdown {
+
+    private final long fromDay, toDay; // Zeitraum, beide einschließlich
+    private final int[] categoryIds; // nach Ausgaben absteigend
+    private final long[] cents;
+    private final long[] previousCents;
+    private final long totalCents, previousTotalCents;
+    private final long otherCents, previousOtherCents;
+
+    private CategoryBreakdown(long fromDay, long toDay, int[] categoryIds, long[] cents, long[] previousCents,
+                              long totalCents, long previousTotalCents, long otherCents, long previousOtherCents) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.categoryIds = categoryIds;
+        this.cents = cents;
+        this.previousCents = previousCents;
+        this.totalCents = totalCents;
+        this.previousTotalCents = previousTotalCents;
+        this.otherCents = otherCents;
+        this.previousOtherCents = previousOtherCents;
+    }
+
+    /**
+     * Wählt die {@code topN} Kategorien mit den höchsten Ausgaben.
+     * @param current Ausgaben je Kategorie-id im Zeitraum (Betrag)
+     * @param previous Ausgaben je Kategorie-id im Vorzeitraum (Betrag)
+     */
+    static CategoryBreakdown of(long fromDay, long toDay, long[] current, long[] previous, int topN) {
+        // Bisher größte N, absteigend; neue Werte werden wie beim Einfügesortieren eingeordnet
+        int[] ids = new int[Math.max(0, topN)];
+        long[] top = new long[ids.length];
+        int count = 0;
+        long total = 0;
+        for (int id = 0; id < current.length; id++) {
+            long value = current[id];
+            total += value;
+            if (value <= 0 || ids.length == 0 || (count == ids.length && value <= top[count - 1])) {
+                continue;
+            }
+            int position = count < ids.length ? count++ : count - 1;
+            while (position > 0 && top[position - 1] < value) {
+                top[position] = top[position - 1];
+                ids[position] = ids[position - 1];
+                position--;
+            }
+            top[position] = value;
+            ids[position] = id;
+        }
+
+        long previousTotal = 0;
+        for (long value : previous) {
+            previousTotal += value;
+        }
+        int[] categoryIds = new int[count];
+        long[] cents = new long[count];
+        long[] previousCents = new long[count];
+        long shown = 0;
+        long previousShown = 0;
+        for (int i = 0; i < count; i++) {
+            categoryIds[i] = ids[i];
+            cents[i] = top[i];
+            previousCents[i] = ids[i] < previous.length ? previous[ids[i]] : 0;
+            shown += cents[i];
+            previousShown += previousCents[i];
+        }
+        return new CategoryBreakdown(fromDay, toDay, categoryIds, cents, previousCents, total, previousTotal,
+                total - shown, previousTotal - previousShown);
+    }
+
+    public long getFromDay() {
+        return fromDay;
+    }
+
+    public long getToDay() {
+        return toDay;
+    }
+
+    // Anzahl der aufgeführten Kategorien (höchstens N)
+    public int size() {
+        return categoryIds.length;
+    }
+
+    // Kategorie-id, CategoryDictionary.NONE für Ausgaben ohne Kategorie
+    public int categoryId(int index) {
+        return categoryIds[index];
+    }
+
+    public long cents(int index) {
+        return cents[index];
+    }
+
+    public long previousCents(int index) {
+        return previousCents[index];
+    }
+
+    // Anteil an allen Ausgaben des Zeitraums, 0 bis 1
+    public double share(int index) {
+        return totalCents > 0 ? (double) cents[index] / totalCents : 0;
+    }
+
+    // Veränderung gegenüber dem Vorzeitraum, z. B. 0.25 für +25 %; NaN, wenn es dort keine Ausgaben gab
+    public double change(int index) {
+        return previousCents[index] > 0 ? (double) (cents[index] - previousCents[index]) / previousCents[index] : Double.NaN;
+    }
+
+    public long totalCents() {
+        return totalCents;
+    }
+
+    public long previousTotalCents() {
+        return previousTotalCents;
+    }
+
+    // Ausgaben aller nicht aufgeführten Kategorien
+    public long otherCents() {
+        return otherCents;
+    }
+
+    public long previousOtherCents() {
+        return previousOtherCents;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.BudgetTracker;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zuordnung Kategorie-id ↔ Name im Speicher.
+ *
+ * Transaktionen speichern nur die id der Kategorie. Beim Anzeigen liefert {@link #name(int)} immer
+ * dieselbe String-Instanz je Kategorie; beim Scrollen werden also keine Strings aus dem Cursor erzeugt.
+ * Lesen ist auf jedem Thread erlaubt. {@link #load()} und {@link #idFor(String)} greifen auf die
+ * Datenbank zu und laufen deshalb nur im Hintergrund.
+ */
+public final class CategoryDictionary {
+
+    public static final int NONE = 0; // keine Kategorie (category_id IS NULL)
+
+    private final DatabaseHelper dbHelper;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0]; // Index = id; wird beim Hinzufügen kopiert, nie verändert
+    private volatile boolean loaded;
+
+    CategoryDictionary(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // Liest alle Kategorien einmal aus der Datenbank (Hintergrund-Thread)
+    void load() {
+        if (loaded) {
+            return;
+        }
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_NAME
+                + " FROM " + DatabaseHelper.TABLE_CATEGORIES + " ORDER BY " + DatabaseHelper.COLUMN_ID, null)) {
+            // Array einmal in voller Größe aufbauen statt pro Kategorie zu kopieren
+            String[] loadedNames = new String[cursor.moveToLast() ? cursor.getInt(0) + 1 : 0];
+            cursor.moveToPosition(-1);
+            while (cursor.moveToNext()) {
+                loadedNames[cursor.getInt(0)] = cursor.getString(1);
+            }
+            synchronized (this) {
+                // Während des Lesens angelegte Kategorien nicht verlieren
+                String[] current = names;
+                if (current.length > loadedNames.length) {
+                    String[] grown = new String[current.length];
+                    System.arraycopy(loadedNames, 0, grown, 0, loadedNames.length);
+                    loadedNames = grown;
+                }
+                for (int id = 1; id < current.length; id++) {
+                    if (loadedNames[id] == null) {
+                        loadedNames[id] = current[id];
+                    }
+                }
+                for (int id = 1; id < loadedNames.length; id++) {
+                    if (loadedNames[id] != null) {
+                        ids.put(loadedNames[id], id);
+                    }
+                }
+                names = loadedNames;
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Name der Kategorie oder null für {@link #NONE} bzw. eine unbekannte id. Greift nie auf die Datenbank zu.
+     */
+    public String name(int id) {
+        String[] current = names;
+        return id > 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * id der Kategorie mit diesem Namen; eine neue Kategorie wird bei Bedarf angelegt (Hintergrund-Thread).
+     * @return {@link #NONE} für null oder einen leeren Namen
+     */
+    public int idFor(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return NONE;
+        }
+        name = name.trim();
+        load();
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        // Außerhalb jeder Sperre schreiben: ein paralleles Anlegen desselben Namens ignoriert die Datenbank
+        int newId = dbHelper.insertCategory(name);
+        put(newId, name);
+        return newId;
+    }
+
+    // Verwirft den Speicherstand, z. B. wenn ein Import mit neuen Kategorien zurückgerollt wurde
+    void invalidate() {
+        synchronized (this) {
+            ids.clear();
+            names = new String[0];
+            loaded = false;
+        }
+    }
+
+    private synchronized void put(int id, String name) {
+        String[] current = names;
+        if (id >= current.length) {
+            String[] grown = new String[Math.max(id + 1, current.length * 2)];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        } else {
+            current = current.clone();
+        }
+        current[id] = name;
+        names = current;
+        ids.put(name, id);
+    }
+}
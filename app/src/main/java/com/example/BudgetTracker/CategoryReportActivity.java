@@ -0,0 +1,137 @@
+package com.example.BudgetTracker;
+
+import android.graphics.Color;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.Button;
+import android.widget.Spinner;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.time.LocalDate;
+
+/**
+ * Ausgaben nach Kategorie für einen wählbaren Zeitraum: die größten Kategorien mit Anteil und
+ * Veränderung gegenüber dem Vorzeitraum, als Liste und im Balkendiagramm (Zeitraum neben Vorzeitraum).
+ */
+public class CategoryReportActivity extends AppCompatActivity {
+
+    private static final int TOP_N = 8; // aufgeführte Kategorien, der Rest erscheint als "Sonstige"
+
+    private TransactionRepository transactionRepository; // Repository für Transaktionen
+    private int loggedInUserId; // Benutzer-ID des angemeldeten Benutzers
+    private CustomBarChart barChart;
+    private TextView breakdownText;
+    private int requestedPeriod; // zuletzt gewählter Zeitraum; ältere Ergebnisse werden verworfen
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_category_report); // Setze das Layout für diese Activity
+
+        Button backButton = findViewById(R.id.buttonBack);
+        backButton.setOnClickListener(v -> finish());
+
+        transactionRepository = TransactionRepository.getInstance(this);
+        loggedInUserId = transactionRepository.getLoggedInUserId();
+
+        barChart = findViewById(R.id.barChart);
+        barChart.setSeriesColors(Color.parseColor("#3F51B5"), Color.LTGRAY); // Zeitraum, Vorzeitraum
+        breakdownText = findViewById(R.id.textViewBreakdown);
+
+        Spinner periodSpinner = findViewById(R.id.spinnerPeriod);
+        periodSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                loadBreakdown(position);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+    }
+
+    /**
+     * Lädt die Aufteilung im Hintergrund.
+     * @param period Position in R.array.category_periods
+     */
+    private void loadBreakdown(int period) {
+        requestedPeriod = period;
+        LocalDate today = LocalDate.now();
+        LocalDate from;
+        LocalDate previousFrom;
+        LocalDate previousTo;
+        switch (period) {
+            case 0: // Dieser Monat, verglichen mit demselben Abschnitt des Vormonats
+                from = today.withDayOfMonth(1);
+                previousFrom = from.minusMonths(1);
+                previousTo = today.minusMonths(1);
+                break;
+            case 1: // Letzte 30 Tage, verglichen mit den 30 Tagen davor
+                from = today.minusDays(29);
+                previousFrom = from.minusDays(30);
+                previousTo = from.minusDays(1);
+                break;
+            case 2: // Dieses Jahr, verglichen mit demselben Abschnitt des Vorjahres
+                from = today.withDayOfYear(1);
+                previousFrom = from.minusYears(1);
+                previousTo = today.minusYears(1);
+                break;
+            default: // Letzte 12 Monate, verglichen mit den 12 Monaten davor
+                from = today.minusMonths(12).plusDays(1);
+                previousFrom = from.minusMonths(12);
+                previousTo = from.minusDays(1);
+                break;
+        }
+        transactionRepository.getCategoryBreakdownAsync(loggedInUserId, from.toEpochDay(), today.toEpochDay(),
+                previousFrom.toEpochDay(), previousTo.toEpochDay(), TOP_N, breakdown -> {
+                    if (!isDestroyed() && period == requestedPeriod) {
+                        showBreakdown(breakdown);
+                    }
+                });
+    }
+
+    // Füllt Liste und Diagramm; "Sonstige" erscheint als letzter Balken
+    private void showBreakdown(CategoryBreakdown breakdown) {
+        if (breakdown.totalCents() == 0 && breakdown.previousTotalCents() == 0) {
+            breakdownText.setText(R.string.no_data);
+            barChart.setData(new float[0], new float[0], new String[0]);
+            return;
+        }
+        CategoryDictionary categories = transactionRepository.getCategories();
+        DisplayFormat format = DisplayFormat.current();
+        boolean hasOther = breakdown.otherCents() > 0 || breakdown.previousOtherCents() > 0;
+        int bars = breakdown.size() + (hasOther ? 1 : 0);
+        float[] current = new float[bars];
+        float[] previous = new float[bars];
+        String[] labels = new String[bars];
+
+        StringBuilder text = new StringBuilder();
+        text.append(getString(R.string.category_total, format.euros(breakdown.totalCents()), format.euros(breakdown.previousTotalCents())));
+        for (int i = 0; i < breakdown.size(); i++) {
+            String name = categories.name(breakdown.categoryId(i));
+            name = name != null ? name : getString(R.string.no_category);
+            double change = breakdown.change(i);
+            String changeText = Double.isNaN(change) ? getString(R.string.category_new)
+                    : getString(R.string.category_change, (int) Math.round(change * 100));
+            text.append('\n').append(getString(R.string.category_line, i + 1, name, format.euros(breakdown.cents(i)),
+                    (int) Math.round(breakdown.share(i) * 100), changeText));
+
+            current[i] = (float) Money.toEuros(breakdown.cents(i));
+            previous[i] = (float) Money.toEuros(breakdown.previousCents(i));
+            labels[i] = name;
+        }
+        if (hasOther) {
+            String other = getString(R.string.category_other, format.euros(breakdown.otherCents()));
+            text.append('\n').append(other);
+            current[bars - 1] = (float) Money.toEuros(breakdown.otherCents());
+            previous[bars - 1] = (float) Money.toEuros(breakdown.previousOtherCents());
+            labels[bars - 1] = getString(R.string.category_other_label);
+        }
+        breakdownText.setText(text);
+        barChart.setData(current, previous, labels);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.BudgetTracker;
+
+/**
+ * Wählt für einen Ausschnitt des Diagramms die Detailstufe und fasst die sichtbaren Buckets zu Spalten zusammen.
+ *
+ * Gezeichnet wird die feinste Stufe, bei der jeder sichtbare Bucket mindestens {@link #MIN_BUCKET_PX}
+ * breit ist. Reicht selbst die gröbste Stufe dafür nicht, fasst die Berechnung ihre Buckets zu
+ * Pixelspalten zusammen und behält je Spalte Minimum und Maximum (M4-Prinzip): Spitzen gehen beim
+ * Herauszoomen nicht verloren. Der Aufwand hängt nur von den sichtbaren Buckets ab (Binärsuche auf
+ * den Startpositionen); die Ergebnis-Arrays werden wiederverwendet, ein Bildaufbau legt keine Objekte an.
+ */
+final class ChartLayout {
+
+    static final float MIN_BUCKET_PX = 6; // schmalste Balkengruppe
+
+    // Ergebnis der letzten Berechnung, je Spalte: Pixelbereich, Spannweite der Werte, erster Bucket
+    ChartSeries series; // gewählte Stufe
+    boolean downsampled; // Spalten fassen mehrere Buckets zusammen
+    int columns;
+    float[] lefts = new float[0];
+    float[] rights = new float[0];
+    float[] einnahmenMin = new float[0];
+    float[] einnahmenMax = new float[0];
+    float[] ausgabenMin = new float[0];
+    float[] ausgabenMax = new float[0];
+    int[] buckets = new int[0];
+    float maxValue; // größter sichtbarer Wert, für die Skalierung
+
+    /**
+     * Berechnet die Spalten für den Ausschnitt [viewFrom, viewTo) der X-Achse.
+     * @param levels Detailstufen, die feinste zuerst
+     * @param left linker Rand des Diagrammbereichs in Pixeln
+     * @param width Breite des Diagrammbereichs in Pixeln
+     */
+    void compute(ChartSeries[] levels, double viewFrom, double viewTo, float left, float width) {
+        columns = 0;
+        maxValue = 0;
+        series = null;
+        downsampled = false;
+        if (levels.length == 0 || viewTo <= viewFrom || width <= 0) {
+            return;
+        }
+        int maxColumns = Math.max(1, (int) (width / MIN_BUCKET_PX));
+        ensureCapacity(maxColumns);
+        double pxPerUnit = width / (viewTo - viewFrom);
+
+        // Feinste Stufe, deren sichtbare Buckets in die Breite passen
+        int from = 0;
+        int to = 0;
+        for (ChartSeries level : levels) {
+            series = level;
+            from = level.firstEndingAfter(viewFrom);
+            to = level.firstStartingAt(viewTo);
+            if (to - from <= maxColumns) {
+                break;
+            }
+        }
+
+        if (to - from <= maxColumns) {
+            for (int i = from; i < to; i++) {
+                int c = columns++;
+                lefts[c] = (float) (left + (series.starts[i] - viewFrom) * pxPerUnit);
+                rights[c] = (float) (left + (series.ends[i] - viewFrom) * pxPerUnit);
+                einnahmenMin[c] = einnahmenMax[c] = series.einnahmen[i];
+                ausgabenMin[c] = ausgabenMax[c] = series.ausgaben[i];
+                buckets[c] = i;
+                maxValue = Math.max(maxValue, Math.max(series.einnahmen[i], series.ausgaben[i]));
+            }
+            return;
+        }
+
+        // Gröbste Stufe zu Pixelspalten zusammenfassen; die Buckets sind sortiert, also ein Durchlauf
+        downsampled = true;
+        float columnWidth = width / maxColumns;
+        int current = -1;
+        for (int i = from; i < to; i++) {
+            int column = (int) ((series.starts[i] - viewFrom) * pxPerUnit / columnWidth);
+            column = Math.max(0, Math.min(maxColumns - 1, column));
+            float einnahme = series.einnahmen[i];
+            float ausgabe = series.ausgaben[i];
+            if (column != current) {
+                current = column;
+                int c = columns++;
+                lefts[c] = left + column * columnWidth;
+                rights[c] = lefts[c] + columnWidth;
+                einnahmenMin[c] = einnahmenMax[c] = einnahme;
+                ausgabenMin[c] = ausgabenMax[c] = ausgabe;
+                buckets[c] = i;
+            } else {
+                int c = columns - 1;
+                einnahmenMin[c] = Math.min(einnahmenMin[c], einnahme);
+                einnahmenMax[c] = Math.max(einnahmenMax[c], einnahme);
+                ausgabenMin[c] = Math.min(ausgabenMin[c], ausgabe);
+                ausgabenMax[c] = Math.max(ausgabenMax[c], ausgabe);
+            }
+            maxValue = Math.max(maxValue, Math.max(einnahme, ausgabe));
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (lefts.length < capacity) {
+            lefts = new float[capacity];
+            rights = new float[capacity];
+            einnahmenMin = new float[capacity];
+            einnahmenMax = new float[capacity];
+            ausgabenMin = new float[capacity];
+            ausgabenMax = new float[capacity];
+            buckets = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.BudgetTracker;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+/**
+ * Eine Detailstufe des Balkendiagramms: Einnahmen und Ausgaben je Bucket (Tag, Woche, Monat, Quartal, Jahr).
+ *
+ * Jeder Bucket deckt den Bereich [start, end) auf der X-Achse ab, bei Tagesstufen in Epochentagen.
+ * Dadurch liegen alle Stufen auf derselben Achse, und der Ausschnitt bleibt beim Wechsel der Stufe
+ * erhalten. Beschriftungen entstehen erst, wenn ein Bucket tatsächlich beschriftet wird.
+ */
+final class ChartSeries {
+
+    static final int DAY = Aggregates.DAY;
+    static final int WEEK = Aggregates.WEEK;
+    static final int MONTH = Aggregates.MONTH;
+    static final int QUARTER = Aggregates.QUARTER;
+    static final int YEAR = Aggregates.YEAR;
+    static final int CUSTOM = -1; // Buckets mit fertigen Beschriftungen, X = Index
+
+    private static final String[] MONTH_NAMES = {"Jan", "Feb", "Mär", "Apr", "Mai", "Jun", "Jul", "Aug", "Sep", "Okt", "Nov", "Dez"};
+
+    final int level;
+    final long[] starts; // aufsteigend
+    final long[] ends;
+    final float[] einnahmen; // Euro
+    final float[] ausgaben;  // Euro, als Betrag
+    private final String[] labels; // bei Bedarf gefüllt
+
+    private ChartSeries(int level, long[] starts, long[] ends, float[] einnahmen, float[] ausgaben, String[] labels) {
+        this.level = level;
+        this.starts = starts;
+        this.ends = ends;
+        this.einnahmen = einnahmen;
+        this.ausgaben = ausgaben;
+        this.labels = labels;
+    }
+
+    // Eine Stufe mit vorgegebenen Beschriftungen, z. B. Monatssummen
+    static ChartSeries of(float[] einnahmen, float[] ausgaben, String[] labels) {
+        long[] starts = new long[labels.length];
+        long[] ends = new long[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            starts[i] = i;
+            ends[i] = i + 1;
+        }
+        return new ChartSeries(CUSTOM, starts, ends, einnahmen, ausgaben, labels.clone());
+    }
+
+    // Alle Stufen von Tag bis Jahr, die feinste zuerst
+    static ChartSeries[] levels(Aggregates aggregates) {
+        ChartSeries[] levels = new ChartSeries[Aggregates.LEVELS];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = of(level, aggregates.level(level));
+        }
+        return levels;
+    }
+
+    // Eine Stufe aus den Buckets von Aggregates, X-Achse in Epochentagen
+    static ChartSeries of(int level, Aggregates.Buckets buckets) {
+        int size = buckets.size();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        float[] einnahmen = new float[size];
+        float[] ausgaben = new float[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = buckets.start(i);
+            ends[i] = buckets.end(i);
+            einnahmen[i] = (float) Money.toEuros(buckets.incomeCents(i));
+            ausgaben[i] = (float) Money.toEuros(buckets.expenseCents(i));
+        }
+        return new ChartSeries(level, starts, ends, einnahmen, ausgaben, new String[size]);
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    // Erster Bucket, der nach x endet
+    int firstEndingAfter(double x) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Erster Bucket, der bei x oder später beginnt
+    int firstStartingAt(double x) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Beschriftung eines Buckets, z. B. "03.05.", "KW 18", "Mai 24", "Q2 24" oder "2024"
+    String label(int index) {
+        String label = labels[index];
+        if (label == null) {
+            LocalDate date = LocalDate.ofEpochDay(starts[index]);
+            switch (level) {
+                case DAY:
+                    label = DisplayFormat.current().date(starts[index]).substring(0, 6);
+                    break;
+                case WEEK:
+                    label = "KW " + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+                    break;
+                case QUARTER:
+                    label = "Q" + date.get(IsoFields.QUARTER_OF_YEAR) + " " + twoDigitYear(date);
+                    break;
+                case YEAR:
+                    label = String.valueOf(date.getYear());
+                    break;
+                default:
+                    label = MONTH_NAMES[date.getMonthValue() - 1] + " " + twoDigitYear(date);
+                    break;
+            }
+            labels[index] = label;
+        }
+        return label;
+    }
+
+    private static String twoDigitYear(LocalDate date) {
+        int year = date.getYear() % 100;
+        return (year < 10 ? "0" : "") + year;
+    }
+}
@@ -0,0 +1,521 @@
+package com.example.BudgetTracker;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importiert Kontoauszüge im CSV-Format.
+ *
+ * Die Zeilen werden blockweise auf mehreren Worker-Threads geparst. Ein einzelner Writer-Thread
+ * fügt die Ergebnisse in Eingabereihenfolge über ein wiederverwendetes SQLiteStatement in großen
+ * expliziten Transaktionen ein. Mit jeder Transaktion wird auch der Fortschritt gespeichert, so dass
+ * ein abgebrochener Import beim nächsten Aufruf mit derselben Quelle an dieser Stelle weiterläuft.
+ *
+ * Erwartete Spalten (Trennzeichen ';' oder ','): Datum, Betrag, Kategorie, Beschreibung und
+ * optional Typ. Mit Kopfzeile dürfen die Spalten in beliebiger Reihenfolge stehen.
+ */
+public class CsvImporter {
+
+    private static final String TAG = "CsvImporter";
+
+    private static final int CHUNK_SIZE = 2000; // Zeilen pro Parse-Auftrag
+    private static final int BATCH_SIZE = 20000; // Zeilen pro Datenbank-Transaktion
+    private static final long WRITER_CHECK_MS = 100; // so oft prüft der wartende Leser, ob der Writer noch läuft
+
+    private static final String INSERT_SQL = "INSERT INTO " + DatabaseHelper.TABLE_TRANSACTIONS + " ("
+            + DatabaseHelper.COLUMN_USER_ID + ", "
+            + DatabaseHelper.COLUMN_TYPE + ", "
+            + DatabaseHelper.COLUMN_AMOUNT_CENTS + ", "
+            + DatabaseHelper.COLUMN_CATEGORY_ID + ", "
+            + DatabaseHelper.COLUMN_EPOCH_DAY + ", "
+            + DatabaseHelper.COLUMN_DESCRIPTION + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String PROGRESS_SQL = "INSERT OR REPLACE INTO " + DatabaseHelper.TABLE_IMPORT_PROGRESS + " ("
+            + DatabaseHelper.COLUMN_SOURCE + ", "
+            + DatabaseHelper.COLUMN_USER_ID + ", "
+            + DatabaseHelper.COLUMN_ROWS_DONE + ") VALUES (?, ?, ?)";
+
+    // Rückmeldungen während des Imports (werden auf dem Writer-Thread aufgerufen)
+    public interface ProgressListener {
+        void onProgress(long rowsImported, double rowsPerSecond);
+    }
+
+    // Ergebnis eines Imports
+    public static class Result {
+        public final long rowsImported; // in diesem Lauf eingefügte Zeilen
+        public final long rowsSkipped;  // ungültige Zeilen
+        public final long rowsResumed;  // aus einem früheren Lauf übersprungene Zeilen
+        public final double rowsPerSecond;
+
+        Result(long rowsImported, long rowsSkipped, long rowsResumed, double rowsPerSecond) {
+            this.rowsImported = rowsImported;
+            this.rowsSkipped = rowsSkipped;
+            this.rowsResumed = rowsResumed;
+            this.rowsPerSecond = rowsPerSecond;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final int userId;
+    private final int parserThreads;
+
+    public CsvImporter(DatabaseHelper dbHelper, int userId) {
+        this.dbHelper = dbHelper;
+        this.userId = userId;
+        this.parserThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * Führt den Import aus. Blockiert den aufrufenden Thread, der die Datei liest; darf daher
+     * nicht auf dem UI-Thread aufgerufen werden.
+     *
+     * @param in Eingabedaten (UTF-8)
+     * @param source Eindeutiger Schlüssel der Quelle (z. B. die Uri), unter dem der Fortschritt gespeichert wird
+     */
+    public Result importCsv(InputStream in, String source, ProgressListener listener) throws IOException {
+        long alreadyDone = loadProgress(source);
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads);
+        ExecutorService writerThread = Executors.newSingleThreadExecutor();
+        // Begrenzte Warteschlange: der Leser wartet, wenn Parser oder Writer nicht hinterherkommen
+        BlockingQueue<Future<ParsedChunk>> pending = new ArrayBlockingQueue<>(parserThreads * 2);
+        Future<long[]> writer = writerThread.submit(new Writer(pending, source, alreadyDone, listener));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String first = reader.readLine();
+            if (first != null && first.startsWith("\uFEFF")) {
+                first = first.substring(1); // BOM entfernen
+            }
+            ColumnLayout layout = ColumnLayout.detect(first);
+            long lineNumber = 0; // Datenzeilen ohne Kopfzeile
+
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            String line = layout.hasHeader ? reader.readLine() : first;
+            while (line != null) {
+                lines.add(line);
+                if (lines.size() == CHUNK_SIZE) {
+                    lineNumber = submitChunk(parsers, pending, writer, lines, layout, lineNumber, alreadyDone);
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                }
+                line = reader.readLine();
+            }
+            if (!lines.isEmpty()) {
+                submitChunk(parsers, pending, writer, lines, layout, lineNumber, alreadyDone);
+            }
+            enqueue(pending, CompletableFuture.completedFuture(ParsedChunk.END), writer);
+
+            long[] totals = writer.get();
+            double seconds = totals[2] / 1000.0;
+            double rate = seconds > 0 ? totals[0] / seconds : totals[0];
+            Log.d(TAG, "Import abgeschlossen: " + totals[0] + " Zeilen, " + totals[1] + " übersprungen, "
+                    + String.format(Locale.ROOT, "%.0f", rate) + " Zeilen/s");
+            return new Result(totals[0], totals[1], alreadyDone, rate);
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Import unterbrochen", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import fehlgeschlagen", e.getCause());
+        } finally {
+            parsers.shutdownNow();
+            writerThread.shutdownNow();
+        }
+    }
+
+    // Übergibt einen Block an die Parser; bereits importierte Zeilen am Blockanfang werden übersprungen
+    private static long submitChunk(ExecutorService parsers, BlockingQueue<Future<ParsedChunk>> pending, Future<long[]> writer,
+                                    List<String> lines, ColumnLayout layout, long chunkStart, long alreadyDone)
+            throws InterruptedException, ExecutionException, IOException {
+        long chunkEnd = chunkStart + lines.size();
+        if (chunkEnd > alreadyDone) {
+            int skip = (int) Math.max(0, alreadyDone - chunkStart);
+            enqueue(pending, parsers.submit(new ParseTask(lines.subList(skip, lines.size()), layout, chunkEnd)), writer);
+        }
+        return chunkEnd;
+    }
+
+    // Reiht einen Block für den Writer ein. Ist der Writer schon beendet (z. B. nach einem Datenbankfehler),
+    // leert niemand mehr die Warteschlange: dann seine Ausnahme werfen, statt für immer zu warten
+    private static void enqueue(BlockingQueue<Future<ParsedChunk>> pending, Future<ParsedChunk> chunk, Future<long[]> writer)
+            throws InterruptedException, ExecutionException, IOException {
+        while (!pending.offer(chunk, WRITER_CHECK_MS, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get(); // wirft die Ausnahme des Writers
+                throw new IOException("Import fehlgeschlagen: Writer vor dem Ende der Eingabe beendet");
+            }
+        }
+    }
+
+    // Liest den gespeicherten Fortschritt des Benutzers für eine Quelle
+    private long loadProgress(String source) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(DatabaseHelper.TABLE_IMPORT_PROGRESS,
+                new String[]{DatabaseHelper.COLUMN_ROWS_DONE},
+                DatabaseHelper.COLUMN_USER_ID + " = ? AND " + DatabaseHelper.COLUMN_SOURCE + " = ?",
+                new String[]{String.valueOf(userId), source}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    // Schreibt die geparsten Blöcke in Eingabereihenfolge in die Datenbank
+    private class Writer implements Callable<long[]> {
+        private final BlockingQueue<Future<ParsedChunk>> pending;
+        private final String source;
+        private final ProgressListener listener;
+        private long linesDone;
+
+        Writer(BlockingQueue<Future<ParsedChunk>> pending, String source, long linesDone, ProgressListener listener) {
+            this.pending = pending;
+            this.source = source;
+            this.linesDone = linesDone;
+            this.listener = listener;
+        }
+
+        @Override
+        public long[] call() throws Exception {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            SQLiteStatement insert = db.compileStatement(INSERT_SQL);
+            SQLiteStatement progress = db.compileStatement(PROGRESS_SQL);
+            CategoryDictionary categories = dbHelper.getCategories();
+            long started = SystemClock.elapsedRealtime();
+            long imported = 0;
+            long skipped = 0;
+            int inBatch = 0;
+            boolean done = false;
+
+            try {
+                while (!done) {
+                    db.beginTransaction();
+                    try {
+                        while (inBatch < BATCH_SIZE) {
+                            ParsedChunk chunk = pending.take().get();
+                            if (chunk == ParsedChunk.END) {
+                                done = true;
+                                break;
+                            }
+                            for (int i = 0; i < chunk.count; i++) {
+                                insert.bindLong(1, userId);
+                                insert.bindLong(2, chunk.types[i]);
+                                insert.bindLong(3, chunk.amountCents[i]);
+                                int categoryId = categories.idFor(chunk.categories[i]); // neue Kategorien landen im selben Batch
+                                if (categoryId == CategoryDictionary.NONE) {
+                                    insert.bindNull(4);
+                                } else {
+                                    insert.bindLong(4, categoryId);
+                                }
+                                insert.bindLong(5, chunk.epochDays[i]);
+                                bindText(insert, 6, chunk.descriptions[i]);
+                                insert.executeInsert();
+                            }
+                            inBatch += chunk.count;
+                            imported += chunk.count;
+                            skipped += chunk.skipped;
+                            linesDone = chunk.endLine;
+                        }
+
+                        if (done) {
+                            // Vollständig importiert: Fortschritt wird nicht mehr benötigt
+                            db.delete(DatabaseHelper.TABLE_IMPORT_PROGRESS,
+                                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " + DatabaseHelper.COLUMN_SOURCE + " = ?",
+                                    new String[]{String.valueOf(userId), source});
+                        } else {
+                            progress.bindString(1, source);
+                            progress.bindLong(2, userId);
+                            progress.bindLong(3, linesDone);
+                            progress.executeInsert();
+                        }
+                        db.setTransactionSuccessful();
+                    } catch (Exception e) {
+                        categories.invalidate(); // im Batch angelegte Kategorien werden mit zurückgerollt
+                        throw e;
+                    } finally {
+                        db.endTransaction();
+                    }
+                    inBatch = 0;
+
+                    if (listener != null) {
+                        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - started);
+                        listener.onProgress(imported, imported * 1000.0 / elapsed);
+                    }
+                }
+            } finally {
+                insert.close();
+                progress.close();
+            }
+            return new long[]{imported, skipped, SystemClock.elapsedRealtime() - started};
+        }
+
+        private void bindText(SQLiteStatement statement, int index, String value) {
+            if (value == null) {
+                statement.bindNull(index);
+            } else {
+                statement.bindString(index, value);
+            }
+        }
+    }
+
+    // Parst einen Block von Zeilen in spaltenweise Arrays
+    private static class ParseTask implements Callable<ParsedChunk> {
+        private final List<String> lines;
+        private final ColumnLayout layout;
+        private final long endLine;
+
+        ParseTask(List<String> lines, ColumnLayout layout, long endLine) {
+            this.lines = lines;
+            this.layout = layout;
+            this.endLine = endLine;
+        }
+
+        @Override
+        public ParsedChunk call() {
+            ParsedChunk chunk = new ParsedChunk(lines.size(), endLine);
+            List<String> fields = new ArrayList<>(8);
+            for (String line : lines) {
+                if (line.trim().isEmpty() || !split(line, layout.separator, fields) || !chunk.add(fields, layout)) {
+                    chunk.skipped++;
+                }
+            }
+            return chunk;
+        }
+    }
+
+    // Spaltenweise Ergebnisse eines Parse-Auftrags
+    private static class ParsedChunk {
+        static final ParsedChunk END = new ParsedChunk(0, -1);
+
+        final int[] types;
+        final long[] amountCents;
+        final String[] categories;
+        final long[] epochDays;
+        final String[] descriptions;
+        final long endLine; // Anzahl der Datenzeilen bis einschließlich dieses Blocks
+        int count;
+        int skipped;
+
+        ParsedChunk(int capacity, long endLine) {
+            this.types = new int[capacity];
+            this.amountCents = new long[capacity];
+            this.categories = new String[capacity];
+            this.epochDays = new long[capacity];
+            this.descriptions = new String[capacity];
+            this.endLine = endLine;
+        }
+
+        boolean add(List<String> fields, ColumnLayout layout) {
+            String date = parseDate(field(fields, layout.date));
+            String amountText = field(fields, layout.amount);
+            if (date == null || amountText == null) {
+                return false;
+            }
+            long cents;
+            long epochDay;
+            try {
+                cents = parseAmount(amountText, layout.decimalComma());
+                epochDay = EpochDay.fromIso(date);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return false;
+            }
+            int type = parseType(field(fields, layout.type), cents);
+
+            types[count] = type;
+            amountCents[count] = DatabaseHelper.normalizeAmount(type, cents);
+            categories[count] = emptyToNull(field(fields, layout.category));
+            epochDays[count] = epochDay;
+            descriptions[count] = emptyToNull(field(fields, layout.description));
+            count++;
+            return true;
+        }
+    }
+
+    // Spaltenzuordnung, aus der Kopfzeile ermittelt oder in Standardreihenfolge
+    private static class ColumnLayout {
+        char separator = ';';
+        boolean hasHeader;
+        int date = 0, amount = 1, category = 2, description = 3, type = -1;
+
+        static ColumnLayout detect(String firstLine) {
+            ColumnLayout layout = new ColumnLayout();
+            if (firstLine == null) {
+                return layout;
+            }
+            layout.separator = count(firstLine, ';') >= count(firstLine, ',') ? ';' : ',';
+
+            List<String> fields = new ArrayList<>();
+            split(firstLine, layout.separator, fields);
+            if (fields.isEmpty() || parseDate(fields.get(0)) != null) {
+                return layout; // keine Kopfzeile
+            }
+
+            layout.hasHeader = true;
+            layout.date = layout.amount = layout.category = layout.description = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+                if (name.startsWith("datum") || name.equals("date") || name.startsWith("buchungstag")) {
+                    if (layout.date == -1) layout.date = i;
+                } else if (name.startsWith("betrag") || name.equals("amount")) {
+                    layout.amount = i;
+                } else if (name.startsWith("kategorie") || name.equals("category")) {
+                    layout.category = i;
+                } else if (name.startsWith("beschreibung") || name.startsWith("verwendungszweck") || name.equals("description")) {
+                    layout.description = i;
+                } else if (name.equals("typ") || name.equals("type")) {
+                    layout.type = i;
+                }
+            }
+            return layout;
+        }
+
+        // Mit ';' getrennt: deutsches Zahlenformat, ',' als Dezimal- und '.' als Tausendertrennzeichen
+        boolean decimalComma() {
+            return separator == ';';
+        }
+
+        private static int count(String s, char c) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) == c) n++;
+            }
+            return n;
+        }
+    }
+
+    // Zerlegt eine CSV-Zeile; Felder in Anführungszeichen dürfen Trennzeichen und "" enthalten
+    static boolean split(String line, char separator, List<String> out) {
+        out.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                out.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        out.add(field.toString());
+        return !quoted;
+    }
+
+    // Akzeptiert YYYY-MM-DD und DD.MM.YYYY, liefert YYYY-MM-DD
+    static String parseDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        String s = text.trim();
+        if (s.length() == 10 && s.charAt(4) == '-' && s.charAt(7) == '-' && digits(s, 0, 4) && digits(s, 5, 7) && digits(s, 8, 10)) {
+            return s;
+        }
+        if (s.length() == 10 && s.charAt(2) == '.' && s.charAt(5) == '.' && digits(s, 0, 2) && digits(s, 3, 5) && digits(s, 6, 10)) {
+            return s.substring(6, 10) + '-' + s.substring(3, 5) + '-' + s.substring(0, 2);
+        }
+        return null;
+    }
+
+    /**
+     * Akzeptiert "1234.56", "-1.234,56", "1.234" und "1234,56 €"; liefert Cent.
+     * Stehen beide Trennzeichen im Betrag, ist das letzte das Dezimaltrennzeichen. Steht nur eines darin, gilt es als
+     * Tausendertrennzeichen, wenn es mehrfach vorkommt oder als Tausendertrennzeichen des Layouts ('.' bei
+     * decimalComma, sonst ',') vor genau drei Ziffern steht. Tausendertrennzeichen an anderer Stelle und mehr als zwei
+     * Nachkommastellen führen zu einer NumberFormatException: Beträge werden nie stillschweigend gerundet.
+     */
+    static long parseAmount(String text, boolean decimalComma) {
+        String s = text.replace("€", "").replace("EUR", "").replace(" ", "").replace("\u00A0", "");
+        int comma = s.lastIndexOf(',');
+        int dot = s.lastIndexOf('.');
+        char decimal;
+        if (comma >= 0 && dot >= 0) {
+            decimal = comma > dot ? ',' : '.';
+        } else if (comma >= 0 || dot >= 0) {
+            char only = comma >= 0 ? ',' : '.';
+            int at = Math.max(comma, dot);
+            boolean grouping = s.indexOf(only) != at
+                    || (only == (decimalComma ? '.' : ',') && s.length() - at - 1 == 3);
+            decimal = grouping ? (only == ',' ? '.' : ',') : only;
+        } else {
+            return Money.parseCents(s);
+        }
+        char grouping = decimal == ',' ? '.' : ',';
+        if (!validGrouping(s, grouping, s.lastIndexOf(decimal))) {
+            throw new NumberFormatException("Ungültige Tausendertrennzeichen: " + text);
+        }
+        return Money.parseCents(s.replace(String.valueOf(grouping), "").replace(decimal, '.'));
+    }
+
+    // Tausendertrennzeichen nur vor dem Dezimaltrennzeichen, nach höchstens drei führenden und vor genau drei Ziffern
+    private static boolean validGrouping(String s, char grouping, int decimalAt) {
+        int end = decimalAt >= 0 ? decimalAt : s.length();
+        int first = s.indexOf(grouping);
+        int start = s.startsWith("-") || s.startsWith("+") ? 1 : 0;
+        if (first >= 0 && (first - start < 1 || first - start > 3)) {
+            return false;
+        }
+        for (int i = s.indexOf(grouping); i >= 0; i = s.indexOf(grouping, i + 1)) {
+            int next = i + 4;
+            if (next > end || !digits(s, i + 1, next) || (next < end && s.charAt(next) != grouping)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ohne Typ-Spalte entscheidet das Vorzeichen
+    static int parseType(String text, long amount) {
+        if (text != null) {
+            String t = text.trim().toLowerCase(Locale.ROOT);
+            if (t.equals("1") || t.startsWith("einnahme") || t.equals("income")) return DatabaseHelper.EINNAHME;
+            if (t.equals("2") || t.startsWith("ausgabe") || t.equals("expense")) return DatabaseHelper.AUSGABE;
+        }
+        return amount < 0 ? DatabaseHelper.AUSGABE : DatabaseHelper.EINNAHME;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return (index >= 0 && index < fields.size()) ? fields.get(index).trim() : null;
+    }
+
+    private static String emptyToNull(String s) {
+        return (s == null || s.isEmpty()) ? null : s;
+    }
+
+    private static boolean digits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+}
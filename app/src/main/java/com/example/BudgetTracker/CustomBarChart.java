@@ -5,30 +5,76 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import java.util.List;
 
+/**
+ * Balkendiagramm für Einnahmen und Ausgaben je Zeitraum, mit Zoom (zwei Finger) und Verschieben.
+ *
+ * Das Diagramm hält Detailstufen (z. B. Tag, Woche, Monat) und zeigt einen Ausschnitt der X-Achse.
+ * {@link ChartLayout} wählt dazu die passende Stufe und fasst bei Bedarf Buckets zu Pixelspalten
+ * zusammen; berechnet werden nur die sichtbaren Balken, auch bei zehntausenden Buckets. Die Geometrie
+ * entsteht bei Daten-, Größen- oder Ausschnittänderung in primitiven Arrays; onDraw zeichnet nur
+ * noch diese Werte. Das Diagramm liegt in einer Hardware-Ebene: solange sich nichts ändert, wird es
+ * z. B. beim Scrollen der umgebenden Ansicht nicht neu gezeichnet.
+ */
 public class CustomBarChart extends View {
 
-    // Listen für Einnahmen, Ausgaben und die Labels (X-Achse)
-    private List<Float> einnahmen; // Daten für Einnahmen
-    private List<Float> ausgaben;  // Daten für Ausgaben
-    private List<String> labels;  // Beschriftungen für die X-Achse
+    private static final int PADDING = 100; // Abstand zum Rand
+    private static final int GRID_LINES = 5; // Anzahl der horizontalen Linien
+    private static final int MIN_VISIBLE_BUCKETS = 3; // weiter hineinzoomen geht nicht
+    private static final int PEAK_ALPHA = 90; // Spannweite zusammengefasster Spalten halbtransparent
+
+    // Detailstufen, die feinste zuerst, und der sichtbare Ausschnitt der X-Achse
+    private ChartSeries[] levels = new ChartSeries[0];
+    private double dataFrom, dataTo; // gesamter Bereich
+    private double viewFrom, viewTo;
+    private final ChartLayout layout = new ChartLayout();
+
+    // Vorberechnete Darstellung, je Balken vier Werte (links, oben, rechts, unten) bzw. zwei (x, y)
+    private float[] einnahmenRects = new float[0];
+    private float[] ausgabenRects = new float[0];
+    private float[] einnahmenPeakRects = new float[0]; // von Minimum bis Maximum einer Spalte
+    private float[] ausgabenPeakRects = new float[0];
+    private float[] einnahmenTextPositions = new float[0];
+    private float[] ausgabenTextPositions = new float[0];
+    private float[] labelPositions = new float[0];
+    private String[] einnahmenTexts = new String[0];
+    private String[] ausgabenTexts = new String[0];
+    private String[] labelTexts = new String[0];
+    private float[] gridLines = new float[0]; // je Linie x0, y0, x1, y1 für drawLines
+    private float[] gridTextPositions = new float[0];
+    private String[] gridTexts = new String[0];
+    private float gridMaxValue = -1; // Wert, für den gridTexts berechnet sind
+    private float[] axisLines = new float[0];
+    private int barCount; // Anzahl vorberechneter Balken; 0 = nichts zeichnen
+    private int valueCount; // Balken mit Wertbeschriftung
+    private int labelCount;
+    private float valueTextWidth; // ab dieser Gruppenbreite passen die Werte über die Balken
+    private float labelWidth;     // Mindestabstand zweier X-Beschriftungen
 
     // Paint-Objekte für die verschiedenen Zeichenstile
     private Paint paintEinnahmen; // Farbe und Stil für Einnahmen
     private Paint paintAusgaben;  // Farbe und Stil für Ausgaben
+    private Paint paintEinnahmenPeak;
+    private Paint paintAusgabenPeak;
     private Paint paintText;      // Farbe und Stil für Texte (Labels, Werte)
     private Paint paintAxis;      // Farbe und Stil für die Achsen
     private Paint paintGrid;      // Farbe und Stil für Hintergrundlinien (Gitter)
 
+    private ScaleGestureDetector scaleDetector; // Zoom mit zwei Fingern
+    private GestureDetector gestureDetector;    // Verschieben, Doppeltippen setzt den Ausschnitt zurück
+
     // Konstruktor
     public CustomBarChart(Context context, AttributeSet attrs) {
         super(context, attrs);
-        init(); // Initialisierung der Paint-Objekte
+        init(context); // Initialisierung der Paint-Objekte und Gesten
     }
 
-    private void init() {
+    private void init(Context context) {
         // Initialisierung der Farben und Stile
 
         // Grün für Einnahmen
@@ -41,11 +87,18 @@ public class CustomBarChart extends View {
         paintAusgaben.setColor(Color.parseColor("#F44336"));
         paintAusgaben.setStyle(Paint.Style.FILL);
 
+        paintEinnahmenPeak = new Paint(paintEinnahmen);
+        paintEinnahmenPeak.setAlpha(PEAK_ALPHA);
+        paintAusgabenPeak = new Paint(paintAusgaben);
+        paintAusgabenPeak.setAlpha(PEAK_ALPHA);
+
         // Schwarz für Texte (Labels und Werte)
         paintText = new Paint();
         paintText.setColor(Color.BLACK);
         paintText.setTextSize(40); // Schriftgröße
         paintText.setTextAlign(Paint.Align.CENTER); // Zentrierte Ausrichtung
+        valueTextWidth = 2 * paintText.measureText("0000,00");
+        labelWidth = paintText.measureText("00.00.") + 20;
 
         // Schwarz für Achsen
         paintAxis = new Paint();
@@ -57,6 +110,40 @@ public class CustomBarChart extends View {
         paintGrid.setColor(Color.LTGRAY);
         paintGrid.setStrokeWidth(2); // Dünne Linien
         paintGrid.setStyle(Paint.Style.STROKE);
+
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoom(detector.getScaleFactor(), detector.getFocusX());
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                pan(distanceX);
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                setViewport(dataFrom, dataTo);
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapConfirmed(MotionEvent e) {
+                return performClick();
+            }
+        });
+
+        // Zeichnung in einer Hardware-Ebene halten; onDraw läuft nur nach invalidate()
+        setLayerType(LAYER_TYPE_HARDWARE, null);
     }
 
     // Methode zum Setzen der Daten für das Diagramm
@@ -65,96 +152,275 @@ public class CustomBarChart extends View {
         if (einnahmen == null || ausgaben == null || labels == null) {
             throw new IllegalArgumentException("Einnahmen, Ausgaben und Labels dürfen nicht null sein!");
         }
-        if (einnahmen.size() != ausgaben.size() || einnahmen.size() != labels.size()) {
+        setData(toArray(einnahmen), toArray(ausgaben), labels.toArray(new String[0]));
+    }
+
+    /**
+     * Setzt die Daten als Arrays, ohne Umwandlung in Listen; das Diagramm übernimmt die Arrays.
+     */
+    public void setData(float[] einnahmen, float[] ausgaben, String[] labels) {
+        // Validierung der Eingabedaten
+        if (einnahmen == null || ausgaben == null || labels == null) {
+            throw new IllegalArgumentException("Einnahmen, Ausgaben und Labels dürfen nicht null sein!");
+        }
+        if (einnahmen.length != ausgaben.length || einnahmen.length != labels.length) {
             throw new IllegalArgumentException("Einnahmen, Ausgaben und Labels müssen die gleiche Größe haben!");
         }
+        setDetailLevels(ChartSeries.of(einnahmen, ausgaben, labels));
+    }
 
-        // Zuweisung der Daten
-        this.einnahmen = einnahmen;
-        this.ausgaben = ausgaben;
-        this.labels = labels;
+    /**
+     * Farben der beiden Balken je Gruppe, z. B. für Zeitraum und Vorzeitraum statt Einnahmen und Ausgaben.
+     */
+    public void setSeriesColors(int first, int second) {
+        paintEinnahmen.setColor(first);
+        paintAusgaben.setColor(second);
+        paintEinnahmenPeak.setColor(first);
+        paintEinnahmenPeak.setAlpha(PEAK_ALPHA);
+        paintAusgabenPeak.setColor(second);
+        paintAusgabenPeak.setAlpha(PEAK_ALPHA);
+        invalidate();
+    }
 
-        invalidate(); // Neuzeichnen des Diagramms
+    /**
+     * Setzt die Detailstufen (die feinste zuerst, alle auf derselben X-Achse) und zeigt den gesamten Bereich.
+     */
+    void setDetailLevels(ChartSeries... levels) {
+        this.levels = levels;
+        ChartSeries finest = levels.length > 0 ? levels[0] : null;
+        if (finest == null || finest.size() == 0) {
+            dataFrom = dataTo = 0;
+        } else {
+            dataFrom = finest.starts[0];
+            dataTo = finest.ends[finest.size() - 1];
+        }
+        setViewport(dataFrom, dataTo);
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        layoutChart(width, height);
+    }
 
-        // Wenn keine Daten vorhanden sind, nichts zeichnen
-        if (einnahmen == null || ausgaben == null || labels == null || einnahmen.isEmpty()) {
-            return;
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (dataTo <= dataFrom) {
+            return super.onTouchEvent(event);
         }
+        // Gesten im Diagramm nicht an umgebende Ansichten abgeben
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN && getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
 
-        int width = getWidth();  // Breite der Ansicht
-        int height = getHeight(); // Höhe der Ansicht
-        int padding = 100; // Abstand zum Rand
-
-        // Berechnung der Diagrammgröße
-        int chartWidth = width - 2 * padding;
-        int chartHeight = height - 2 * padding;
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
 
-        // Breite der Balkengruppen
-        int groupWidth = chartWidth / labels.size();
-        int barWidth = groupWidth / 3;
+    // Zoomt um den Faktor (> 1 hinein), der Punkt unter focusX bleibt stehen
+    private void zoom(float factor, float focusX) {
+        double span = viewTo - viewFrom;
+        double minSpan = Math.min(dataTo - dataFrom, MIN_VISIBLE_BUCKETS * (levels[0].ends[0] - levels[0].starts[0]));
+        double newSpan = Math.max(minSpan, Math.min(dataTo - dataFrom, span / factor));
+        double chartWidth = getWidth() - 2 * PADDING;
+        double fraction = chartWidth > 0 ? Math.max(0, Math.min(1, (focusX - PADDING) / chartWidth)) : 0.5;
+        double focus = viewFrom + fraction * span;
+        setViewport(focus - fraction * newSpan, focus - fraction * newSpan + newSpan);
+    }
 
-        // Ermittlung des maximalen Wertes (für die Skalierung)
-        float maxValue = Math.max(getMax(einnahmen), getMax(ausgaben));
+    // Verschiebt den Ausschnitt um distanceX Pixel (positiv = nach rechts, also spätere Zeiträume)
+    private void pan(float distanceX) {
+        double chartWidth = getWidth() - 2 * PADDING;
+        if (chartWidth <= 0) {
+            return;
+        }
+        double shift = distanceX * (viewTo - viewFrom) / chartWidth;
+        setViewport(viewFrom + shift, viewTo + shift);
+    }
 
-        // Zeichnen der Hintergrundlinien (Gitter)
-        int numGridLines = 5; // Anzahl der horizontalen Linien
-        for (int i = 0; i <= numGridLines; i++) {
-            float y = padding + (chartHeight / (float) numGridLines) * i;
-            canvas.drawLine(padding, y, width - padding, y, paintGrid);
+    // Setzt den Ausschnitt, begrenzt auf den Datenbereich, und berechnet die Darstellung neu
+    private void setViewport(double from, double to) {
+        double span = Math.min(to - from, dataTo - dataFrom);
+        from = Math.max(dataFrom, Math.min(dataTo - span, from));
+        viewFrom = from;
+        viewTo = from + span;
+        layoutChart(getWidth(), getHeight());
+        invalidate(); // Neuzeichnen des Diagramms
+    }
 
-            // Y-Achsen-Beschriftung
-            float value = maxValue - (maxValue / numGridLines) * i;
-            canvas.drawText(String.valueOf((int) value), padding - 50, y + 10, paintText);
+    // Berechnet Geometrie und Beschriftungen für die aktuelle Größe und den Ausschnitt
+    private void layoutChart(int width, int height) {
+        barCount = 0;
+        valueCount = 0;
+        labelCount = 0;
+        // Wenn keine Daten vorhanden sind oder die Größe noch unbekannt ist, nichts zeichnen
+        if (viewTo <= viewFrom || width <= 2 * PADDING || height <= 2 * PADDING) {
+            return;
         }
+        DisplayFormat format = DisplayFormat.current();
 
-        // Zeichnen der Achsen
-        canvas.drawLine(padding, padding, padding, height - padding, paintAxis); // Y-Achse
-        canvas.drawLine(padding, height - padding, width - padding, height - padding, paintAxis); // X-Achse
-
-        // Zeichnen der Balken
-        for (int i = 0; i < labels.size(); i++) {
-            // Höhe der Balken relativ zur Diagrammhöhe
-            float einnahmenHeight = (einnahmen.get(i) / maxValue) * chartHeight;
-            float ausgabenHeight = (ausgaben.get(i) / maxValue) * chartHeight;
+        // Berechnung der Diagrammgröße
+        int chartWidth = width - 2 * PADDING;
+        int chartHeight = height - 2 * PADDING;
+        float bottom = height - PADDING;
+
+        // Sichtbare Spalten in der passenden Detailstufe, maximaler Wert für die Skalierung
+        layout.compute(levels, viewFrom, viewTo, PADDING, chartWidth);
+        int count = layout.columns;
+        if (count == 0) {
+            return;
+        }
+        float maxValue = layout.maxValue;
+        float scale = maxValue > 0 ? chartHeight / maxValue : 0;
+
+        // Hintergrundlinien (Gitter) mit Y-Achsen-Beschriftung; Texte nur bei geändertem Maximum neu
+        if (gridLines.length != (GRID_LINES + 1) * 4 || gridLines[2] != width - PADDING || gridLines[GRID_LINES * 4 + 1] != bottom) {
+            gridLines = new float[(GRID_LINES + 1) * 4];
+            gridTextPositions = new float[(GRID_LINES + 1) * 2];
+            for (int i = 0; i <= GRID_LINES; i++) {
+                float y = PADDING + (chartHeight / (float) GRID_LINES) * i;
+                gridLines[i * 4] = PADDING;
+                gridLines[i * 4 + 1] = y;
+                gridLines[i * 4 + 2] = width - PADDING;
+                gridLines[i * 4 + 3] = y;
+                gridTextPositions[i * 2] = PADDING - 50;
+                gridTextPositions[i * 2 + 1] = y + 10;
+            }
+            // Achsen: Y-Achse, X-Achse
+            axisLines = new float[]{PADDING, PADDING, PADDING, bottom, PADDING, bottom, width - PADDING, bottom};
+        }
+        if (maxValue != gridMaxValue) {
+            gridTexts = new String[GRID_LINES + 1];
+            for (int i = 0; i <= GRID_LINES; i++) {
+                gridTexts[i] = String.valueOf((int) (maxValue - (maxValue / GRID_LINES) * i));
+            }
+            gridMaxValue = maxValue;
+        }
 
-            // Position der Einnahmen-Balken
-            float leftEinnahmen = padding + i * groupWidth + barWidth / 2;
+        // Balken, Werte darüber und Labels darunter
+        einnahmenRects = ensureSize(einnahmenRects, count * 4);
+        ausgabenRects = ensureSize(ausgabenRects, count * 4);
+        einnahmenPeakRects = ensureSize(einnahmenPeakRects, count * 4);
+        ausgabenPeakRects = ensureSize(ausgabenPeakRects, count * 4);
+        einnahmenTextPositions = ensureSize(einnahmenTextPositions, count * 2);
+        ausgabenTextPositions = ensureSize(ausgabenTextPositions, count * 2);
+        labelPositions = ensureSize(labelPositions, count * 2);
+        einnahmenTexts = ensureSize(einnahmenTexts, count);
+        ausgabenTexts = ensureSize(ausgabenTexts, count);
+        labelTexts = ensureSize(labelTexts, count);
+        float lastLabelX = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            // Höhe der Balken relativ zur Diagrammhöhe; zusammengefasste Spalten zeigen zusätzlich ihr Maximum
+            float einnahmenTop = bottom - layout.einnahmenMin[i] * scale;
+            float ausgabenTop = bottom - layout.ausgabenMin[i] * scale;
+
+            // Position der Einnahmen- und Ausgaben-Balken
+            float groupWidth = layout.rights[i] - layout.lefts[i];
+            float barWidth = groupWidth / 3;
+            float leftEinnahmen = layout.lefts[i] + barWidth / 2;
             float rightEinnahmen = leftEinnahmen + barWidth;
-
-            // Position der Ausgaben-Balken
             float leftAusgaben = rightEinnahmen + barWidth / 2;
             float rightAusgaben = leftAusgaben + barWidth;
 
-            // Formatierte Zahlen mit 2 Dezimalstellen
-            String formattedEinnahmen = String.format("%.2f", einnahmen.get(i));
-            String formattedAusgaben = String.format("%.2f", ausgaben.get(i));
+            setRect(einnahmenRects, i, leftEinnahmen, einnahmenTop, rightEinnahmen, bottom);
+            setRect(ausgabenRects, i, leftAusgaben, ausgabenTop, rightAusgaben, bottom);
+            setRect(einnahmenPeakRects, i, leftEinnahmen, bottom - layout.einnahmenMax[i] * scale, rightEinnahmen, einnahmenTop);
+            setRect(ausgabenPeakRects, i, leftAusgaben, bottom - layout.ausgabenMax[i] * scale, rightAusgaben, ausgabenTop);
+
+            // Formatierte Zahlen mit 2 Dezimalstellen, nur wenn sie über die Balken passen
+            if (!layout.downsampled && groupWidth >= valueTextWidth) {
+                setPoint(einnahmenTextPositions, valueCount, (leftEinnahmen + rightEinnahmen) / 2, einnahmenTop - 10);
+                setPoint(ausgabenTextPositions, valueCount, (leftAusgaben + rightAusgaben) / 2, ausgabenTop - 10);
+                einnahmenTexts[valueCount] = format.euros(Money.toCents(layout.einnahmenMin[i]));
+                ausgabenTexts[valueCount] = format.euros(Money.toCents(layout.ausgabenMin[i]));
+                valueCount++;
+            }
+
+            // Beschriftung der X-Achse ohne Überlappung und nur innerhalb des Diagramms
+            float labelX = (leftEinnahmen + rightAusgaben) / 2;
+            if (labelX - lastLabelX >= labelWidth && labelX >= PADDING && labelX <= width - PADDING) {
+                setPoint(labelPositions, labelCount, labelX, bottom + 50);
+                labelTexts[labelCount++] = layout.series.label(layout.buckets[i]);
+                lastLabelX = labelX;
+            }
+        }
+        barCount = count;
+    }
 
-            // Zeichnen der Einnahmen-Balken
-            canvas.drawRect(leftEinnahmen, height - padding - einnahmenHeight, rightEinnahmen, height - padding, paintEinnahmen);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (barCount == 0) {
+            return;
+        }
 
-            // Zeichnen der Ausgaben-Balken
-            canvas.drawRect(leftAusgaben, height - padding - ausgabenHeight, rightAusgaben, height - padding, paintAusgaben);
+        // Gitter und Achsen in je einem Aufruf
+        canvas.drawLines(gridLines, paintGrid);
+        for (int i = 0; i < gridTexts.length; i++) {
+            canvas.drawText(gridTexts[i], gridTextPositions[i * 2], gridTextPositions[i * 2 + 1], paintText);
+        }
 
-            // Zeichnen der formatierten Werte oberhalb der Balken
-            canvas.drawText(formattedEinnahmen, (leftEinnahmen + rightEinnahmen) / 2, height - padding - einnahmenHeight - 10, paintText);
-            canvas.drawText(formattedAusgaben, (leftAusgaben + rightAusgaben) / 2, height - padding - ausgabenHeight - 10, paintText);
+        // Balken und Werte aus den vorberechneten Arrays, angeschnittene Balken am Rand abschneiden
+        canvas.save();
+        canvas.clipRect(PADDING, 0, getWidth() - PADDING, getHeight());
+        for (int i = 0; i < barCount; i++) {
+            int r = i * 4;
+            canvas.drawRect(einnahmenRects[r], einnahmenRects[r + 1], einnahmenRects[r + 2], einnahmenRects[r + 3], paintEinnahmen);
+            canvas.drawRect(ausgabenRects[r], ausgabenRects[r + 1], ausgabenRects[r + 2], ausgabenRects[r + 3], paintAusgaben);
+        }
+        if (layout.downsampled) {
+            for (int i = 0; i < barCount; i++) {
+                int r = i * 4;
+                canvas.drawRect(einnahmenPeakRects[r], einnahmenPeakRects[r + 1], einnahmenPeakRects[r + 2], einnahmenPeakRects[r + 3], paintEinnahmenPeak);
+                canvas.drawRect(ausgabenPeakRects[r], ausgabenPeakRects[r + 1], ausgabenPeakRects[r + 2], ausgabenPeakRects[r + 3], paintAusgabenPeak);
+            }
+        }
+        for (int i = 0; i < valueCount; i++) {
+            int p = i * 2;
+            canvas.drawText(einnahmenTexts[i], einnahmenTextPositions[p], einnahmenTextPositions[p + 1], paintText);
+            canvas.drawText(ausgabenTexts[i], ausgabenTextPositions[p], ausgabenTextPositions[p + 1], paintText);
+        }
+        canvas.restore();
 
-            // Labels unterhalb der X-Achse
-            canvas.drawText(labels.get(i), (leftEinnahmen + rightAusgaben) / 2, height - padding + 50, paintText);
+        canvas.drawLines(axisLines, paintAxis);
+        for (int i = 0; i < labelCount; i++) {
+            canvas.drawText(labelTexts[i], labelPositions[i * 2], labelPositions[i * 2 + 1], paintText);
         }
     }
 
-    // Hilfsmethode zum Ermitteln des maximalen Wertes in einer Liste
-    private float getMax(List<Float> values) {
-        float max = 0;
-        for (Float value : values) {
-            if (value > max) max = value;
+    private static void setRect(float[] rects, int index, float left, float top, float right, float bottom) {
+        int r = index * 4;
+        rects[r] = left;
+        rects[r + 1] = top;
+        rects[r + 2] = right;
+        rects[r + 3] = bottom;
+    }
+
+    private static void setPoint(float[] points, int index, float x, float y) {
+        points[index * 2] = x;
+        points[index * 2 + 1] = y;
+    }
+
+    // Vorhandenes Array wiederverwenden, wenn es groß genug ist
+    private static float[] ensureSize(float[] array, int size) {
+        return array.length >= size ? array : new float[size];
+    }
+
+    private static String[] ensureSize(String[] array, int size) {
+        return array.length >= size ? array : new String[size];
+    }
+
+    // Hilfsmethode zum einmaligen Entpacken einer Liste
+    private static float[] toArray(List<Float> values) {
+        float[] array = new float[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
         }
-        return max;
+        return array;
     }
 }
@@ -0,0 +1,158 @@
+package com.example.BudgetTracker;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Präfixsummen über Epochentage je Benutzer: Kontostand zu einem Datum und Saldo eines Zeitraums in O(log n).
+ *
+ * Grundlage ist die Tabelle daily_totals, die Trigger bei jedem Schreiben nachführen. Beim ersten Zugriff
+ * wird daraus ein {@link FenwickTree} über alle Tage vom ersten Buchungstag an aufgebaut; danach übernimmt
+ * {@link #apply} jede Änderung in O(log n). Laden und {@link #apply} laufen innerhalb einer
+ * Schreibtransaktion, dadurch sieht das Laden entweder eine Änderung oder die Änderung trifft auf den
+ * fertig geladenen Baum, nie beides. Nur im Hintergrund verwenden.
+ *
+ * Der Baum ist dicht über alle Tage. Tage vor {@link EpochDay#MIN_DAY} bzw. nach {@link EpochDay#MAX_DAY}
+ * (nur aus Daten vor der Prüfung in {@link EpochDay#fromIso}) liegen gesammelt auf dem Tag direkt davor bzw.
+ * danach; Abfragen innerhalb des Bereichs bleiben exakt, und ein Ausreißer wie das Jahr 1 oder 9999 lässt
+ * den Baum nicht über etwa 110.000 Tage wachsen.
+ */
+final class DailyBalanceIndex {
+
+    private static final int SPARE_DAYS = 366; // Platz für künftige Buchungen, bevor der Baum wachsen muss
+
+    private static final String LOAD_SQL = "SELECT " + DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_NET_CENTS
+            + " FROM " + DatabaseHelper.TABLE_DAILY_TOTALS + " WHERE " + DatabaseHelper.COLUMN_USER_ID + " = ?"
+            + " ORDER BY " + DatabaseHelper.COLUMN_EPOCH_DAY;
+
+    private final DatabaseHelper dbHelper;
+    private final Map<Integer, Days> users = new ConcurrentHashMap<>();
+
+    DailyBalanceIndex(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // Kontostand in Cent nach allen Buchungen bis einschließlich epochDay
+    long balanceAsOf(int userId, long epochDay) {
+        Days days = get(userId);
+        synchronized (days) {
+            return days.prefixSum(epochDay);
+        }
+    }
+
+    // Saldo in Cent aller Buchungen von fromDay bis toDay (beide einschließlich)
+    long netFlow(int userId, long fromDay, long toDay) {
+        if (toDay < fromDay) {
+            return 0;
+        }
+        Days days = get(userId);
+        synchronized (days) {
+            return days.prefixSum(toDay) - days.prefixSum(fromDay - 1);
+        }
+    }
+
+    /**
+     * Übernimmt eine Änderung in den geladenen Baum; ohne geladenen Baum liest das spätere Laden sie aus daily_totals.
+     * Muss innerhalb der Schreibtransaktion aufgerufen werden, die die Änderung vornimmt.
+     */
+    void apply(int userId, long epochDay, long deltaCents) {
+        Days days = users.get(userId);
+        if (days != null) {
+            synchronized (days) {
+                days.add(epochDay, deltaCents);
+            }
+        }
+    }
+
+    // Verwirft den Baum des Benutzers, z. B. nach einem Import oder einer zurückgerollten Änderung
+    void invalidate(int userId) {
+        users.remove(userId);
+    }
+
+    void clear() {
+        users.clear();
+    }
+
+    private Days get(int userId) {
+        Days days = users.get(userId);
+        if (days != null) {
+            return days;
+        }
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction(); // sperrt Schreiber aus, bis der Baum eingetragen ist
+        try {
+            days = users.get(userId);
+            if (days == null) {
+                days = Days.load(db, userId);
+                users.put(userId, days);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return days;
+    }
+
+    // Tag im Baum: außerhalb des zulässigen Bereichs auf den Tag direkt davor bzw. danach gesammelt
+    private static long indexDay(long epochDay) {
+        return Math.max(EpochDay.MIN_DAY - 1, Math.min(EpochDay.MAX_DAY + 1, epochDay));
+    }
+
+    // Baum eines Benutzers; Position 0 entspricht firstDay
+    private static final class Days {
+        private long firstDay;
+        private FenwickTree tree;
+
+        static Days load(SQLiteDatabase db, int userId) {
+            Days days = new Days();
+            try (Cursor cursor = db.rawQuery(LOAD_SQL, new String[]{String.valueOf(userId)})) {
+                if (!cursor.moveToLast()) {
+                    days.tree = new FenwickTree(0);
+                    return days;
+                }
+                long lastDay = indexDay(cursor.getLong(0));
+                cursor.moveToFirst();
+                days.firstDay = indexDay(cursor.getLong(0));
+                long[] values = new long[(int) (lastDay - days.firstDay + 1 + SPARE_DAYS)];
+                do {
+                    values[(int) (indexDay(cursor.getLong(0)) - days.firstDay)] += cursor.getLong(1);
+                } while (cursor.moveToNext());
+                days.tree = new FenwickTree(values);
+            }
+            return days;
+        }
+
+        long prefixSum(long epochDay) {
+            long position = indexDay(epochDay) - firstDay;
+            if (position < 0) {
+                return 0;
+            }
+            return tree.prefixSum((int) Math.min(position, tree.size()));
+        }
+
+        void add(long day, long deltaCents) {
+            long epochDay = indexDay(day);
+            if (tree.size() == 0) {
+                firstDay = epochDay;
+            }
+            if (epochDay < firstDay || epochDay - firstDay >= tree.size()) {
+                grow(epochDay);
+            }
+            tree.add((int) (epochDay - firstDay), deltaCents);
+        }
+
+        // Baum um den neuen Tag erweitern (vorn oder hinten) und in O(n) neu aufbauen
+        private void grow(long epochDay) {
+            long[] old = tree.toValues();
+            long newFirst = Math.min(firstDay, epochDay);
+            long newLast = Math.max(firstDay + old.length - 1, epochDay) + SPARE_DAYS;
+            long[] values = new long[(int) (newLast - newFirst + 1)];
+            System.arraycopy(old, 0, values, (int) (firstDay - newFirst), old.length);
+            firstDay = newFirst;
+            tree = new FenwickTree(values);
+        }
+    }
+}
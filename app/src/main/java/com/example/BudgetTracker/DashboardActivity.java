@@ -1,9 +1,14 @@
 package com.example.BudgetTracker;
 
 import android.content.Intent;
-import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -13,20 +18,42 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+
 public class DashboardActivity extends AppCompatActivity {
 
+    private static final String TAG = "DashboardActivity";
+    private static final int REQUEST_IMPORT_CSV = 1; // Request-Code für die Dateiauswahl
+    private static final int UPCOMING_DAYS = 30; // Vorschau geplanter Buchungen
+    private static final int UPCOMING_LIMIT = 50; // höchstens so viele Zeilen in der Vorschau
+
     // UI-Komponenten
-    private TextView balanceTextView, emptyView; // Anzeige des Kontostands und leere Ansicht
-    private Button addTransactionButton, viewReportButton, logoutButton; // Buttons für verschiedene Aktionen
+    private TextView balanceTextView, emptyView, importProgressView; // Anzeige des Kontostands, leere Ansicht und Importfortschritt
+    private TextView upcomingTextView; // geplante Buchungen der nächsten Tage und Kontostand danach
+    private Button addTransactionButton, viewReportButton, importButton, logoutButton; // Buttons für verschiedene Aktionen
+    private EditText searchEditText; // Volltextsuche in Beschreibung und Kategorie
     private RecyclerView transactionsRecyclerView; // Liste für Transaktionen
     private SwipeRefreshLayout swipeRefreshLayout; // Swipe-Refresh-Layout zur Aktualisierung
 
     // Adapter und Repository für die Verwaltung von Transaktionen
     private TransactionAdapter transactionAdapter;
+    private boolean transactionsSortedByDate; // Sortierung, mit der der Adapter angelegt wurde
     private TransactionRepository transactionRepository;
 
     private int userId; // ID des angemeldeten Benutzers
 
+    // Kontostand wird mit den Änderungsmeldungen fortgeschrieben statt nach jeder Änderung neu gelesen
+    private final TransactionRepository.ChangeListener changeListener = this::onTransactionsChanged;
+    private long balanceCents;
+    private boolean balanceLoaded, balanceLoading, balanceStale; // stale: Änderung während des Ladens eingetroffen
+    private long loadedVersion = -1; // Datenstand der Anzeige; -1 = noch nicht geladen
+    private TransactionRowFormat amountFormat; // gleiche Betragsvorlage wie in den Listenzeilen
+    private final StringBuilder balanceText = new StringBuilder(32);
+    private TransactionSnapshot upcomingRows; // zuletzt angezeigte Vorschau
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -36,14 +63,19 @@ public class DashboardActivity extends AppCompatActivity {
         // Initialisieren der UI-Komponenten
         balanceTextView = findViewById(R.id.textViewBalance);
         emptyView = findViewById(R.id.textViewEmpty);
+        upcomingTextView = findViewById(R.id.textViewUpcoming);
         addTransactionButton = findViewById(R.id.buttonAddTransaction);
         viewReportButton = findViewById(R.id.buttonViewReport);
+        importButton = findViewById(R.id.buttonImportCsv);
+        importProgressView = findViewById(R.id.textViewImportProgress);
         logoutButton = findViewById(R.id.buttonLogout);
+        searchEditText = findViewById(R.id.editTextSearch);
         transactionsRecyclerView = findViewById(R.id.recyclerViewTransactions);
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
+        amountFormat = TransactionRowFormat.from(this);
 
         // Repository zur Verwaltung der Datenbankzugriffe initialisieren
-        transactionRepository = new TransactionRepository(this);
+        transactionRepository = TransactionRepository.getInstance(this);
 
         // ID des aktuell angemeldeten Benutzers abrufen
         userId = transactionRepository.getLoggedInUserId();
@@ -55,6 +87,8 @@ public class DashboardActivity extends AppCompatActivity {
             finish(); // Beendet die aktuelle Aktivität
             return;
         }
+        transactionRepository.preloadColumnsAsync(userId); // Auswertungen später ohne Wartezeit
+        transactionRepository.addChangeListener(changeListener);
 
         // RecyclerView für die Anzeige von Transaktionen einrichten
         transactionsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
@@ -69,10 +103,31 @@ public class DashboardActivity extends AppCompatActivity {
         viewReportButton.setOnClickListener(view ->
                 startActivity(new Intent(this, ReportActivity.class)));
 
+        importButton.setOnClickListener(view -> pickCsvFile());
+
+        upcomingTextView.setOnClickListener(view -> showUpcoming());
+
         logoutButton.setOnClickListener(view -> showLogoutConfirmation());
 
-        // Dashboard initial laden
-        refreshDashboard();
+        // Suche bei jedem Tastendruck; veraltete Anfragen verwirft die Liste selbst
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (transactionAdapter != null) {
+                    transactionAdapter.setSearch(s.toString());
+                }
+            }
+        });
+
+        // Erstes Laden in onResume: loadedVersion ist dort noch -1
     }
 
     //test
@@ -81,9 +136,92 @@ public class DashboardActivity extends AppCompatActivity {
      * Aktualisiert die Anzeige des Dashboards.
      */
     private void refreshDashboard() {
-        loadTransactions(true); // Transaktionen nach Datum sortieren
-        updateBalance(); // Kontostand aktualisieren
-        swipeRefreshLayout.setRefreshing(false); // Swipe-Refresh-Indikator deaktivieren
+        // Sofort als geladen markieren, damit ein onResume vor dem Ende des Ladens nicht noch einmal lädt
+        loadedVersion = transactionRepository.getDataVersion();
+        // Erst noch wartende Schreibvorgänge festschreiben, damit Liste und Kontostand sie enthalten
+        transactionRepository.flushWritesAsync(ignored -> {
+            if (isDestroyed()) {
+                return;
+            }
+            loadedVersion = transactionRepository.getDataVersion();
+            loadTransactions(true); // Transaktionen nach Datum sortieren
+            updateBalance(); // Kontostand aktualisieren
+            swipeRefreshLayout.setRefreshing(false); // Swipe-Refresh-Indikator deaktivieren
+            // Fällige Ausführungen der Daueraufträge buchen; Liste und Kontostand folgen über die Änderungsmeldungen
+            transactionRepository.materializeRecurringAsync(userId, booked -> {
+                if (!isDestroyed()) {
+                    updateUpcoming();
+                }
+            });
+        });
+    }
+
+    /**
+     * Lädt die Vorschau: gespeicherte und geplante Buchungen der nächsten Tage sowie den Kontostand danach.
+     * Daueraufträge werden dafür nur für diesen Zeitraum berechnet.
+     */
+    private void updateUpcoming() {
+        long today = LocalDate.now().toEpochDay();
+        long until = today + UPCOMING_DAYS;
+        transactionRepository.getTransactionsBetweenAsync(userId, today + 1, until, UPCOMING_LIMIT, rows ->
+                transactionRepository.getBalanceAsOfAsync(userId, until, projectedCents -> {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    upcomingRows = rows;
+                    if (rows.isEmpty()) {
+                        upcomingTextView.setVisibility(View.GONE);
+                        return;
+                    }
+                    DisplayFormat format = DisplayFormat.current();
+                    upcomingTextView.setText(getString(R.string.upcoming_summary, format.date(until), rows.size(), format.euros(projectedCents)));
+                    upcomingTextView.setVisibility(View.VISIBLE);
+                }));
+    }
+
+    /**
+     * Zeigt die Vorschau als Liste; ein Tipp auf eine geplante Ausführung bietet an, den Dauerauftrag zu beenden.
+     */
+    private void showUpcoming() {
+        TransactionSnapshot rows = upcomingRows;
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        CategoryDictionary categories = transactionRepository.getCategories(); // von getTransactionsBetween geladen
+        DisplayFormat format = DisplayFormat.current();
+        String[] lines = new String[rows.size()];
+        String[] names = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            String name = categories.name(rows.categoryId(i));
+            names[i] = name != null ? name : getString(R.string.no_category);
+            String line = getString(R.string.upcoming_line, format.date(rows.epochDay(i)), names[i], format.euros(rows.amountCents(i)));
+            lines[i] = OccurrenceMerge.isPlanned(rows.id(i)) ? line + " " + getString(R.string.upcoming_recurring_marker) : line;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.upcoming_title)
+                .setItems(lines, (dialogInterface, which) -> {
+                    if (OccurrenceMerge.isPlanned(rows.id(which))) {
+                        String description = rows.description(which);
+                        confirmEndRecurring(-rows.id(which), description != null && !description.isEmpty() ? description : names[which]);
+                    }
+                })
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    // Beendet einen Dauerauftrag nach heute; bereits gebuchte Ausführungen bleiben
+    private void confirmEndRecurring(int ruleId, String label) {
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.end_recurring_title)
+                .setMessage(getString(R.string.end_recurring_message, label))
+                .setPositiveButton(R.string.end_recurring_yes, (dialogInterface, i) ->
+                        transactionRepository.endRecurringRuleAsync(userId, ruleId, LocalDate.now().toEpochDay(), ended -> {
+                            if (!isDestroyed()) {
+                                updateUpcoming();
+                            }
+                        }))
+                .setNegativeButton(R.string.cancel, null)
+                .show();
     }
 
     /**
@@ -91,11 +229,30 @@ public class DashboardActivity extends AppCompatActivity {
      * @param sortByDate Bestimmt, ob die Transaktionen nach Datum sortiert werden sollen.
      */
     private void loadTransactions(boolean sortByDate) {
-        Cursor cursor = transactionRepository.getTransactionsForUser(userId, sortByDate);
+        // Adapter initialisieren oder bei geänderter Sortierung neu anlegen; die Zeilen werden seitenweise geladen
+        if (transactionAdapter == null || transactionsSortedByDate != sortByDate) {
+            if (transactionAdapter != null) {
+                transactionAdapter.release();
+            }
+            transactionAdapter = new TransactionAdapter(this, transactionRepository, userId, sortByDate);
+            transactionAdapter.setOnItemCountChangedListener(this::showTransactionsState);
+            transactionsRecyclerView.setAdapter(transactionAdapter);
+            transactionsSortedByDate = sortByDate;
+            transactionAdapter.setSearch(searchEditText.getText().toString()); // lädt auch Anzahl und erste Seite
+            return;
+        }
+        transactionAdapter.refresh(); // Anzahl und erste Seite im Hintergrund neu laden
+    }
 
-        if (cursor == null || cursor.getCount() == 0) {
+    /**
+     * Zeigt die Liste oder die leere Ansicht, sobald die Anzahl der Transaktionen bekannt ist.
+     * @param count Anzahl der Transaktionen des Benutzers.
+     */
+    private void showTransactionsState(int count) {
+        if (count == 0) {
             // Keine Transaktionen gefunden: leere Ansicht anzeigen
-         //   Toast.makeText(this, R.string.error_loading_transactions, Toast.LENGTH_SHORT).show();
+            boolean searching = TransactionRepository.toMatchQuery(searchEditText.getText().toString()) != null;
+            emptyView.setText(searching ? R.string.no_search_results : R.string.no_transactions);
             emptyView.setVisibility(TextView.VISIBLE);
             transactionsRecyclerView.setVisibility(RecyclerView.GONE);
             return;
@@ -104,22 +261,111 @@ public class DashboardActivity extends AppCompatActivity {
         // Transaktionen anzeigen
         emptyView.setVisibility(TextView.GONE);
         transactionsRecyclerView.setVisibility(RecyclerView.VISIBLE);
+    }
 
-        // Adapter initialisieren oder aktualisieren
-        if (transactionAdapter == null) {
-            transactionAdapter = new TransactionAdapter(this, cursor, transactionRepository);
-            transactionsRecyclerView.setAdapter(transactionAdapter);
-        } else {
-            transactionAdapter.updateCursor(cursor); // Daten im Adapter aktualisieren
+    /**
+     * Lädt den Kontostand neu und zeigt ihn an.
+     */
+    private void updateBalance() {
+        balanceLoading = true;
+        balanceStale = false;
+        transactionRepository.getBalanceAsync(userId, loadedCents -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (balanceStale) {
+                updateBalance(); // Ergebnis enthält die Änderung eventuell schon, Differenz nicht sicher anwendbar
+                return;
+            }
+            balanceLoading = false;
+            balanceLoaded = true;
+            balanceCents = loadedCents;
+            showBalance();
+        });
+    }
+
+    private void showBalance() {
+        balanceTextView.setText(amountFormat.amount(balanceText, balanceCents));
+    }
+
+    /**
+     * Schreibt den Kontostand mit den Änderungen fort; die Liste aktualisiert der Adapter selbst.
+     * @param changes Festgeschriebene Änderungen, aufsteigend nach Version.
+     */
+    private void onTransactionsChanged(List<TransactionChange> changes) {
+        boolean ownChanges = false;
+        for (TransactionChange change : changes) {
+            loadedVersion = Math.max(loadedVersion, change.getVersion());
+            if (change.getUserId() != userId) {
+                continue;
+            }
+            ownChanges = true;
+            if (balanceLoading) {
+                balanceStale = true;
+            } else if (change.getKind() == TransactionChange.RELOADED || !balanceLoaded) {
+                updateBalance();
+            } else {
+                balanceCents += change.getBalanceDeltaCents();
+                showBalance();
+            }
+        }
+        if (ownChanges) {
+            updateUpcoming(); // Kontostand am Ende der Vorschau hängt an jeder Buchung
+        }
+    }
+
+    /**
+     * Öffnet die Dateiauswahl für einen CSV-Kontoauszug.
+     */
+    private void pickCsvFile() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/csv", "text/comma-separated-values", "text/plain", "application/vnd.ms-excel"});
+        startActivityForResult(intent, REQUEST_IMPORT_CSV);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == REQUEST_IMPORT_CSV && resultCode == RESULT_OK && data != null && data.getData() != null) {
+            importCsv(data.getData());
         }
     }
 
     /**
-     * Aktualisiert den Kontostand und zeigt ihn an.
+     * Importiert die ausgewählte CSV-Datei im Hintergrund und zeigt den Fortschritt an.
+     * Ein abgebrochener Import derselben Datei wird beim nächsten Mal fortgesetzt.
+     * @param uri Die ausgewählte Datei.
      */
-    public void updateBalance() {
-        double balance = transactionRepository.getBalance(userId);
-        balanceTextView.setText(String.format(getString(R.string.amount_format), balance));
+    private void importCsv(Uri uri) {
+        importButton.setEnabled(false);
+        importProgressView.setText("");
+        importProgressView.setVisibility(View.VISIBLE);
+
+        new Thread(() -> {
+            try (InputStream in = getContentResolver().openInputStream(uri)) {
+                if (in == null) {
+                    throw new IOException("Datei konnte nicht geöffnet werden: " + uri);
+                }
+                CsvImporter.Result result = transactionRepository.importCsv(userId, in, uri.toString(), (rows, rowsPerSecond) ->
+                        runOnUiThread(() -> importProgressView.setText(getString(R.string.import_progress, rows, rowsPerSecond))));
+                runOnUiThread(() -> {
+                    Toast.makeText(this, getString(R.string.import_finished, result.rowsImported, result.rowsSkipped), Toast.LENGTH_LONG).show();
+                    if (!isDestroyed()) {
+                        refreshDashboard();
+                    }
+                });
+            } catch (IOException e) {
+                Log.e(TAG, "CSV-Import fehlgeschlagen", e);
+                runOnUiThread(() -> Toast.makeText(this, R.string.import_error, Toast.LENGTH_SHORT).show());
+            } finally {
+                runOnUiThread(() -> {
+                    importButton.setEnabled(true);
+                    importProgressView.setVisibility(View.GONE);
+                });
+            }
+        }, "CsvImport").start();
     }
 
     /**
@@ -146,33 +392,21 @@ public class DashboardActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        refreshDashboard(); // Dashboard aktualisieren, wenn die Aktivität wieder sichtbar wird
-    }
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        // Ressourcen freigeben, wenn die Aktivität pausiert wird
-        if (transactionAdapter != null) {
-            transactionAdapter.closeCursor(); // Cursor im Adapter schließen
-        }
-    }
-
-    @Override
-    protected void onStop() {
-        super.onStop();
-        // Ressourcen freigeben, wenn die Aktivität gestoppt wird
-        if (transactionAdapter != null) {
-            transactionAdapter.closeCursor();
+        // Nur neu laden, wenn sich seit der letzten Anzeige etwas geändert hat, das noch nicht gemeldet wurde
+        if (loadedVersion != transactionRepository.getDataVersion()) {
+            refreshDashboard();
+        } else if (loadedVersion != -1) {
+            updateUpcoming(); // ein neuer Dauerauftrag ohne fällige Ausführung ändert den Datenstand nicht
         }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Letzter Ressourcen-Cleanup beim Zerstören der Aktivität
+        // Letzter Ressourcen-Cleanup beim Zerstören der Aktivität: laufende Ladevorgänge verwerfen
+        transactionRepository.removeChangeListener(changeListener);
         if (transactionAdapter != null) {
-            transactionAdapter.closeCursor();
+            transactionAdapter.release();
         }
     }
 }
@@ -3,16 +3,22 @@ package com.example.BudgetTracker;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Looper;
 import android.util.Log;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "users.db";
-    private static final int DATABASE_VERSION = 3;
+    private static final int DATABASE_VERSION = 13;
 
     // Transaktionstypen
     public static final int EINNAHME = 1;
@@ -25,18 +31,275 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_PASSWORD = "password";
     public static final String COLUMN_USER_ID = "user_id";
     public static final String COLUMN_TYPE = "type";
-    public static final String COLUMN_AMOUNT = "amount";
-    public static final String COLUMN_CATEGORY = "category";
-    public static final String COLUMN_DATE = "date";
+    public static final String COLUMN_AMOUNT_CENTS = "amount_cents"; // Betrag in Cent
+    public static final String COLUMN_CATEGORY = "category"; // Kategorie als Text (bis Version 9, heute nur noch im Volltextindex)
+    public static final String COLUMN_CATEGORY_ID = "category_id"; // Verweis auf categories.id, NULL = keine Kategorie
+    public static final String COLUMN_EPOCH_DAY = "epoch_day"; // Datum als Tage seit 1970-01-01
     public static final String COLUMN_DESCRIPTION = "description";
 
     private static final String TABLE_USERS = "users";
 
+    // Kategorien: jeder Name einmal, Transaktionen verweisen über die id
+    public static final String TABLE_CATEGORIES = "categories";
+    public static final String COLUMN_NAME = "name";
+
+    private static final String CREATE_CATEGORIES_TABLE = "CREATE TABLE " + TABLE_CATEGORIES + " ("
+            + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + COLUMN_NAME + " TEXT NOT NULL UNIQUE);";
+
+    // Fortschritt laufender CSV-Importe (für das Fortsetzen nach Abbruch)
+    public static final String TABLE_IMPORT_PROGRESS = "import_progress";
+    public static final String COLUMN_SOURCE = "source";
+    public static final String COLUMN_ROWS_DONE = "rows_done";
+
+    // Je Benutzer und Quelle: importieren zwei Benutzer dieselbe Datei, hat jeder seinen eigenen Fortschritt
+    private static final String CREATE_IMPORT_PROGRESS_TABLE = createImportProgressTable(TABLE_IMPORT_PROGRESS);
+
+    private static String createImportProgressTable(String name) {
+        return "CREATE TABLE " + name + " ("
+                + COLUMN_USER_ID + " INTEGER NOT NULL, "
+                + COLUMN_SOURCE + " TEXT NOT NULL, "
+                + COLUMN_ROWS_DONE + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_USER_ID + ", " + COLUMN_SOURCE + ")) WITHOUT ROWID;";
+    }
+
     private final Context context;
+    private final boolean strictThreading; // nur in Debug-Builds: Zugriffe vom Main-Thread verbieten
+
+    // Kontostand je Benutzer, über Trigger bei jedem Insert/Update/Delete exakt nachgeführt
+    public static final String TABLE_BALANCES = "balances";
+    public static final String COLUMN_BALANCE_CENTS = "balance_cents";
+    public static final String COLUMN_TRANSACTION_COUNT = "transaction_count";
+
+    private static final String CREATE_BALANCES_TABLE = "CREATE TABLE " + TABLE_BALANCES + " ("
+            + COLUMN_USER_ID + " INTEGER PRIMARY KEY, "
+            + COLUMN_BALANCE_CENTS + " INTEGER NOT NULL DEFAULT 0, "
+            + COLUMN_TRANSACTION_COUNT + " INTEGER NOT NULL DEFAULT 0);";
+
+    // Zeile anlegen, falls noch nicht vorhanden (UPSERT gibt es erst ab SQLite 3.24 / API 30)
+    private static final String BALANCE_ENSURE_NEW = "INSERT OR IGNORE INTO " + TABLE_BALANCES + " (" + COLUMN_USER_ID + ") VALUES (NEW." + COLUMN_USER_ID + ");";
+    private static final String BALANCE_ADD_NEW = "UPDATE " + TABLE_BALANCES + " SET "
+            + COLUMN_BALANCE_CENTS + " = " + COLUMN_BALANCE_CENTS + " + NEW." + COLUMN_AMOUNT_CENTS + ", "
+            + COLUMN_TRANSACTION_COUNT + " = " + COLUMN_TRANSACTION_COUNT + " + 1 WHERE " + COLUMN_USER_ID + " = NEW." + COLUMN_USER_ID + ";";
+    private static final String BALANCE_REMOVE_OLD = "UPDATE " + TABLE_BALANCES + " SET "
+            + COLUMN_BALANCE_CENTS + " = " + COLUMN_BALANCE_CENTS + " - OLD." + COLUMN_AMOUNT_CENTS + ", "
+            + COLUMN_TRANSACTION_COUNT + " = " + COLUMN_TRANSACTION_COUNT + " - 1 WHERE " + COLUMN_USER_ID + " = OLD." + COLUMN_USER_ID + ";";
+
+    private static final String[] CREATE_BALANCE_TRIGGERS = {
+            "CREATE TRIGGER trg_balances_insert AFTER INSERT ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + BALANCE_ENSURE_NEW + BALANCE_ADD_NEW + " END;",
+            "CREATE TRIGGER trg_balances_delete AFTER DELETE ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + BALANCE_REMOVE_OLD + " END;",
+            "CREATE TRIGGER trg_balances_update AFTER UPDATE OF " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_USER_ID + " ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + BALANCE_REMOVE_OLD + BALANCE_ENSURE_NEW + BALANCE_ADD_NEW + " END;"
+    };
+
+    // Monatssummen je Benutzer, Jahr und Monat, ebenfalls über Trigger nachgeführt
+    public static final String TABLE_MONTHLY_ROLLUPS = "monthly_rollups";
+    public static final String COLUMN_YEAR = "year";
+    public static final String COLUMN_MONTH = "month";
+    public static final String COLUMN_INCOME_CENTS = "income_cents";
+    public static final String COLUMN_EXPENSE_CENTS = "expense_cents"; // negativ, wie die Ausgaben selbst
+    public static final String COLUMN_INCOME_COUNT = "income_count";
+    public static final String COLUMN_EXPENSE_COUNT = "expense_count";
+
+    private static final String CREATE_MONTHLY_ROLLUPS_TABLE = "CREATE TABLE " + TABLE_MONTHLY_ROLLUPS + " ("
+            + COLUMN_USER_ID + " INTEGER NOT NULL, "
+            + COLUMN_YEAR + " INTEGER NOT NULL, "
+            + COLUMN_MONTH + " INTEGER NOT NULL, "
+            + COLUMN_INCOME_CENTS + " INTEGER NOT NULL DEFAULT 0, "
+            + COLUMN_EXPENSE_CENTS + " INTEGER NOT NULL DEFAULT 0, "
+            + COLUMN_INCOME_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+            + COLUMN_EXPENSE_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+            + "PRIMARY KEY (" + COLUMN_USER_ID + ", " + COLUMN_YEAR + ", " + COLUMN_MONTH + ")) WITHOUT ROWID;";
+
+    private static final String[] CREATE_MONTHLY_ROLLUP_TRIGGERS = {
+            "CREATE TRIGGER trg_monthly_rollups_insert AFTER INSERT ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + rollupEnsure("NEW") + rollupApply("NEW", "+") + " END;",
+            "CREATE TRIGGER trg_monthly_rollups_delete AFTER DELETE ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + rollupApply("OLD", "-") + rollupDeleteEmpty("OLD") + " END;",
+            "CREATE TRIGGER trg_monthly_rollups_update AFTER UPDATE OF " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_USER_ID
+                    + " ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + rollupApply("OLD", "-") + rollupDeleteEmpty("OLD") + rollupEnsure("NEW") + rollupApply("NEW", "+") + " END;"
+    };
+
+    // Saldo je Benutzer und Tag, über Trigger nachgeführt; Grundlage des Präfixsummen-Index (DailyBalanceIndex)
+    public static final String TABLE_DAILY_TOTALS = "daily_totals";
+    public static final String COLUMN_NET_CENTS = "net_cents";
+
+    private static final String CREATE_DAILY_TOTALS_TABLE = "CREATE TABLE " + TABLE_DAILY_TOTALS + " ("
+            + COLUMN_USER_ID + " INTEGER NOT NULL, "
+            + COLUMN_EPOCH_DAY + " INTEGER NOT NULL, "
+            + COLUMN_NET_CENTS + " INTEGER NOT NULL DEFAULT 0, "
+            + COLUMN_TRANSACTION_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+            + "PRIMARY KEY (" + COLUMN_USER_ID + ", " + COLUMN_EPOCH_DAY + ")) WITHOUT ROWID;";
+
+    private static final String[] CREATE_DAILY_TOTAL_TRIGGERS = {
+            "CREATE TRIGGER trg_daily_totals_insert AFTER INSERT ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + dailyEnsure("NEW") + dailyApply("NEW", "+") + " END;",
+            "CREATE TRIGGER trg_daily_totals_delete AFTER DELETE ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + dailyApply("OLD", "-") + dailyDeleteEmpty("OLD") + " END;",
+            "CREATE TRIGGER trg_daily_totals_update AFTER UPDATE OF " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_USER_ID
+                    + " ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + dailyApply("OLD", "-") + dailyDeleteEmpty("OLD") + dailyEnsure("NEW") + dailyApply("NEW", "+") + " END;"
+    };
+
+    // Volltextindex über Kategoriename und Beschreibung. Der Kategoriename steht nicht mehr in der
+    // Transaktionstabelle, deshalb hält der Index die Texte selbst; die Trigger halten ihn aktuell.
+    public static final String TABLE_TRANSACTIONS_FTS = "transactions_fts";
+
+    private static final String CREATE_TRANSACTIONS_FTS_TABLE = "CREATE VIRTUAL TABLE " + TABLE_TRANSACTIONS_FTS + " USING fts4("
+            + COLUMN_CATEGORY + ", " + COLUMN_DESCRIPTION + ");";
+
+    private static final String FTS_DELETE_OLD = "DELETE FROM " + TABLE_TRANSACTIONS_FTS + " WHERE docid = OLD." + COLUMN_ID + ";";
+    private static final String FTS_INSERT_NEW = "INSERT INTO " + TABLE_TRANSACTIONS_FTS + " (docid, " + COLUMN_CATEGORY + ", " + COLUMN_DESCRIPTION + ") "
+            + "VALUES (NEW." + COLUMN_ID + ", (SELECT " + COLUMN_NAME + " FROM " + TABLE_CATEGORIES + " WHERE " + COLUMN_ID + " = NEW." + COLUMN_CATEGORY_ID + "), "
+            + "NEW." + COLUMN_DESCRIPTION + ");";
+    // Indexeinträge für alle Transaktionen (bzw. alle einer Kategorie) aus Tabelle und Kategorienamen aufbauen
+    private static final String FTS_FILL = "INSERT INTO " + TABLE_TRANSACTIONS_FTS + " (docid, " + COLUMN_CATEGORY + ", " + COLUMN_DESCRIPTION + ") "
+            + "SELECT t." + COLUMN_ID + ", c." + COLUMN_NAME + ", t." + COLUMN_DESCRIPTION + " FROM " + TABLE_TRANSACTIONS + " t "
+            + "LEFT JOIN " + TABLE_CATEGORIES + " c ON c." + COLUMN_ID + " = t." + COLUMN_CATEGORY_ID;
+
+    private static final String[] CREATE_FTS_TRIGGERS = {
+            "CREATE TRIGGER trg_fts_after_insert AFTER INSERT ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + FTS_INSERT_NEW + " END;",
+            "CREATE TRIGGER trg_fts_after_update AFTER UPDATE OF " + COLUMN_CATEGORY_ID + ", " + COLUMN_DESCRIPTION + " ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + FTS_DELETE_OLD + FTS_INSERT_NEW + " END;",
+            "CREATE TRIGGER trg_fts_after_delete AFTER DELETE ON " + TABLE_TRANSACTIONS + " BEGIN "
+                    + FTS_DELETE_OLD + " END;",
+            // Umbenannte Kategorie: Einträge aller Transaktionen dieser Kategorie neu schreiben
+            "CREATE TRIGGER trg_fts_category_rename AFTER UPDATE OF " + COLUMN_NAME + " ON " + TABLE_CATEGORIES + " BEGIN "
+                    + "DELETE FROM " + TABLE_TRANSACTIONS_FTS + " WHERE docid IN (SELECT " + COLUMN_ID + " FROM " + TABLE_TRANSACTIONS
+                    + " WHERE " + COLUMN_CATEGORY_ID + " = NEW." + COLUMN_ID + "); "
+                    + FTS_FILL + " WHERE t." + COLUMN_CATEGORY_ID + " = NEW." + COLUMN_ID + "; END;"
+    };
+
+    // ids aller Transaktionen, deren Kategorie oder Beschreibung zur Suche passt (Parameter: FTS-Abfrage)
+    static final String SQL_SEARCH_IDS = "SELECT docid FROM " + TABLE_TRANSACTIONS_FTS + " WHERE " + TABLE_TRANSACTIONS_FTS + " MATCH ?";
+
+    // Indizes für die Sortierungen der Transaktionsliste (id als stabiler Tiebreaker)
+    public static final String INDEX_USER_DATE = "idx_transactions_user_date";
+    public static final String INDEX_USER_AMOUNT = "idx_transactions_user_amount";
+
+    private static final String CREATE_INDEX_USER_DATE = "CREATE INDEX " + INDEX_USER_DATE + " ON " + TABLE_TRANSACTIONS
+            + "(" + COLUMN_USER_ID + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_ID + ");";
+    private static final String CREATE_INDEX_USER_AMOUNT = "CREATE INDEX " + INDEX_USER_AMOUNT + " ON " + TABLE_TRANSACTIONS
+            + "(" + COLUMN_USER_ID + ", " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_ID + ");";
+
+    // Daueraufträge (RecurringRule): je Regel eine Zeile; Transaktionen entstehen erst, wenn eine Ausführung fällig ist
+    public static final String TABLE_RECURRING_RULES = "recurring_rules";
+    public static final String COLUMN_START_DAY = "start_day"; // Epochentag der ersten Ausführung
+    public static final String COLUMN_END_DAY = "end_day"; // letzter möglicher Tag, NULL = unbefristet
+    public static final String COLUMN_UNIT = "unit"; // RecurringRule.DAY, WEEK, MONTH oder YEAR
+    public static final String COLUMN_EVERY = "every"; // Abstand in Einheiten, z. B. 3 Monate
+    public static final String COLUMN_NEXT_INDEX = "next_index"; // erste noch nicht gebuchte Ausführung
+
+    private static final String CREATE_RECURRING_RULES_TABLE = "CREATE TABLE " + TABLE_RECURRING_RULES + " ("
+            + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + COLUMN_USER_ID + " INTEGER NOT NULL, "
+            + COLUMN_TYPE + " INTEGER NOT NULL, "
+            + COLUMN_AMOUNT_CENTS + " INTEGER NOT NULL, "
+            + COLUMN_CATEGORY_ID + " INTEGER, "
+            + COLUMN_DESCRIPTION + " TEXT, "
+            + COLUMN_START_DAY + " INTEGER NOT NULL, "
+            + COLUMN_END_DAY + " INTEGER, "
+            + COLUMN_UNIT + " INTEGER NOT NULL, "
+            + COLUMN_EVERY + " INTEGER NOT NULL DEFAULT 1, "
+            + COLUMN_NEXT_INDEX + " INTEGER NOT NULL DEFAULT 0, "
+            + "FOREIGN KEY(" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + "), "
+            + "FOREIGN KEY(" + COLUMN_CATEGORY_ID + ") REFERENCES " + TABLE_CATEGORIES + "(" + COLUMN_ID + "));";
+    private static final String CREATE_INDEX_RECURRING_RULES_USER = "CREATE INDEX idx_recurring_rules_user ON " + TABLE_RECURRING_RULES
+            + "(" + COLUMN_USER_ID + ");";
+
+    // Häufig ausgeführtes SQL, einmal kompiliert und über den StatementCache wiederverwendet
+    private static final String SQL_INSERT_TRANSACTION = "INSERT INTO " + TABLE_TRANSACTIONS + " ("
+            + COLUMN_USER_ID + ", " + COLUMN_TYPE + ", " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_CATEGORY_ID + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_DESCRIPTION
+            + ") VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_UPDATE_TRANSACTION = "UPDATE " + TABLE_TRANSACTIONS + " SET "
+            + COLUMN_AMOUNT_CENTS + " = ?, " + COLUMN_CATEGORY_ID + " = ?, " + COLUMN_EPOCH_DAY + " = ?, " + COLUMN_DESCRIPTION + " = ? WHERE " + COLUMN_ID + " = ?";
+    private static final String SQL_DELETE_TRANSACTION = "DELETE FROM " + TABLE_TRANSACTIONS + " WHERE " + COLUMN_ID + " = ?";
+    // COALESCE((SELECT ...), x) liefert immer genau eine Zeile, auch für Benutzer ohne Eintrag
+    private static final String SQL_BALANCE = "SELECT COALESCE((SELECT " + COLUMN_BALANCE_CENTS + " FROM " + TABLE_BALANCES
+            + " WHERE " + COLUMN_USER_ID + " = ?), 0)";
+    private static final String SQL_TRANSACTION_COUNT = "SELECT COALESCE((SELECT " + COLUMN_TRANSACTION_COUNT + " FROM " + TABLE_BALANCES
+            + " WHERE " + COLUMN_USER_ID + " = ?), 0)";
+    private static final String SQL_USER_ID = "SELECT COALESCE((SELECT " + COLUMN_ID + " FROM " + TABLE_USERS
+            + " WHERE " + COLUMN_USERNAME + " = ? AND " + COLUMN_PASSWORD + " = ?), -1)";
+    private static final String SQL_SEARCH_COUNT = "SELECT COUNT(*) FROM " + TABLE_TRANSACTIONS + " WHERE " + COLUMN_USER_ID + " = ? AND "
+            + COLUMN_ID + " IN (" + SQL_SEARCH_IDS + ")";
+    private static final String SQL_TRANSACTION_VALUES = "SELECT " + COLUMN_USER_ID + ", " + COLUMN_TYPE + ", " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_EPOCH_DAY
+            + " FROM " + TABLE_TRANSACTIONS + " WHERE " + COLUMN_ID + " = ?";
+    private static final String SQL_INSERT_CATEGORY = "INSERT OR IGNORE INTO " + TABLE_CATEGORIES + " (" + COLUMN_NAME + ") VALUES (?)";
+    private static final String SQL_CATEGORY_ID = "SELECT " + COLUMN_ID + " FROM " + TABLE_CATEGORIES + " WHERE " + COLUMN_NAME + " = ?";
+    private static final String SQL_INSERT_RECURRING_RULE = "INSERT INTO " + TABLE_RECURRING_RULES + " ("
+            + COLUMN_USER_ID + ", " + COLUMN_TYPE + ", " + COLUMN_AMOUNT_CENTS + ", " + COLUMN_CATEGORY_ID + ", " + COLUMN_DESCRIPTION + ", "
+            + COLUMN_START_DAY + ", " + COLUMN_END_DAY + ", " + COLUMN_UNIT + ", " + COLUMN_EVERY + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_RECURRING_RULE_NEXT_INDEX = "UPDATE " + TABLE_RECURRING_RULES + " SET " + COLUMN_NEXT_INDEX + " = ? WHERE "
+            + COLUMN_ID + " = ?";
+    private static final String SQL_RECURRING_RULE_END = "UPDATE " + TABLE_RECURRING_RULES + " SET " + COLUMN_END_DAY + " = ? WHERE "
+            + COLUMN_ID + " = ? AND (" + COLUMN_END_DAY + " IS NULL OR " + COLUMN_END_DAY + " > ?)";
+    private static final String SQL_RECURRING_RULES = "SELECT " + COLUMN_ID + ", " + COLUMN_TYPE + ", " + COLUMN_AMOUNT_CENTS + ", "
+            + COLUMN_CATEGORY_ID + ", " + COLUMN_DESCRIPTION + ", " + COLUMN_START_DAY + ", " + COLUMN_END_DAY + ", " + COLUMN_UNIT + ", "
+            + COLUMN_EVERY + ", " + COLUMN_NEXT_INDEX + " FROM " + TABLE_RECURRING_RULES + " WHERE " + COLUMN_USER_ID + " = ? ORDER BY " + COLUMN_ID;
+    private static final String SQL_USERNAME_TAKEN = "SELECT EXISTS (SELECT 1 FROM " + TABLE_USERS + " WHERE " + COLUMN_USERNAME + " = ?)";
+
+    private final StatementCache statementCache = new StatementCache(this);
+    private final CategoryDictionary categories = new CategoryDictionary(this);
+
+    private static DatabaseHelper instance; // eine Verbindung für den gesamten Prozess
+
+    // Liefert die prozessweite Instanz; die Verbindung bleibt bis zum Prozessende offen
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext()); // kein Activity-Kontext, sonst Speicherleck
+        }
+        return instance;
+    }
 
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    // Konstruktor mit eigenem Datenbanknamen (null = In-Memory-Datenbank, z. B. für Tests)
+    DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
         this.context = context;
+        this.strictThreading = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        setWriteAheadLoggingEnabled(true); // WAL: Lesen blockiert das Schreiben nicht und umgekehrt
+    }
+
+    @Override
+    public SQLiteDatabase getReadableDatabase() {
+        checkNotMainThread();
+        return super.getReadableDatabase();
+    }
+
+    @Override
+    public SQLiteDatabase getWritableDatabase() {
+        checkNotMainThread();
+        return super.getWritableDatabase();
+    }
+
+    // Debug-Builds: jeder Datenbankzugriff auf dem Main-Thread ist ein Fehler (ANR-Gefahr bei großer Historie)
+    private void checkNotMainThread() {
+        if (strictThreading && Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("Datenbankzugriff auf dem Main-Thread; TransactionRepository-*Async-Methoden verwenden");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        statementCache.clear(); // kompilierte Statements gehören zur Verbindung, die hier geschlossen wird
+        super.close();
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        // Wird bei jedem Öffnen vor onCreate/onUpgrade aufgerufen
+        db.setForeignKeyConstraintsEnabled(true);
+        db.execSQL("PRAGMA synchronous = NORMAL"); // mit WAL absturzsicher, spart das fsync bei jedem Commit
+        db.execSQL("PRAGMA temp_store = MEMORY"); // temporäre Tabellen und Sortierungen nicht auf den Flash schreiben
+        db.execSQL("PRAGMA cache_size = -4096"); // 4 MiB Seiten-Cache (negativ = KiB)
     }
 
 
@@ -48,38 +311,330 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + COLUMN_USERNAME + " TEXT, "
                 + COLUMN_PASSWORD + " TEXT);";
 
-        // Erstellen der Transactions-Tabelle
-        String CREATE_TRANSACTIONS_TABLE = "CREATE TABLE " + TABLE_TRANSACTIONS + " ("
+        db.execSQL(CREATE_USERS_TABLE);
+        db.execSQL(CREATE_CATEGORIES_TABLE);
+        db.execSQL(createTransactionsTable(TABLE_TRANSACTIONS));
+        // Indizes zur Optimierung hinzufügen (decken auch Abfragen nur nach user_id ab)
+        db.execSQL(CREATE_INDEX_USER_DATE);
+        db.execSQL(CREATE_INDEX_USER_AMOUNT);
+        db.execSQL(CREATE_IMPORT_PROGRESS_TABLE);
+        createBalances(db);
+        createMonthlyRollups(db);
+        createDailyTotals(db);
+        createTransactionsFts(db);
+        createRecurringRules(db);
+
+        Log.d(TAG, "Tabellen erstellt: Users und Transactions");
+    }
+
+    // Erstellen der Transactions-Tabelle (Betrag in Cent, Datum als Epochentag, Kategorie als id)
+    private static String createTransactionsTable(String tableName) {
+        return "CREATE TABLE " + tableName + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_USER_ID + " INTEGER, "
+                + COLUMN_TYPE + " INTEGER, "
+                + COLUMN_AMOUNT_CENTS + " INTEGER NOT NULL, "
+                + COLUMN_CATEGORY_ID + " INTEGER, "
+                + COLUMN_EPOCH_DAY + " INTEGER NOT NULL, "
+                + COLUMN_DESCRIPTION + " TEXT, "
+                + "FOREIGN KEY(" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + "), "
+                + "FOREIGN KEY(" + COLUMN_CATEGORY_ID + ") REFERENCES " + TABLE_CATEGORIES + "(" + COLUMN_ID + "));";
+    }
+
+    // Transactions-Tabelle der Versionen 6 bis 9 (Kategorie als Text), nur für die Migrationen
+    private static String createTextCategoryTransactionsTable(String tableName) {
+        return "CREATE TABLE " + tableName + " ("
                 + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
                 + COLUMN_USER_ID + " INTEGER, "
                 + COLUMN_TYPE + " INTEGER, "
-                + COLUMN_AMOUNT + " REAL, "
+                + COLUMN_AMOUNT_CENTS + " INTEGER NOT NULL, "
                 + COLUMN_CATEGORY + " TEXT, "
-                + COLUMN_DATE + " TEXT, "
+                + COLUMN_EPOCH_DAY + " INTEGER NOT NULL, "
                 + COLUMN_DESCRIPTION + " TEXT, "
                 + "FOREIGN KEY(" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + "));";
-
-        // Index zur Optimierung hinzufügen
-        String CREATE_INDEX_USER_ID = "CREATE INDEX idx_user_id ON " + TABLE_TRANSACTIONS + "(" + COLUMN_USER_ID + ");";
-
-        db.execSQL(CREATE_USERS_TABLE);
-        db.execSQL(CREATE_TRANSACTIONS_TABLE);
-        db.execSQL(CREATE_INDEX_USER_ID);
-
-        Log.d(TAG, "Tabellen erstellt: Users und Transactions");
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRANSACTIONS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-        onCreate(db);
+        if (oldVersion < 3) {
+            // Alte Schemata werden komplett neu aufgebaut
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_IMPORT_PROGRESS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRANSACTIONS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
+            onCreate(db);
+            Log.d(TAG, "Tabellen aktualisiert (Upgrade von Version " + oldVersion + " auf " + newVersion + ")");
+            return;
+        }
+
+        // Ab Version 3 werden vorhandene Daten schrittweise migriert
+        if (oldVersion < 4) {
+            db.execSQL(CREATE_IMPORT_PROGRESS_TABLE);
+        }
+        if (oldVersion < 5) {
+            db.execSQL("CREATE INDEX " + INDEX_USER_DATE + " ON " + TABLE_TRANSACTIONS + "(user_id, date, id);");
+            db.execSQL("CREATE INDEX " + INDEX_USER_AMOUNT + " ON " + TABLE_TRANSACTIONS + "(user_id, amount, id);");
+            db.execSQL("DROP INDEX IF EXISTS idx_user_id"); // Präfix der neuen Indizes, daher überflüssig
+        }
+        if (oldVersion < 6) {
+            migrateToCentsAndEpochDays(db);
+        }
+        if (oldVersion < 7) {
+            createBalances(db);
+            rebuildBalances(db); // Kontostände aus den vorhandenen Transaktionen befüllen
+        }
+        if (oldVersion < 8) {
+            createMonthlyRollups(db);
+            rebuildMonthlyRollups(db); // Monatssummen aus den vorhandenen Transaktionen befüllen
+        }
+        if (oldVersion < 10) {
+            // Der Volltextindex von Version 9 wird dabei durch den heutigen ersetzt
+            migrateToCategoryIds(db);
+        }
+        if (oldVersion < 11) {
+            createDailyTotals(db);
+            rebuildDailyTotals(db); // Tagessalden aus den vorhandenen Transaktionen befüllen
+        }
+        if (oldVersion < 12) {
+            createRecurringRules(db);
+        }
+        if (oldVersion < 13 && oldVersion >= 4) { // vor Version 4 oben bereits mit dem neuen Schlüssel angelegt
+            migrateImportProgressKey(db);
+        }
         Log.d(TAG, "Tabellen aktualisiert (Upgrade von Version " + oldVersion + " auf " + newVersion + ")");
     }
 
-    public boolean deleteTransaction(int transactionId) {
+    // Version 13: Primärschlüssel source -> (user_id, source)
+    private static void migrateImportProgressKey(SQLiteDatabase db) {
+        String tmp = TABLE_IMPORT_PROGRESS + "_new";
+        db.execSQL(createImportProgressTable(tmp));
+        db.execSQL("INSERT INTO " + tmp + " (" + COLUMN_USER_ID + ", " + COLUMN_SOURCE + ", " + COLUMN_ROWS_DONE + ") "
+                + "SELECT " + COLUMN_USER_ID + ", " + COLUMN_SOURCE + ", " + COLUMN_ROWS_DONE + " FROM " + TABLE_IMPORT_PROGRESS
+                + " WHERE " + COLUMN_USER_ID + " IS NOT NULL");
+        db.execSQL("DROP TABLE " + TABLE_IMPORT_PROGRESS);
+        db.execSQL("ALTER TABLE " + tmp + " RENAME TO " + TABLE_IMPORT_PROGRESS);
+    }
+
+    // Version 6: amount (REAL) -> amount_cents (INTEGER), date (TEXT) -> epoch_day (INTEGER)
+    private void migrateToCentsAndEpochDays(SQLiteDatabase db) {
+        String tmp = TABLE_TRANSACTIONS + "_new";
+        db.execSQL(createTextCategoryTransactionsTable(tmp));
+        // Ungültige Datumswerte werden auf 1970-01-01 gesetzt statt verworfen
+        db.execSQL("INSERT INTO " + tmp + " (" + COLUMN_ID + ", " + COLUMN_USER_ID + ", " + COLUMN_TYPE + ", "
+                + COLUMN_AMOUNT_CENTS + ", " + COLUMN_CATEGORY + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_DESCRIPTION + ") "
+                + "SELECT id, user_id, type, CAST(ROUND(amount * 100) AS INTEGER), category, "
+                + "COALESCE(CAST(julianday(date) - 2440587.5 AS INTEGER), 0), description FROM " + TABLE_TRANSACTIONS);
+        db.execSQL("DROP TABLE " + TABLE_TRANSACTIONS);
+        db.execSQL("ALTER TABLE " + tmp + " RENAME TO " + TABLE_TRANSACTIONS);
+        db.execSQL(CREATE_INDEX_USER_DATE);
+        db.execSQL(CREATE_INDEX_USER_AMOUNT);
+    }
+
+    // Version 10: category (TEXT) -> category_id (Verweis auf categories)
+    private static void migrateToCategoryIds(SQLiteDatabase db) {
+        db.execSQL(CREATE_CATEGORIES_TABLE);
+        // Jeden Namen einmal übernehmen; leere Kategorien werden zu "keine Kategorie"
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_CATEGORIES + " (" + COLUMN_NAME + ") SELECT DISTINCT TRIM(" + COLUMN_CATEGORY + ") FROM "
+                + TABLE_TRANSACTIONS + " WHERE TRIM(" + COLUMN_CATEGORY + ") != ''");
+
+        String tmp = TABLE_TRANSACTIONS + "_new";
+        db.execSQL(createTransactionsTable(tmp));
+        db.execSQL("INSERT INTO " + tmp + " (" + COLUMN_ID + ", " + COLUMN_USER_ID + ", " + COLUMN_TYPE + ", "
+                + COLUMN_AMOUNT_CENTS + ", " + COLUMN_CATEGORY_ID + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_DESCRIPTION + ") "
+                + "SELECT t.id, t.user_id, t.type, t.amount_cents, c.id, t.epoch_day, t.description FROM " + TABLE_TRANSACTIONS + " t "
+                + "LEFT JOIN " + TABLE_CATEGORIES + " c ON c." + COLUMN_NAME + " = TRIM(t." + COLUMN_CATEGORY + ")");
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRANSACTIONS_FTS);
+        db.execSQL("DROP TABLE " + TABLE_TRANSACTIONS); // entfernt auch alle Trigger der Tabelle
+        db.execSQL("ALTER TABLE " + tmp + " RENAME TO " + TABLE_TRANSACTIONS);
+        db.execSQL(CREATE_INDEX_USER_DATE);
+        db.execSQL(CREATE_INDEX_USER_AMOUNT);
+
+        // Kontostände und Monatssummen bleiben gültig, nur ihre Trigger müssen neu angelegt werden
+        execAll(db, CREATE_BALANCE_TRIGGERS);
+        execAll(db, CREATE_MONTHLY_ROLLUP_TRIGGERS);
+        createTransactionsFts(db);
+        db.execSQL(FTS_FILL);
+    }
+
+    private static void execAll(SQLiteDatabase db, String[] statements) {
+        for (String sql : statements) {
+            db.execSQL(sql);
+        }
+    }
+
+    // Kontostandstabelle und zugehörige Trigger anlegen
+    private static void createBalances(SQLiteDatabase db) {
+        db.execSQL(CREATE_BALANCES_TABLE);
+        for (String trigger : CREATE_BALANCE_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    // Kontostände komplett aus der Transaktionstabelle neu berechnen
+    private static void rebuildBalances(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_BALANCES);
+        db.execSQL("INSERT INTO " + TABLE_BALANCES + " (" + COLUMN_USER_ID + ", " + COLUMN_BALANCE_CENTS + ", " + COLUMN_TRANSACTION_COUNT + ") "
+                + "SELECT " + COLUMN_USER_ID + ", SUM(" + COLUMN_AMOUNT_CENTS + "), COUNT(*) FROM " + TABLE_TRANSACTIONS
+                + " GROUP BY " + COLUMN_USER_ID);
+    }
+
+    // Jahr bzw. Monat eines Epochentags als SQL-Ausdruck (nur beim Schreiben ausgewertet, nie beim Lesen)
+    private static String yearOf(String epochDay) {
+        return "CAST(strftime('%Y', " + epochDay + " * 86400, 'unixepoch') AS INTEGER)";
+    }
+
+    private static String monthOf(String epochDay) {
+        return "CAST(strftime('%m', " + epochDay + " * 86400, 'unixepoch') AS INTEGER)";
+    }
+
+    private static String rollupKey(String row) {
+        return COLUMN_USER_ID + " = " + row + "." + COLUMN_USER_ID
+                + " AND " + COLUMN_YEAR + " = " + yearOf(row + "." + COLUMN_EPOCH_DAY)
+                + " AND " + COLUMN_MONTH + " = " + monthOf(row + "." + COLUMN_EPOCH_DAY);
+    }
+
+    private static String rollupEnsure(String row) {
+        return "INSERT OR IGNORE INTO " + TABLE_MONTHLY_ROLLUPS + " (" + COLUMN_USER_ID + ", " + COLUMN_YEAR + ", " + COLUMN_MONTH + ") VALUES ("
+                + row + "." + COLUMN_USER_ID + ", " + yearOf(row + "." + COLUMN_EPOCH_DAY) + ", " + monthOf(row + "." + COLUMN_EPOCH_DAY) + ");";
+    }
+
+    // Addiert (+) bzw. subtrahiert (-) eine Transaktion; positive Beträge zählen als Einnahme, negative als Ausgabe
+    private static String rollupApply(String row, String op) {
+        String amount = row + "." + COLUMN_AMOUNT_CENTS;
+        return "UPDATE " + TABLE_MONTHLY_ROLLUPS + " SET "
+                + COLUMN_INCOME_CENTS + " = " + COLUMN_INCOME_CENTS + " " + op + " MAX(" + amount + ", 0), "
+                + COLUMN_EXPENSE_CENTS + " = " + COLUMN_EXPENSE_CENTS + " " + op + " MIN(" + amount + ", 0), "
+                + COLUMN_INCOME_COUNT + " = " + COLUMN_INCOME_COUNT + " " + op + " (" + amount + " > 0), "
+                + COLUMN_EXPENSE_COUNT + " = " + COLUMN_EXPENSE_COUNT + " " + op + " (" + amount + " < 0) "
+                + "WHERE " + rollupKey(row) + ";";
+    }
+
+    private static String rollupDeleteEmpty(String row) {
+        return "DELETE FROM " + TABLE_MONTHLY_ROLLUPS + " WHERE " + rollupKey(row)
+                + " AND " + COLUMN_INCOME_COUNT + " = 0 AND " + COLUMN_EXPENSE_COUNT + " = 0;";
+    }
+
+    private static String dailyKey(String row) {
+        return COLUMN_USER_ID + " = " + row + "." + COLUMN_USER_ID + " AND " + COLUMN_EPOCH_DAY + " = " + row + "." + COLUMN_EPOCH_DAY;
+    }
+
+    private static String dailyEnsure(String row) {
+        return "INSERT OR IGNORE INTO " + TABLE_DAILY_TOTALS + " (" + COLUMN_USER_ID + ", " + COLUMN_EPOCH_DAY + ") VALUES ("
+                + row + "." + COLUMN_USER_ID + ", " + row + "." + COLUMN_EPOCH_DAY + ");";
+    }
+
+    // Addiert (+) bzw. subtrahiert (-) eine Transaktion im Tagessaldo
+    private static String dailyApply(String row, String op) {
+        return "UPDATE " + TABLE_DAILY_TOTALS + " SET "
+                + COLUMN_NET_CENTS + " = " + COLUMN_NET_CENTS + " " + op + " " + row + "." + COLUMN_AMOUNT_CENTS + ", "
+                + COLUMN_TRANSACTION_COUNT + " = " + COLUMN_TRANSACTION_COUNT + " " + op + " 1 "
+                + "WHERE " + dailyKey(row) + ";";
+    }
+
+    private static String dailyDeleteEmpty(String row) {
+        return "DELETE FROM " + TABLE_DAILY_TOTALS + " WHERE " + dailyKey(row) + " AND " + COLUMN_TRANSACTION_COUNT + " = 0;";
+    }
+
+    // Tagessalden-Tabelle und zugehörige Trigger anlegen
+    private static void createDailyTotals(SQLiteDatabase db) {
+        db.execSQL(CREATE_DAILY_TOTALS_TABLE);
+        execAll(db, CREATE_DAILY_TOTAL_TRIGGERS);
+    }
+
+    // Tagessalden komplett aus der Transaktionstabelle neu berechnen (Backfill)
+    private static void rebuildDailyTotals(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_DAILY_TOTALS);
+        db.execSQL("INSERT INTO " + TABLE_DAILY_TOTALS + " (" + COLUMN_USER_ID + ", " + COLUMN_EPOCH_DAY + ", " + COLUMN_NET_CENTS + ", " + COLUMN_TRANSACTION_COUNT + ") "
+                + "SELECT " + COLUMN_USER_ID + ", " + COLUMN_EPOCH_DAY + ", SUM(" + COLUMN_AMOUNT_CENTS + "), COUNT(*) FROM " + TABLE_TRANSACTIONS
+                + " GROUP BY " + COLUMN_USER_ID + ", " + COLUMN_EPOCH_DAY);
+    }
+
+    // Volltextindex und zugehörige Trigger anlegen
+    private static void createTransactionsFts(SQLiteDatabase db) {
+        db.execSQL(CREATE_TRANSACTIONS_FTS_TABLE);
+        execAll(db, CREATE_FTS_TRIGGERS);
+    }
+
+    // Tabelle der Daueraufträge anlegen; gebuchte Ausführungen sind gewöhnliche Transaktionen mit deren Triggern
+    private static void createRecurringRules(SQLiteDatabase db) {
+        db.execSQL(CREATE_RECURRING_RULES_TABLE);
+        db.execSQL(CREATE_INDEX_RECURRING_RULES_USER);
+    }
+
+    // Monatssummen-Tabelle und zugehörige Trigger anlegen
+    private static void createMonthlyRollups(SQLiteDatabase db) {
+        db.execSQL(CREATE_MONTHLY_ROLLUPS_TABLE);
+        for (String trigger : CREATE_MONTHLY_ROLLUP_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    // Monatssummen komplett aus der Transaktionstabelle neu berechnen (Backfill)
+    private static void rebuildMonthlyRollups(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_MONTHLY_ROLLUPS);
+        db.execSQL("INSERT INTO " + TABLE_MONTHLY_ROLLUPS + " (" + COLUMN_USER_ID + ", " + COLUMN_YEAR + ", " + COLUMN_MONTH + ", "
+                + COLUMN_INCOME_CENTS + ", " + COLUMN_EXPENSE_CENTS + ", " + COLUMN_INCOME_COUNT + ", " + COLUMN_EXPENSE_COUNT + ") "
+                + "SELECT " + COLUMN_USER_ID + ", " + yearOf(COLUMN_EPOCH_DAY) + " AS y, " + monthOf(COLUMN_EPOCH_DAY) + " AS m, "
+                + "SUM(MAX(" + COLUMN_AMOUNT_CENTS + ", 0)), SUM(MIN(" + COLUMN_AMOUNT_CENTS + ", 0)), "
+                + "SUM(" + COLUMN_AMOUNT_CENTS + " > 0), SUM(" + COLUMN_AMOUNT_CENTS + " < 0) "
+                + "FROM " + TABLE_TRANSACTIONS + " GROUP BY " + COLUMN_USER_ID + ", y, m");
+    }
+
+    // Backfill der Monatssummen, z. B. nach einem Import außerhalb der Trigger
+    public void rebuildMonthlyRollups() {
         SQLiteDatabase db = this.getWritableDatabase();
-        int result = db.delete(TABLE_TRANSACTIONS, "id = ?", new String[]{String.valueOf(transactionId)});
+        db.beginTransaction();
+        try {
+            rebuildMonthlyRollups(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Konsistenzprüfung: vergleicht die gespeicherten Kontostände mit den Live-Summen über alle
+     * Transaktionen und baut die Tabelle anschließend neu auf.
+     * @return true, wenn vor dem Neuaufbau alle Kontostände und Zähler übereinstimmten.
+     */
+    public boolean verifyAndRebuildBalances() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            // Benutzer, deren gespeicherter Stand von der Live-Summe abweicht (in beide Richtungen)
+            String mismatchQuery = "SELECT COUNT(*) FROM ("
+                    + "SELECT " + COLUMN_USER_ID + ", SUM(" + COLUMN_AMOUNT_CENTS + ") AS cents, COUNT(*) AS cnt FROM " + TABLE_TRANSACTIONS
+                    + " GROUP BY " + COLUMN_USER_ID + ") live "
+                    + "LEFT JOIN " + TABLE_BALANCES + " b ON b." + COLUMN_USER_ID + " = live." + COLUMN_USER_ID
+                    + " WHERE b." + COLUMN_USER_ID + " IS NULL OR b." + COLUMN_BALANCE_CENTS + " != live.cents OR b." + COLUMN_TRANSACTION_COUNT + " != live.cnt";
+            String orphanQuery = "SELECT COUNT(*) FROM " + TABLE_BALANCES + " b WHERE (b." + COLUMN_BALANCE_CENTS + " != 0 OR b." + COLUMN_TRANSACTION_COUNT + " != 0)"
+                    + " AND NOT EXISTS (SELECT 1 FROM " + TABLE_TRANSACTIONS + " t WHERE t." + COLUMN_USER_ID + " = b." + COLUMN_USER_ID + ")";
+            long mismatches = DatabaseUtils.longForQuery(db, mismatchQuery, null) + DatabaseUtils.longForQuery(db, orphanQuery, null);
+
+            rebuildBalances(db);
+            db.setTransactionSuccessful();
+
+            if (mismatches > 0) {
+                Log.w(TAG, "Kontostände inkonsistent bei " + mismatches + " Benutzer(n), Tabelle neu aufgebaut");
+            }
+            return mismatches == 0;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Benutzer, Typ, Betrag in Cent und Epochentag einer Transaktion, z. B. als alter Stand vor Update oder Delete.
+     * @return {user_id, type, amount_cents, epoch_day} oder null, wenn es die Transaktion nicht gibt
+     */
+    public long[] getTransactionValues(int transactionId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        try (Cursor cursor = db.rawQuery(SQL_TRANSACTION_VALUES, new String[]{String.valueOf(transactionId)})) {
+            return cursor.moveToFirst() ? new long[]{cursor.getLong(0), cursor.getLong(1), cursor.getLong(2), cursor.getLong(3)} : null;
+        }
+    }
+
+    public boolean deleteTransaction(int transactionId) {
+        int result = statementCache.executeUpdateDelete(SQL_DELETE_TRANSACTION, transactionId);
         return result > 0; // Gibt true zurück, wenn das Löschen erfolgreich war
     }
 
@@ -92,56 +647,36 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return COLUMN_USER_ID;
     }
 
-    public static String getColumnAmount() {
-        return COLUMN_AMOUNT;
+    public static String getColumnAmountCents() {
+        return COLUMN_AMOUNT_CENTS;
     }
 
-    public static String getColumnDate() {
-        return COLUMN_DATE;
+    public static String getColumnEpochDay() {
+        return COLUMN_EPOCH_DAY;
     }
 
     // Benutzeroperationen
     public boolean checkUser(String username, String password) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        String query = "SELECT * FROM " + TABLE_USERS + " WHERE " + COLUMN_USERNAME + " = ? AND " + COLUMN_PASSWORD + " = ?";
-        Cursor cursor = db.rawQuery(query, new String[]{username, password});
-
-        boolean userExists = cursor.getCount() > 0;
-        cursor.close();
-        return userExists;
+        return getUserId(username, password) != -1;
     }
 
     public boolean isUsernameTaken(String username) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_USERS + " WHERE " + COLUMN_USERNAME + " = ?", new String[]{username});
-
-        boolean exists = cursor.getCount() > 0;
-        cursor.close();
-        return exists;
+        return statementCache.simpleQueryForLong(SQL_USERNAME_TAKEN, username) != 0;
     }
 
-    public void addUser(String username, String password) {
+    public long addUser(String username, String password) {
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_USERNAME, username);
         values.put(COLUMN_PASSWORD, password);
 
-        db.insert(TABLE_USERS, null, values);
-        db.close();
+        long id = db.insert(TABLE_USERS, null, values);
         Log.d(TAG, "Neuer Benutzer hinzugefügt: " + username);
+        return id; // -1 bei einem Fehler
     }
 
     public int getUserId(String username, String password) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        String query = "SELECT " + COLUMN_ID + " FROM " + TABLE_USERS + " WHERE " + COLUMN_USERNAME + " = ? AND " + COLUMN_PASSWORD + " = ?";
-        Cursor cursor = db.rawQuery(query, new String[]{username, password});
-
-        int userId = -1;
-        if (cursor.moveToFirst()) {
-            userId = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ID));
-        }
-        cursor.close();
-        return userId;
+        return (int) statementCache.simpleQueryForLong(SQL_USER_ID, username, password); // -1, wenn die Anmeldedaten nicht stimmen
     }
 
     public int getLoggedInUserId() {
@@ -157,81 +692,90 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         Log.d(TAG, "Benutzer wurde ausgeloggt.");
     }
 
-    // Transaktionen
-    public void addTransaction(int userId, int type, double amount, String category, String date, String description) {
-        if (type == EINNAHME && amount < 0) {
-            amount = Math.abs(amount); // Betrag für Einnahmen immer positiv
-        } else if (type == AUSGABE && amount > 0) {
-            amount = -amount; // Betrag für Ausgaben immer negativ
-        }
+    // Transaktionen; liefert die id der neuen Transaktion oder -1
+    public long addTransaction(int userId, int type, long amountCents, int categoryId, long epochDay, String description) {
+        amountCents = normalizeAmount(type, amountCents);
 
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_USER_ID, userId);
-        values.put(COLUMN_TYPE, type);
-        values.put(COLUMN_AMOUNT, amount);
-        values.put(COLUMN_CATEGORY, category);
-        values.put(COLUMN_DATE, date);
-        values.put(COLUMN_DESCRIPTION, description);
+        long id = statementCache.executeInsert(SQL_INSERT_TRANSACTION, userId, type, amountCents, categoryOrNull(categoryId), epochDay, description);
+        Log.d(TAG, "Transaktion hinzugefügt: UserID=" + userId + ", Typ=" + type + ", Cent=" + amountCents + ", Tag=" + epochDay);
+        return id;
+    }
 
-        db.insert(TABLE_TRANSACTIONS, null, values);
-        db.close();
-        Log.d(TAG, "Transaktion hinzugefügt: UserID=" + userId + ", Typ=" + type + ", Betrag=" + amount + ", Datum=" + date);
+    // Vorzeichenregel: Einnahmen immer positiv, Ausgaben immer negativ
+    public static long normalizeAmount(int type, long amountCents) {
+        if (type == EINNAHME && amountCents < 0) {
+            return Math.abs(amountCents); // Betrag für Einnahmen immer positiv
+        } else if (type == AUSGABE && amountCents > 0) {
+            return -amountCents; // Betrag für Ausgaben immer negativ
+        }
+        return amountCents;
     }
 
-    // Berechnung des Kontostands
-    public double getBalance(int userId) {
-        SQLiteDatabase db = this.getReadableDatabase();
+    // Kontostand in Cent: ein Zugriff über den Primärschlüssel der Kontostandstabelle
+    public long getBalance(int userId) {
+        return statementCache.simpleQueryForLong(SQL_BALANCE, userId); // Benutzer ohne Transaktionen haben noch keine Zeile: 0
+    }
 
-        // Summe der Einnahmen berechnen
-        String incomeQuery = "SELECT SUM(" + COLUMN_AMOUNT + ") FROM " + TABLE_TRANSACTIONS +
-                " WHERE " + COLUMN_USER_ID + " = ? AND " + COLUMN_TYPE + " = ?";
-        Cursor incomeCursor = db.rawQuery(incomeQuery, new String[]{String.valueOf(userId), String.valueOf(EINNAHME)});
-        double totalIncome = 0;
-        if (incomeCursor.moveToFirst()) {
-            totalIncome = incomeCursor.getDouble(0);
-        }
-        incomeCursor.close();
+    // Anzahl der Transaktionen eines Benutzers, deren Kategorie oder Beschreibung zur FTS-Abfrage passt
+    public int countSearchMatches(int userId, String matchQuery) {
+        return (int) statementCache.simpleQueryForLong(SQL_SEARCH_COUNT, userId, matchQuery);
+    }
 
-        // Summe der Ausgaben berechnen
-        String expenseQuery = "SELECT SUM(" + COLUMN_AMOUNT + ") FROM " + TABLE_TRANSACTIONS +
-                " WHERE " + COLUMN_USER_ID + " = ? AND " + COLUMN_TYPE + " = ?";
-        Cursor expenseCursor = db.rawQuery(expenseQuery, new String[]{String.valueOf(userId), String.valueOf(AUSGABE)});
-        double totalExpense = 0;
-        if (expenseCursor.moveToFirst()) {
-            totalExpense = expenseCursor.getDouble(0);
-        }
-        expenseCursor.close();
+    // Anzahl der Transaktionen eines Benutzers aus der Kontostandstabelle
+    public int getTransactionCount(int userId) {
+        return (int) statementCache.simpleQueryForLong(SQL_TRANSACTION_COUNT, userId);
+    }
+
+    public boolean updateTransaction(int transactionId, long amountCents, int categoryId, long epochDay, String description) {
+        // Aktualisiere die Transaktion in der Datenbank
+        int rowsAffected = statementCache.executeUpdateDelete(SQL_UPDATE_TRANSACTION, amountCents, categoryOrNull(categoryId), epochDay, description, transactionId);
+        return rowsAffected > 0; // Gibt true zurück, wenn die Transaktion erfolgreich aktualisiert wurde
+    }
 
-        // Kontostand berechnen
-        return totalIncome - totalExpense;
+    // Daueraufträge; liefert die id des neuen Auftrags oder -1
+    public long addRecurringRule(int userId, int type, long amountCents, int categoryId, String description,
+                                 long startDay, long endDay, int unit, int every) {
+        return statementCache.executeInsert(SQL_INSERT_RECURRING_RULE, userId, type, normalizeAmount(type, amountCents),
+                categoryOrNull(categoryId), description, startDay, endDay == RecurringRule.OPEN_END ? null : endDay, unit, every);
     }
 
-    // Abrufen aller Transaktionen für einen Benutzer
-    public Cursor getTransactionsByUserId(int userId) {
+    // Alle Daueraufträge eines Benutzers, nach id
+    public List<RecurringRule> getRecurringRules(int userId) {
         SQLiteDatabase db = this.getReadableDatabase();
-        return db.query(TABLE_TRANSACTIONS, null, COLUMN_USER_ID + " = ?", new String[]{String.valueOf(userId)}, null, null, COLUMN_DATE + " DESC");
+        List<RecurringRule> rules = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(SQL_RECURRING_RULES, new String[]{String.valueOf(userId)})) {
+            while (cursor.moveToNext()) {
+                // Spaltenreihenfolge wie in SQL_RECURRING_RULES; NULL-Kategorie -> 0 = keine Kategorie
+                rules.add(new RecurringRule(cursor.getInt(0), userId, cursor.getInt(1), cursor.getLong(2), cursor.getInt(3),
+                        cursor.getString(4), cursor.getLong(5), cursor.isNull(6) ? RecurringRule.OPEN_END : cursor.getLong(6),
+                        cursor.getInt(7), cursor.getInt(8), cursor.getLong(9)));
+            }
+        }
+        return rules;
     }
 
+    // Ausführungen vor nextIndex sind als Transaktionen gebucht
+    public boolean setRecurringRuleNextIndex(int ruleId, long nextIndex) {
+        return statementCache.executeUpdateDelete(SQL_RECURRING_RULE_NEXT_INDEX, nextIndex, ruleId) > 0;
+    }
 
-    // Hilfsmethode: Validierung des Datumsformats
-    private boolean isValidDate(String date) {
-        String datePattern = "\\d{4}-\\d{2}-\\d{2}"; // YYYY-MM-DD
-        return date != null && date.matches(datePattern);
+    // Beendet einen Dauerauftrag nach lastDay; ein früheres Ende bleibt bestehen
+    public boolean endRecurringRule(int ruleId, long lastDay) {
+        return statementCache.executeUpdateDelete(SQL_RECURRING_RULE_END, lastDay, ruleId, lastDay) > 0;
     }
 
-    public boolean updateTransaction(int transactionId, double amount, String category, String date, String description) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_AMOUNT, amount);
-        values.put(COLUMN_CATEGORY, category);
-        values.put(COLUMN_DATE, date);
-        values.put(COLUMN_DESCRIPTION, description);
+    // Kategorien
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
 
-        // Aktualisiere die Transaktion in der Datenbank
-        int rowsAffected = db.update(TABLE_TRANSACTIONS, values, COLUMN_ID + " = ?", new String[]{String.valueOf(transactionId)});
-        db.close();
+    // id der Kategorie mit diesem Namen; legt sie an, falls es sie noch nicht gibt
+    int insertCategory(String name) {
+        statementCache.executeInsert(SQL_INSERT_CATEGORY, name); // -1, wenn der Name schon existiert
+        return (int) statementCache.simpleQueryForLong(SQL_CATEGORY_ID, name);
+    }
 
-        return rowsAffected > 0; // Gibt true zurück, wenn die Transaktion erfolgreich aktualisiert wurde
+    private static Integer categoryOrNull(int categoryId) {
+        return categoryId == CategoryDictionary.NONE ? null : categoryId;
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.example.BudgetTracker;
+
+import java.text.DecimalFormatSymbols;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gemeinsame Formatierung von Beträgen und Datumsangaben für Listen, Kontostand und Diagramme.
+ *
+ * Je Locale gibt es eine Instanz mit den nötigen Symbolen (Dezimaltrennzeichen), einmal ermittelt.
+ * Zahlen und Daten werden direkt aus Cent bzw. Epochentag zusammengesetzt, ohne String.format,
+ * reguläre Ausdrücke oder SimpleDateFormat. Fertige Texte landen in einem begrenzten LRU-Cache, so
+ * dass wiederkehrende Werte (Diagrammbeschriftungen bei jedem Frame, Kontostand) nur einmal entstehen.
+ * Die append-Methoden legen keine Objekte an und eignen sich für das Binden von Listenzeilen.
+ */
+public final class DisplayFormat {
+
+    private static final int CACHED_TEXTS = 512; // je Cache und Locale
+    private static final Map<Locale, DisplayFormat> INSTANCES = new ConcurrentHashMap<>();
+
+    private final char decimalSeparator;
+    private final Lru euros = new Lru();
+    private final Lru dates = new Lru();
+
+    private DisplayFormat(Locale locale) {
+        decimalSeparator = DecimalFormatSymbols.getInstance(locale).getDecimalSeparator();
+    }
+
+    public static DisplayFormat of(Locale locale) {
+        DisplayFormat format = INSTANCES.get(locale);
+        if (format == null) {
+            format = new DisplayFormat(locale);
+            DisplayFormat existing = INSTANCES.putIfAbsent(locale, format);
+            if (existing != null) {
+                format = existing;
+            }
+        }
+        return format;
+    }
+
+    // Instanz für die aktuelle Spracheinstellung
+    public static DisplayFormat current() {
+        return of(Locale.getDefault());
+    }
+
+    // Betrag wie "%.2f", z. B. "-12,50"
+    public String euros(long cents) {
+        synchronized (euros) {
+            String text = euros.get(cents);
+            if (text == null) {
+                text = appendEuros(new StringBuilder(24), cents).toString();
+                euros.put(cents, text);
+            }
+            return text;
+        }
+    }
+
+    // Datum als "DD.MM.YYYY"
+    public String date(long epochDay) {
+        synchronized (dates) {
+            String text = dates.get(epochDay);
+            if (text == null) {
+                text = appendDate(new StringBuilder(10), epochDay).toString();
+                dates.put(epochDay, text);
+            }
+            return text;
+        }
+    }
+
+    public StringBuilder appendEuros(StringBuilder out, long cents) {
+        return Money.appendEuros(out, cents, decimalSeparator);
+    }
+
+    public StringBuilder appendDate(StringBuilder out, long epochDay) {
+        return EpochDay.appendDisplay(out, epochDay);
+    }
+
+    // Zuletzt verwendete Texte; der älteste fliegt heraus
+    private static final class Lru extends LinkedHashMap<Long, String> {
+        Lru() {
+            super(64, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > CACHED_TEXTS;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.BudgetTracker;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Umrechnung zwischen Tagen seit 1970-01-01 (Speicherformat) und Datumsangaben als Text.
+ * Ganzzahlige Tage lassen sich direkt vergleichen und über Indizes als Bereich abfragen.
+ */
+public final class EpochDay {
+
+    // Zulässiger Bereich für Buchungen; hält Indizes über alle Tage (DailyBalanceIndex) klein
+    public static final long MIN_DAY = -25_567; // 1900-01-01
+    public static final long MAX_DAY = 84_005; // 2199-12-31
+
+    private EpochDay() {
+    }
+
+    /**
+     * "YYYY-MM-DD" -> Tage seit 1970-01-01.
+     * @throws DateTimeParseException bei ungültigem Datum oder einem Datum vor 1900 bzw. nach 2199
+     */
+    public static long fromIso(String date) {
+        if (date == null) {
+            throw new DateTimeParseException("Datum fehlt", "", 0);
+        }
+        String text = date.trim();
+        long epochDay = LocalDate.parse(text).toEpochDay();
+        if (!isInRange(epochDay)) {
+            throw new DateTimeParseException("Datum außerhalb von 1900 bis 2199", text, 0);
+        }
+        return epochDay;
+    }
+
+    // true, wenn der Tag in [MIN_DAY, MAX_DAY] liegt
+    public static boolean isInRange(long epochDay) {
+        return epochDay >= MIN_DAY && epochDay <= MAX_DAY;
+    }
+
+    // Tage seit 1970-01-01 -> "YYYY-MM-DD"
+    public static String toIso(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    // Tage seit 1970-01-01 -> "DD.MM.YYYY"
+    public static String toDisplay(long epochDay) {
+        return appendDisplay(new StringBuilder(10), epochDay).toString();
+    }
+
+    /**
+     * Hängt "DD.MM.YYYY" an, ohne Objekte anzulegen (für das Binden von Listenzeilen).
+     * Umrechnung Tage -> Jahr/Monat/Tag im proleptischen Gregorianischen Kalender wie LocalDate.
+     */
+    public static StringBuilder appendDisplay(StringBuilder out, long epochDay) {
+        long days = epochDay + 719_468; // Tage seit 0000-03-01: Jahre beginnen im März, der Schalttag liegt am Ende
+        long era = Math.floorDiv(days, 146_097); // 400-Jahres-Zyklen
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153; // 0 = März
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        appendTwoDigits(out, day).append('.');
+        appendTwoDigits(out, month).append('.');
+        if (year >= 0 && year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        return out.append(year);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    // Prüft, ob ein Text ein gültiges Datum im Format YYYY-MM-DD im zulässigen Bereich ist
+    public static boolean isValidIso(String date) {
+        try {
+            fromIso(date);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.BudgetTracker;
+
+/**
+ * Fenwick-Baum (Binary Indexed Tree) über long-Werten: Präfixsummen und Punktänderungen in O(log n).
+ * Positionen beginnen bei 0; intern arbeitet der Baum 1-basiert.
+ */
+final class FenwickTree {
+
+    private final long[] tree; // tree[i] = Summe der Werte (i - lowbit(i), i]
+
+    FenwickTree(int size) {
+        tree = new long[size + 1];
+    }
+
+    // Baut den Baum in O(n) aus den Einzelwerten auf
+    FenwickTree(long[] values) {
+        tree = new long[values.length + 1];
+        System.arraycopy(values, 0, tree, 1, values.length);
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    int size() {
+        return tree.length - 1;
+    }
+
+    // Addiert delta zum Wert an position
+    void add(int position, long delta) {
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Summe der Werte an den Positionen 0 bis position (einschließlich); außerhalb wird auf den Rand begrenzt
+    long prefixSum(int position) {
+        long sum = 0;
+        for (int i = Math.min(position + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Summe der Werte an den Positionen from bis to (beide einschließlich)
+    long rangeSum(int from, int to) {
+        return to < from ? 0 : prefixSum(to) - prefixSum(from - 1);
+    }
+
+    // Einzelwerte in O(n) zurückgewinnen (Aufbau rückwärts), z. B. um den Baum zu vergrößern
+    long[] toValues() {
+        long[] sums = tree.clone();
+        for (int i = sums.length - 1; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent < sums.length) {
+                sums[parent] -= sums[i];
+            }
+        }
+        long[] values = new long[size()];
+        System.arraycopy(sums, 1, values, 0, values.length);
+        return values;
+    }
+}
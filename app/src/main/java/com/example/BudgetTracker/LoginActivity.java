@@ -15,8 +15,8 @@ public class LoginActivity extends AppCompatActivity {
     EditText usernameEditText, passwordEditText;
     Button loginButton, registerButton;
 
-    // Datenbank-Hilfsklasse
-    DatabaseHelper dbHelper;
+    // Repository für den Datenbankzugriff
+    TransactionRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -29,8 +29,8 @@ public class LoginActivity extends AppCompatActivity {
         loginButton = findViewById(R.id.buttonLogin);
         registerButton = findViewById(R.id.buttonRegister);
 
-        // Instanz der Datenbank-Hilfsklasse erstellen
-        dbHelper = new DatabaseHelper(this);
+        // Prozessweites Repository holen
+        repository = TransactionRepository.getInstance(this);
 
         // Zugriff auf SharedPreferences, um Benutzerdaten zu speichern
         SharedPreferences preferences = getSharedPreferences("MyAppPrefs", MODE_PRIVATE);
@@ -53,11 +53,10 @@ public class LoginActivity extends AppCompatActivity {
             if (username.isEmpty() || password.isEmpty()) {
                 Toast.makeText(LoginActivity.this, "Bitte alle Felder ausfüllen!", Toast.LENGTH_SHORT).show();
             } else {
-                // Validieren der Anmeldedaten in der Datenbank
-                boolean isValid = dbHelper.checkUser(username, password);
-                if (isValid) {
-                    // Benutzer-ID abrufen
-                    int userId = dbHelper.getUserId(username, password);
+                // Anmeldedaten im Hintergrund prüfen; -1 bedeutet ungültige Anmeldedaten
+                loginButton.setEnabled(false);
+                repository.getUserIdAsync(username, password, userId -> {
+                    loginButton.setEnabled(true);
                     if (userId != -1) {
                         // Benutzer-ID und -Name in SharedPreferences speichern
                         SharedPreferences.Editor editor = preferences.edit();
@@ -72,12 +71,10 @@ public class LoginActivity extends AppCompatActivity {
                         startActivity(intent);
                         finish(); // Login-Aktivität beenden
                     } else {
-                        Toast.makeText(LoginActivity.this, "Benutzer-ID nicht gefunden!", Toast.LENGTH_SHORT).show();
+                        // Fehlermeldung bei ungültigen Anmeldedaten
+                        Toast.makeText(LoginActivity.this, "Ungültige Anmeldedaten!", Toast.LENGTH_SHORT).show();
                     }
-                } else {
-                    // Fehlermeldung bei ungültigen Anmeldedaten
-                    Toast.makeText(LoginActivity.this, "Ungültige Anmeldedaten!", Toast.LENGTH_SHORT).show();
-                }
+                });
             }
         });
 
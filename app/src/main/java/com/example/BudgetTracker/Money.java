@@ -0,0 +1,62 @@
+package com.example.BudgetTracker;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Umrechnung zwischen Geldbeträgen in Cent (Speicherformat) und Darstellungen in Euro.
+ * In der Datenbank und im Repository wird ausschließlich mit ganzen Cent gerechnet;
+ * erst an der Oberfläche wird in Euro umgerechnet.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    // Liest eine Benutzereingabe wie "12,50" oder "-3.99" exakt in Cent ein; mehr als zwei Nachkommastellen
+    // (außer Nullen) werden abgelehnt statt gerundet
+    public static long parseCents(String text) {
+        if (text == null) {
+            throw new NumberFormatException("Betrag fehlt");
+        }
+        String normalized = text.trim().replace(',', '.');
+        BigDecimal cents = new BigDecimal(normalized).movePointRight(2);
+        if (cents.stripTrailingZeros().scale() > 0) {
+            throw new NumberFormatException("Mehr als zwei Nachkommastellen: " + text);
+        }
+        try {
+            return cents.setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Betrag außerhalb des gültigen Bereichs: " + text);
+        }
+    }
+
+    // Rundet einen Euro-Betrag auf ganze Cent
+    public static long toCents(double euros) {
+        return Math.round(euros * 100);
+    }
+
+    // Euro-Betrag für Anzeige und Diagramme
+    public static double toEuros(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Hängt den Betrag wie "%.2f" an, z. B. "-12,50" bei ',' als Dezimaltrennzeichen, ohne Objekte anzulegen.
+     * Rechnet mit negativen Werten, damit auch Long.MIN_VALUE nicht überläuft.
+     */
+    public static StringBuilder appendEuros(StringBuilder out, long cents, char decimalSeparator) {
+        long negative = cents > 0 ? -cents : cents;
+        if (cents < 0) {
+            out.append('-');
+        }
+        out.append(-(negative / 100)).append(decimalSeparator);
+        int fraction = (int) -(negative % 100);
+        return out.append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    // Betrag ohne Tausendertrennzeichen für Eingabefelder, z. B. "-12.50"
+    public static String toPlainString(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.BudgetTracker;
+
+public class MonthlyTotal {
+
+    private final int year; // Calendar year, e.g. 2024
+    private final int month; // Month of the year, 1 to 12
+    private final long incomeCents; // Sum of all income in the month (positive)
+    private final long expenseCents; // Sum of all expenses in the month (negative)
+    private final int incomeCount; // Number of income transactions
+    private final int expenseCount; // Number of expense transactions
+
+    // Constructor to initialize the totals of one month, as read from the rollup table
+    public MonthlyTotal(int year, int month, long incomeCents, long expenseCents, int incomeCount, int expenseCount) {
+        this.year = year;
+        this.month = month;
+        this.incomeCents = incomeCents;
+        this.expenseCents = expenseCents;
+        this.incomeCount = incomeCount;
+        this.expenseCount = expenseCount;
+    }
+
+    // Getter for the year
+    public int getYear() {
+        return year;
+    }
+
+    // Getter for the month (1 to 12)
+    public int getMonth() {
+        return month;
+    }
+
+    // Getter for the income of the month in cents
+    public long getIncomeCents() {
+        return incomeCents;
+    }
+
+    // Getter for the expenses of the month in cents (negative)
+    public long getExpenseCents() {
+        return expenseCents;
+    }
+
+    // Getter for the number of income transactions
+    public int getIncomeCount() {
+        return incomeCount;
+    }
+
+    // Getter for the number of expense transactions
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+}
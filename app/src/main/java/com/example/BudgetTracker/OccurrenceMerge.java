@@ -0,0 +1,71 @@
+package com.example.BudgetTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Führt gespeicherte Transaktionen und geplante Ausführungen von Daueraufträgen nach Datum zusammen.
+ *
+ * Beide Seiten werden nur so weit gelesen, wie das Ergebnis reicht: die gespeicherten Zeilen liegen
+ * bereits nach (Epochentag, id) sortiert vor, je Auftrag gibt es einen Zeiger auf die nächste
+ * Ausführung, und eine Prioritätswarteschlange über diese Zeiger liefert jeweils die früheste.
+ * Ein unbefristeter Auftrag erzeugt so nur die Ausführungen, die tatsächlich angezeigt werden.
+ * Am selben Tag kommen gespeicherte Zeilen vor geplanten, Aufträge untereinander nach id.
+ */
+final class OccurrenceMerge {
+
+    private OccurrenceMerge() {
+    }
+
+    /**
+     * @param stored gespeicherte Zeilen in [fromDay, toDay], aufsteigend nach (Epochentag, id)
+     * @param limit höchstens so viele Zeilen im Ergebnis
+     * @return Zeilen aufsteigend nach Datum; geplante Ausführungen tragen die negative Auftrags-id ({@link #isPlanned})
+     */
+    static TransactionSnapshot merge(TransactionSnapshot stored, List<RecurringRule> rules, long fromDay, long toDay, int limit) {
+        List<RecurringRule.Occurrences> cursors = new ArrayList<>(rules.size());
+        for (RecurringRule rule : rules) {
+            cursors.add(rule.occurrences(fromDay, toDay));
+        }
+        return merge(stored, cursors, limit);
+    }
+
+    // Wie oben mit bereits angelegten Zeigern je Auftrag; sie stehen danach hinter der letzten verwendeten Ausführung
+    static TransactionSnapshot merge(TransactionSnapshot stored, List<RecurringRule.Occurrences> cursors, int limit) {
+        PriorityQueue<RecurringRule.Occurrences> next = new PriorityQueue<>(Math.max(1, cursors.size()), (a, b) -> a.day() != b.day()
+                ? Long.compare(a.day(), b.day()) : Integer.compare(a.rule.getId(), b.rule.getId()));
+        for (RecurringRule.Occurrences occurrences : cursors) {
+            if (occurrences.hasCurrent()) {
+                next.add(occurrences);
+            }
+        }
+
+        TransactionSnapshot.Builder rows = new TransactionSnapshot.Builder(Math.min(limit, stored.size() + 16));
+        int row = 0;
+        for (int added = 0; added < limit; added++) {
+            RecurringRule.Occurrences planned = next.peek();
+            if (row < stored.size() && (planned == null || stored.epochDay(row) <= planned.day())) {
+                rows.add(stored.id(row), stored.type(row), stored.amountCents(row), stored.categoryId(row),
+                        stored.epochDay(row), stored.description(row));
+                row++;
+            } else if (planned != null) {
+                next.poll();
+                RecurringRule rule = planned.rule;
+                rows.add(-rule.getId(), rule.getType(), rule.getAmountCents(), rule.getCategoryId(), planned.day(), rule.getDescription());
+                planned.advance();
+                if (planned.hasCurrent()) {
+                    next.add(planned); // mit dem neuen Tag wieder einordnen
+                }
+            } else {
+                break; // beide Seiten erschöpft
+            }
+        }
+        return rows.build();
+    }
+
+    // true für eine geplante Ausführung aus merge(); ihre Auftrags-id ist -transactionId
+    static boolean isPlanned(int transactionId) {
+        return transactionId < 0;
+    }
+}
@@ -0,0 +1,464 @@
+package com.example.BudgetTracker;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Seitenweise geladene Transaktionsliste eines Benutzers.
+ *
+ * Seiten werden per Keyset-Paginierung geladen: jede Seite beginnt hinter dem Schlüssel
+ * (epoch_day bzw. amount_cents, id) der letzten Zeile der vorherigen Seite, so dass SQLite
+ * direkt im Index (user_id, epoch_day, id) bzw. (user_id, amount_cents, id) einsteigt.
+ * Es werden nur wenige Seiten im Speicher gehalten; Zugriffe nahe einer Seitengrenze laden die
+ * Nachbarseite im Voraus. Speicherbedarf und Ladezeit der ersten Seite hängen damit nicht
+ * von der Länge der Historie ab.
+ *
+ * Optional lässt sich die Liste per Volltextsuche filtern; Sortierung und Paginierung bleiben gleich.
+ *
+ * {@link #refresh()} lädt die zusammenhängend geladenen Seiten im Hintergrund neu und vergleicht sie dort
+ * per id mit dem alten Stand (wie AsyncListDiffer). Gemeldet werden nur eingefügte, entfernte, verschobene
+ * und geänderte Zeilen; die übrigen sichtbaren Zeilen werden nicht neu gebunden.
+ *
+ * Alle öffentlichen Methoden werden auf dem UI-Thread aufgerufen; geladen wird im Hintergrund.
+ */
+public class PagedTransactionList {
+
+    private static final String TAG = "PagedTransactionList";
+
+    static final int PAGE_SIZE = 50; // Zeilen pro Seite
+    private static final int PREFETCH_DISTANCE = 15; // Abstand zur Seitengrenze, ab dem die Nachbarseite geladen wird
+    private static final int MAX_CACHED_PAGES = 8; // gleichzeitig gehaltene Seiten
+
+    // Ein Hintergrund-Thread für alle Listen, damit Seiten nacheinander und nicht parallel gelesen werden
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TransactionPageLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Sortierschlüssel einer Zeile: Datum bzw. Betrag und die id als Tiebreaker
+    public static final class Key {
+        final long value;
+        final long id;
+
+        Key(long value, long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        // Gleichheit für den Ergebnis-Cache des Repositories
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).value == value && ((Key) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value) * 31 + Long.hashCode(id);
+        }
+    }
+
+    // Rückmeldungen an den Adapter (auf dem UI-Thread); geladene Seiten kommen als onChanged
+    public interface Listener extends ListUpdateCallback {
+        // Inhalt vollständig ersetzt, z. B. erster Ladevorgang oder neue Suche
+        void onReloaded();
+
+        void onCountChanged(int count);
+    }
+
+    private final TransactionRepository repository;
+    private final int userId;
+    private final boolean sortByDate;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Zuletzt verwendete Seiten; älteste Seite wird verworfen
+    private final Map<Integer, TransactionSnapshot> pages = new LinkedHashMap<Integer, TransactionSnapshot>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, TransactionSnapshot> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    private Key[] lastKeys = new Key[0]; // Schlüssel der letzten Zeile jeder bekannten Seite
+    private int count;
+    private String matchQuery; // aktive Volltextsuche oder null
+    private boolean reloading; // Neuladen mit Vergleich läuft; bis dahin keine Seiten nachladen
+    private final Set<Integer> deferredPages = new HashSet<>(); // während des Neuladens angefragte Seiten
+    // verwirft Ergebnisse, die vor dem letzten refresh() angefordert wurden; volatile, damit der
+    // Lade-Thread veraltete Aufträge (z. B. frühere Tastendrücke der Suche) gar nicht erst ausführt
+    private volatile int generation;
+
+    public PagedTransactionList(TransactionRepository repository, int userId, boolean sortByDate, Listener listener) {
+        this.repository = repository;
+        this.userId = userId;
+        this.sortByDate = sortByDate;
+        this.listener = listener;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Liefert die Transaktion an der Position oder null, solange die Seite noch geladen wird.
+     * Legt ein Objekt an; beim Binden {@link #pageAt(int)} verwenden.
+     */
+    public Transaction get(int position) {
+        TransactionSnapshot rows = pageAt(position);
+        return rows != null ? rows.get(rowInPage(position)) : null;
+    }
+
+    // Zeile der Position innerhalb ihrer Seite aus pageAt()
+    public static int rowInPage(int position) {
+        return position % PAGE_SIZE;
+    }
+
+    /**
+     * Liefert die Seite mit der Position oder null, solange sie noch geladen wird.
+     * Lädt bei Bedarf die Seite und die Nachbarseite in Scrollrichtung nach.
+     */
+    public TransactionSnapshot pageAt(int position) {
+        int page = position / PAGE_SIZE;
+        int offset = position % PAGE_SIZE;
+        if (offset >= PAGE_SIZE - PREFETCH_DISTANCE) {
+            ensureLoaded(page + 1);
+        } else if (offset < PREFETCH_DISTANCE) {
+            ensureLoaded(page - 1);
+        }
+
+        TransactionSnapshot rows = pages.get(page);
+        if (rows == null) {
+            if (reloading) {
+                deferredPages.add(page); // Positionen können sich noch verschieben, erst danach laden
+            } else {
+                ensureLoaded(page);
+            }
+            return null;
+        }
+        return offset < rows.size() ? rows : null;
+    }
+
+    /**
+     * Beschränkt die Liste auf Transaktionen, deren Kategorie oder Beschreibung zur Sucheingabe passt,
+     * und lädt neu. Eine leere Eingabe zeigt wieder alle Transaktionen.
+     */
+    public void setSearch(String input) {
+        matchQuery = TransactionRepository.toMatchQuery(input);
+        reset(); // andere Ergebnismenge: ein Vergleich mit der alten lohnt nicht
+    }
+
+    /**
+     * Lädt die Liste nach einer Änderung neu und meldet nur die Unterschiede.
+     * Ohne geladene Seiten (oder ohne bekannten Startschlüssel) wird alles verworfen wie bei einer neuen Suche.
+     */
+    public void refresh() {
+        int first = -1;
+        for (int page : pages.keySet()) {
+            if (first < 0 || page < first) {
+                first = page;
+            }
+        }
+        if (first < 0 || (first > 0 && lastKeys[first - 1] == null)) {
+            reset();
+            return;
+        }
+        int last = first;
+        while (pages.containsKey(last + 1)) {
+            last++;
+        }
+
+        // Alter Stand: zusammenhängende Seiten ab der ersten geladenen, davor und danach nur Anzahlen
+        List<TransactionSnapshot> window = new ArrayList<>(last - first + 1);
+        for (int page = first; page <= last; page++) {
+            window.add(pages.get(page));
+        }
+        final TransactionSnapshot oldRows = TransactionSnapshot.concat(window);
+        final Key startKey = first > 0 ? lastKeys[first - 1] : null;
+        final int oldBefore = first * PAGE_SIZE;
+        final int oldRemaining = count - oldBefore; // Zeilen ab Fensteranfang
+        final int requestGeneration = ++generation;
+        final String query = matchQuery;
+        loading.clear();
+        deferredPages.clear();
+        reloading = true;
+
+        LOADER.execute(() -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            int newCount = repository.getTransactionCount(userId, query);
+            int newBefore = startKey == null ? 0
+                    : Math.max(0, newCount - repository.getTransactionCountAfter(userId, sortByDate, query, startKey));
+            // Fenster wächst bzw. schrumpft mit der Zeilenzahl ab Fensteranfang, damit die letzten Zeilen nicht als
+            // entfernt und hinter dem Fenster wieder eingefügt gemeldet werden (große Änderungen ausgenommen)
+            int growth = (newCount - newBefore) - oldRemaining;
+            int limit = oldRows.size() + Math.max(-oldRows.size(), Math.min(growth, PAGE_SIZE));
+            TransactionSnapshot newRows = repository.getTransactionPage(userId, sortByDate, query, startKey, limit);
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new RowDiff(oldRows, newRows)); // Vergleich im Hintergrund
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                install(oldBefore, oldRows.size(), startKey, newBefore, newRows, Math.max(newCount, newBefore + newRows.size()), diff);
+            });
+        });
+    }
+
+    // Übernimmt das Ergebnis von refresh(): Seiten neu einteilen, dann Unterschiede melden
+    private void install(int oldBefore, int oldWindow, Key startKey, int newBefore, TransactionSnapshot newRows, int newCount, DiffUtil.DiffResult diff) {
+        int oldCount = count;
+        reloading = false;
+        pages.clear();
+        count = newCount;
+        lastKeys = new Key[(newCount + PAGE_SIZE - 1) / PAGE_SIZE];
+        int newEnd = newBefore + newRows.size();
+        if (startKey != null && newBefore > 0 && newBefore % PAGE_SIZE == 0) {
+            lastKeys[newBefore / PAGE_SIZE - 1] = startKey; // Fenster beginnt weiter auf einer Seitengrenze
+        }
+        for (int page = newBefore / PAGE_SIZE; page < lastKeys.length && page * PAGE_SIZE < newEnd; page++) {
+            int start = page * PAGE_SIZE;
+            int end = Math.min(start + PAGE_SIZE, newCount);
+            if (end <= newEnd) {
+                lastKeys[page] = sortKeyOf(newRows, end - 1 - newBefore);
+                if (start >= newBefore) {
+                    pages.put(page, newRows.slice(start - newBefore, end - newBefore));
+                }
+            }
+        }
+
+        // Zeilen vor dem Fenster (nicht geladen): nur die Anzahl kann sich geändert haben
+        if (newBefore > oldBefore) {
+            listener.onInserted(oldBefore, newBefore - oldBefore);
+        } else if (newBefore < oldBefore) {
+            listener.onRemoved(newBefore, oldBefore - newBefore);
+        }
+        diff.dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int itemCount) {
+                listener.onInserted(newBefore + position, itemCount);
+            }
+
+            @Override
+            public void onRemoved(int position, int itemCount) {
+                listener.onRemoved(newBefore + position, itemCount);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                listener.onMoved(newBefore + fromPosition, newBefore + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int itemCount, Object payload) {
+                listener.onChanged(newBefore + position, itemCount, payload);
+            }
+        });
+        // Zeilen hinter dem Fenster (nicht geladen)
+        int oldAfter = oldCount - oldBefore - oldWindow;
+        int newAfter = newCount - newEnd;
+        if (newAfter > oldAfter) {
+            listener.onInserted(newEnd, newAfter - oldAfter);
+        } else if (newAfter < oldAfter) {
+            listener.onRemoved(newEnd, oldAfter - newAfter);
+        }
+        listener.onCountChanged(newCount);
+
+        // Während des Neuladens als Platzhalter gebundene Zeilen nachladen; sie können sich um eine Seite verschoben haben
+        for (int page : deferredPages) {
+            ensureLoaded(page - 1);
+            ensureLoaded(page);
+            ensureLoaded(page + 1);
+        }
+        deferredPages.clear();
+    }
+
+    // Verwirft alle Seiten und lädt Anzahl und erste Seite neu
+    private void reset() {
+        final int requestGeneration = ++generation;
+        final String query = matchQuery;
+        pages.clear();
+        loading.clear();
+        deferredPages.clear();
+        reloading = false;
+        loading.add(0);
+
+        LOADER.execute(() -> {
+            if (requestGeneration != generation) {
+                return; // inzwischen neu angefordert
+            }
+            TransactionSnapshot firstPage = repository.getTransactionPage(userId, sortByDate, query, null, PAGE_SIZE);
+            // Passt alles auf die erste Seite, ist die Anzahl bekannt (häufig bei Suchen)
+            int newCount = firstPage.size() < PAGE_SIZE ? firstPage.size() : repository.getTransactionCount(userId, query);
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                count = newCount;
+                lastKeys = new Key[(newCount + PAGE_SIZE - 1) / PAGE_SIZE];
+                loading.remove(0);
+                storePage(0, firstPage);
+                listener.onReloaded();
+                listener.onCountChanged(newCount);
+            });
+        });
+    }
+
+    /**
+     * Übernimmt Änderungen aus dem Repository. Geänderte Zeilen, die geladen sind und ihre Position behalten,
+     * werden an Ort und Stelle ersetzt; alles andere (neue oder gelöschte Zeilen, geänderter Sortierschlüssel,
+     * aktive Suche) verschiebt Positionen und lädt die Liste neu.
+     */
+    public void applyChanges(List<TransactionChange> changes) {
+        boolean reload = false;
+        for (TransactionChange change : changes) {
+            if (change.getUserId() != userId) {
+                continue;
+            }
+            if (change.getKind() != TransactionChange.UPDATED || matchQuery != null || !replaceLoaded(change.getTransaction())) {
+                reload = true;
+            }
+        }
+        if (reload) {
+            refresh();
+        }
+    }
+
+    // Ersetzt eine geladene Zeile, deren Sortierschlüssel gleich bleibt; false, wenn das nicht möglich ist
+    private boolean replaceLoaded(Transaction updated) {
+        if (!loading.isEmpty() || reloading) {
+            return false; // eine unterwegs befindliche Seite kann den alten Stand enthalten
+        }
+        for (Map.Entry<Integer, TransactionSnapshot> entry : pages.entrySet()) {
+            TransactionSnapshot rows = entry.getValue();
+            int i = rows.indexOf(updated.getId());
+            if (i < 0) {
+                continue;
+            }
+            if (sortKey(rows, i) != (sortByDate ? updated.getEpochDay() : updated.getAmountCents())) {
+                return false;
+            }
+            entry.setValue(rows.with(i, updated)); // Seiten sind unveränderlich: Kopie mit der neuen Zeile
+            listener.onChanged(entry.getKey() * PAGE_SIZE + i, 1, null);
+            return true;
+        }
+        return false; // nicht geladen: ob sich die Position geändert hat, ist unbekannt
+    }
+
+    private long sortKey(TransactionSnapshot rows, int index) {
+        return sortByDate ? rows.epochDay(index) : rows.amountCents(index);
+    }
+
+    private Key sortKeyOf(TransactionSnapshot rows, int index) {
+        return new Key(sortKey(rows, index), rows.id(index));
+    }
+
+    // true, solange nichts geladen wird (für Tests)
+    boolean isIdle() {
+        return loading.isEmpty() && !reloading;
+    }
+
+    /**
+     * Beendet die Liste; noch laufende Ladevorgänge werden verworfen.
+     */
+    public void release() {
+        generation++;
+        pages.clear();
+        loading.clear();
+        deferredPages.clear();
+        reloading = false;
+    }
+
+    // Plant das Laden einer Seite, falls sie weder vorhanden noch unterwegs ist
+    private void ensureLoaded(int page) {
+        if (page < 0 || page >= lastKeys.length || pages.containsKey(page) || loading.contains(page)) {
+            return;
+        }
+
+        // Startpunkt: Schlüssel der vorherigen Seite oder, falls unbekannt, der nächste bekannte davor
+        int knownPage = page - 1;
+        while (knownPage >= 0 && lastKeys[knownPage] == null) {
+            knownPage--;
+        }
+        final Key knownKey = knownPage >= 0 ? lastKeys[knownPage] : null;
+        final int skipRows = (page - 1 - knownPage) * PAGE_SIZE; // Zeilen zwischen bekanntem Schlüssel und Seitenanfang
+        final int requestGeneration = generation;
+        final String query = matchQuery;
+        loading.add(page);
+
+        LOADER.execute(() -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            Key start = knownKey;
+            if (skipRows > 0) {
+                // Sprung über nie geladene Seiten: Schlüssel nur aus dem Index lesen, ohne Zeilen zu laden
+                start = repository.getTransactionKeyAt(userId, sortByDate, query, knownKey, skipRows - 1);
+            }
+            TransactionSnapshot rows = repository.getTransactionPage(userId, sortByDate, query, start, PAGE_SIZE);
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading.remove(page);
+                storePage(page, rows);
+            });
+        });
+    }
+
+    private void storePage(int page, TransactionSnapshot rows) {
+        if (rows.isEmpty() || page >= lastKeys.length) {
+            return;
+        }
+        lastKeys[page] = sortKeyOf(rows, rows.size() - 1);
+        pages.put(page, rows);
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Seite " + page + " geladen (" + rows.size() + " Zeilen)");
+        }
+        listener.onChanged(page * PAGE_SIZE, rows.size(), null); // Platzhalter durch geladene Zeilen ersetzen
+    }
+
+    // Vergleich zweier Fenster: gleiche Zeile = gleiche id, unverändert = alle angezeigten Werte gleich
+    private static final class RowDiff extends DiffUtil.Callback {
+        private final TransactionSnapshot oldRows;
+        private final TransactionSnapshot newRows;
+
+        RowDiff(TransactionSnapshot oldRows, TransactionSnapshot newRows) {
+            this.oldRows = oldRows;
+            this.newRows = newRows;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldRows.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newRows.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return oldRows.id(oldPosition) == newRows.id(newPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return oldRows.sameContent(oldPosition, newRows, newPosition);
+        }
+    }
+}
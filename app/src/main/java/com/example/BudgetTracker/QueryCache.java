@@ -0,0 +1,127 @@
+package com.example.BudgetTracker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Begrenzter LRU-Cache für Leseergebnisse des {@link TransactionRepository}.
+ *
+ * Schlüssel sind Benutzer, Abfrage und Parameter. Jeder Eintrag merkt sich die Datenversion des
+ * Benutzers, die vor dem Lesen galt; jede festgeschriebene Änderung erhöht diese Version, ältere
+ * Einträge zählen beim nächsten Zugriff als Fehlschlag. Die Schreibmethoden müssen so nicht wissen,
+ * welche Abfragen sie betreffen. Ein Ergebnis, während dessen Berechnung sich die Version geändert hat,
+ * wird nicht gespeichert. Gespeicherte Ergebnisse werden geteilt und dürfen nicht verändert werden.
+ */
+final class QueryCache {
+
+    private final int capacity;
+    private final Map<Integer, Long> versions = new HashMap<>(); // Datenversion je Benutzer
+    private long epoch; // steigt mit clear(); zählt zu jeder Benutzerversion dazu
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    QueryCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Liefert das gespeicherte Ergebnis oder berechnet es mit {@code loader} (ohne Sperre) und speichert es.
+     * @param query Name der Abfrage, eindeutig je Methode
+     * @param params Parameter der Abfrage; Werte mit equals/hashCode, null erlaubt
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(int userId, String query, Supplier<T> loader, Object... params) {
+        Key key = new Key(userId, query, params);
+        long version;
+        synchronized (this) {
+            version = versionOf(userId);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == version) {
+                hits++;
+                return (T) entry.value;
+            }
+            misses++;
+        }
+        T value = loader.get();
+        synchronized (this) {
+            if (versionOf(userId) == version) {
+                entries.put(key, new Entry(version, value));
+                if (entries.size() > capacity) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        return value;
+    }
+
+    // Nach einer festgeschriebenen Änderung: alle Ergebnisse des Benutzers veralten
+    synchronized void invalidate(int userId) {
+        Long version = versions.get(userId);
+        versions.put(userId, version != null ? version + 1 : 1);
+        entries.keySet().removeIf(key -> key.userId == userId);
+    }
+
+    // Alle Ergebnisse verwerfen, z. B. nach einem Neuaufbau der Monatssummen oder bei Speichermangel
+    synchronized void clear() {
+        epoch++;
+        entries.clear();
+    }
+
+    synchronized long hitCount() {
+        return hits;
+    }
+
+    synchronized long missCount() {
+        return misses;
+    }
+
+    private long versionOf(int userId) {
+        Long version = versions.get(userId);
+        return epoch + (version != null ? version : 0);
+    }
+
+    private static final class Key {
+        final int userId;
+        final String query;
+        final Object[] params;
+        final int hash;
+
+        Key(int userId, String query, Object[] params) {
+            this.userId = userId;
+            this.query = query;
+            this.params = params;
+            this.hash = (31 * userId + query.hashCode()) * 31 + Arrays.hashCode(params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return userId == other.userId && query.equals(other.query) && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final long version;
+        final Object value;
+
+        Entry(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
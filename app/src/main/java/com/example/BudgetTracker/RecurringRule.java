@@ -0,0 +1,220 @@
+package com.example.BudgetTracker;
+
+import java.time.LocalDate;
+
+/**
+ * Dauerauftrag: eine wiederkehrende Buchung (Miete, Gehalt, Abo), einmal gespeichert statt als Zeile je Monat.
+ *
+ * Die n-te Ausführung (n ab 0) liegt {@code n * every} Einheiten nach dem Starttag; Monate und Jahre werden
+ * immer vom Starttag aus gerechnet, ein Auftrag zum 31. bleibt so nach dem Februar beim Monatsende.
+ * Ausführungen ab {@link #getNextIndex()} sind nur geplant: Liste, Kontostand und Auswertungen berechnen sie
+ * bei Bedarf für den abgefragten Zeitraum. Erst wenn ihr Tag erreicht ist, schreibt das Repository sie als
+ * Transaktionen und setzt nextIndex weiter.
+ */
+public final class RecurringRule {
+
+    // Einheiten des Abstands
+    public static final int DAY = 0;
+    public static final int WEEK = 1;
+    public static final int MONTH = 2;
+    public static final int YEAR = 3;
+
+    public static final long OPEN_END = Long.MAX_VALUE; // unbefristet (end_day IS NULL)
+
+    private final int id;
+    private final int userId;
+    private final int type;
+    private final long amountCents; // mit Vorzeichenregel, Ausgaben negativ
+    private final int categoryId;
+    private final String description;
+    private final long startDay; // erste Ausführung
+    private final long endDay; // letzter möglicher Tag (einschließlich) oder OPEN_END
+    private final int unit;
+    private final int every;
+    private final long nextIndex; // erste noch nicht gebuchte Ausführung
+
+    public RecurringRule(int id, int userId, int type, long amountCents, int categoryId, String description,
+                         long startDay, long endDay, int unit, int every, long nextIndex) {
+        if (unit < DAY || unit > YEAR || every < 1) {
+            throw new IllegalArgumentException("Ungültiger Abstand: " + every + " x Einheit " + unit);
+        }
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.amountCents = amountCents;
+        this.categoryId = categoryId;
+        this.description = description;
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.unit = unit;
+        this.every = every;
+        this.nextIndex = nextIndex;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getStartDay() {
+        return startDay;
+    }
+
+    public long getEndDay() {
+        return endDay;
+    }
+
+    public int getUnit() {
+        return unit;
+    }
+
+    public int getEvery() {
+        return every;
+    }
+
+    public long getNextIndex() {
+        return nextIndex;
+    }
+
+    // Epochentag der n-ten Ausführung
+    public long occurrence(long n) {
+        switch (unit) {
+            case DAY:
+                return startDay + n * every;
+            case WEEK:
+                return startDay + n * every * 7;
+            case MONTH:
+                return LocalDate.ofEpochDay(startDay).plusMonths(n * every).toEpochDay();
+            default:
+                return LocalDate.ofEpochDay(startDay).plusYears(n * every).toEpochDay();
+        }
+    }
+
+    // Kleinstes n mit occurrence(n) >= day, ohne das Ende zu beachten
+    public long firstIndexFrom(long day) {
+        if (day <= startDay) {
+            return 0;
+        }
+        if (unit == DAY || unit == WEEK) {
+            long period = unit == DAY ? every : every * 7L;
+            return (day - startDay + period - 1) / period;
+        }
+        // Monate bzw. Jahre schätzen und um das Monatsende korrigieren
+        LocalDate start = LocalDate.ofEpochDay(startDay);
+        LocalDate date = LocalDate.ofEpochDay(day);
+        long months = (date.getYear() - start.getYear()) * 12L + date.getMonthValue() - start.getMonthValue();
+        long n = Math.max(0, months / (unit == MONTH ? every : every * 12L));
+        while (n > 0 && occurrence(n - 1) >= day) {
+            n--;
+        }
+        while (occurrence(n) < day) {
+            n++;
+        }
+        return n;
+    }
+
+    // Anzahl aller Ausführungen bis endDay; Long.MAX_VALUE, wenn unbefristet
+    public long endIndex() {
+        return endDay == OPEN_END ? Long.MAX_VALUE : firstIndexFrom(endDay + 1);
+    }
+
+    // Geplante (noch nicht gebuchte) Ausführungen in [fromDay, toDay]: [first, last) als Indizes
+    private long plannedFrom(long fromDay) {
+        return Math.max(nextIndex, firstIndexFrom(fromDay));
+    }
+
+    private long plannedTo(long toDay) {
+        return Math.min(endIndex(), firstIndexFrom(toDay + 1));
+    }
+
+    // Anzahl geplanter Ausführungen in [fromDay, toDay] (beide einschließlich), ohne sie aufzuzählen
+    public long plannedCount(long fromDay, long toDay) {
+        if (toDay < fromDay || toDay < startDay) {
+            return 0;
+        }
+        return Math.max(0, plannedTo(toDay) - plannedFrom(fromDay));
+    }
+
+    // Summe der geplanten Ausführungen in [fromDay, toDay] in Cent
+    public long plannedCents(long fromDay, long toDay) {
+        return plannedCount(fromDay, toDay) * amountCents;
+    }
+
+    // Kopie nach dem Buchen der Ausführungen bis ausschließlich nextIndex
+    RecurringRule withNextIndex(long nextIndex) {
+        return new RecurringRule(id, userId, type, amountCents, categoryId, description, startDay, endDay, unit, every, nextIndex);
+    }
+
+    // Kopie, die nach lastDay endet
+    RecurringRule endingAt(long lastDay) {
+        return new RecurringRule(id, userId, type, amountCents, categoryId, description, startDay,
+                Math.min(endDay, lastDay), unit, every, nextIndex);
+    }
+
+    /**
+     * Geplante Ausführungen in [fromDay, toDay] der Reihe nach, ohne sie vorab aufzuzählen.
+     * Der Zeiger steht zu Beginn auf der ersten; day() gilt, solange hasCurrent() true liefert.
+     */
+    Occurrences occurrences(long fromDay, long toDay) {
+        return new Occurrences(this, plannedFrom(fromDay), toDay < fromDay ? 0 : plannedTo(toDay));
+    }
+
+    static final class Occurrences {
+        final RecurringRule rule;
+        private long index;
+        private final long end;
+        private long day;
+        private long computed; // bisher berechnete Ausführungstage
+
+        private Occurrences(RecurringRule rule, long first, long end) {
+            this.rule = rule;
+            this.index = first;
+            this.end = end;
+            this.day = index < end ? dayAt(index) : 0;
+        }
+
+        boolean hasCurrent() {
+            return index < end;
+        }
+
+        long day() {
+            return day;
+        }
+
+        void advance() {
+            index++;
+            if (index < end) {
+                day = dayAt(index);
+            }
+        }
+
+        // Wie viele Ausführungen bisher erzeugt wurden; höchstens eine mehr als verbraucht
+        long computed() {
+            return computed;
+        }
+
+        private long dayAt(long n) {
+            computed++;
+            return rule.occurrence(n);
+        }
+    }
+}
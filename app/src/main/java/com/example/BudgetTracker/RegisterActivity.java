@@ -1,9 +1,6 @@
 package com.example.BudgetTracker;
 
-import android.content.ContentValues;
 import android.content.Intent;
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 import android.os.Bundle;
 import android.widget.Button;
 import android.widget.EditText;
@@ -17,8 +14,8 @@ public class RegisterActivity extends AppCompatActivity {
     private EditText usernameEditText, passwordEditText, confirmPasswordEditText;
     private Button registerButton, loginRedirectButton;
 
-    // Instanz der Datenbank-Hilfsklasse
-    private DatabaseHelper databaseHelper;
+    // Repository für den Datenbankzugriff
+    private TransactionRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,8 +29,8 @@ public class RegisterActivity extends AppCompatActivity {
         registerButton = findViewById(R.id.buttonRegister);
         loginRedirectButton = findViewById(R.id.buttonRedirectLogin);
 
-        // Initialisierung der Datenbank-Hilfsklasse
-        databaseHelper = new DatabaseHelper(this);
+        // Prozessweites Repository holen (Verbindung bleibt offen)
+        repository = TransactionRepository.getInstance(this);
 
         // Event-Handler für den Registrierungs-Button
         registerButton.setOnClickListener(view -> registerUser());
@@ -76,23 +73,29 @@ public class RegisterActivity extends AppCompatActivity {
             return;
         }
 
-        // Überprüfung, ob der Benutzername bereits existiert
-        if (isUsernameTaken(username)) {
-            Toast.makeText(this, "Benutzername existiert bereits!", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // Speichern des Benutzers in der Datenbank
-        long result = saveUserToDatabase(username, password);
-        if (result != -1) {
-            // Erfolgreiche Registrierung
-            Toast.makeText(this, "Registrierung erfolgreich!", Toast.LENGTH_SHORT).show();
-            startActivity(new Intent(this, LoginActivity.class)); // Weiterleitung zur Login-Aktivität
-            finish(); // Registrierungs-Aktivität beenden
-        } else {
-            // Fehler beim Speichern in der Datenbank
-            Toast.makeText(this, "Registrierung fehlgeschlagen!", Toast.LENGTH_SHORT).show();
-        }
+        // Überprüfung, ob der Benutzername bereits existiert, und Speichern im Hintergrund
+        registerButton.setEnabled(false);
+        repository.isUsernameTakenAsync(username, taken -> {
+            if (taken) {
+                Toast.makeText(this, "Benutzername existiert bereits!", Toast.LENGTH_SHORT).show();
+                registerButton.setEnabled(true);
+                return;
+            }
+
+            // Speichern des Benutzers in der Datenbank
+            repository.addUserAsync(username, password, result -> {
+                if (result != -1) {
+                    // Erfolgreiche Registrierung
+                    Toast.makeText(this, "Registrierung erfolgreich!", Toast.LENGTH_SHORT).show();
+                    startActivity(new Intent(this, LoginActivity.class)); // Weiterleitung zur Login-Aktivität
+                    finish(); // Registrierungs-Aktivität beenden
+                } else {
+                    // Fehler beim Speichern in der Datenbank
+                    Toast.makeText(this, "Registrierung fehlgeschlagen!", Toast.LENGTH_SHORT).show();
+                    registerButton.setEnabled(true);
+                }
+            });
+        });
     }
 
     /**
@@ -110,37 +113,4 @@ public class RegisterActivity extends AppCompatActivity {
         String passwordPattern = "^(?=.*[!@#$%^&*(),.?\":{}|<>])[A-Za-z\\d!@#$%^&*(),.?\":{}|<>]{8,}$";
         return password.matches(passwordPattern);
     }
-
-
-
-    /**
-     * Überprüft, ob ein Benutzername bereits in der Datenbank existiert.
-     *
-     * @param username Der Benutzername, der überprüft werden soll.
-     * @return true, wenn der Benutzername bereits existiert, andernfalls false.
-     */
-    private boolean isUsernameTaken(String username) {
-        SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        // Abfrage, ob der Benutzername in der Tabelle "users" existiert
-        Cursor cursor = db.rawQuery("SELECT * FROM users WHERE username=?", new String[]{username});
-        boolean exists = cursor.getCount() > 0; // Überprüfung, ob Ergebnisse vorliegen
-        cursor.close(); // Cursor schließen
-        return exists;
-    }
-
-    /**
-     * Speichert einen neuen Benutzer in der Datenbank.
-     *
-     * @param username Der Benutzername des neuen Benutzers.
-     * @param password Das Passwort des neuen Benutzers.
-     * @return Die ID der eingefügten Zeile oder -1, wenn ein Fehler auftritt.
-     */
-    private long saveUserToDatabase(String username, String password) {
-        SQLiteDatabase db = databaseHelper.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put("username", username); // Benutzername speichern
-        values.put("password", password); // Passwort speichern
-        return db.insert("users", null, values); // Einfügen der Daten in die Tabelle "users"
-    }
-
 }
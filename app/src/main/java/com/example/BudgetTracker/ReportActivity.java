@@ -1,7 +1,6 @@
 package com.example.BudgetTracker;
 
 import android.content.Intent;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.widget.Button;
 import android.widget.TextView;
@@ -13,7 +12,6 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class ReportActivity extends AppCompatActivity {
@@ -41,7 +39,7 @@ public class ReportActivity extends AppCompatActivity {
         buttonShowStatistics.setOnClickListener(v -> showStatistics()); // Aufruf der Statistik-Ansicht bei Klick
 
         // Initialisiere TransactionRepository
-        transactionRepository = new TransactionRepository(this);
+        transactionRepository = TransactionRepository.getInstance(this);
         userId = transactionRepository.getLoggedInUserId(); // Hole die ID des eingeloggt Benutzers
 
         // Überprüfe, ob Benutzer eingeloggt ist
@@ -55,40 +53,26 @@ public class ReportActivity extends AppCompatActivity {
         // Setze LayoutManager für RecyclerView
         reportRecyclerView.setLayoutManager(new LinearLayoutManager(this));
 
-        // Berichte laden
-        loadReport();
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Lade die Berichte erneut, wenn die Aktivität wieder sichtbar wird
+        // Berichte laden; danach hält der Adapter die Liste über die Änderungsmeldungen aktuell,
+        // auch für Änderungen, während die Aktivität nicht sichtbar ist
         loadReport();
     }
 
     private void loadReport() {
-        // Hole die Transaktionen des Benutzers (aktive Transaktionen)
-        Cursor cursor = transactionRepository.getTransactionsForUser(userId, true);
-
-        // Überprüfe, ob der Cursor null ist (z.B. bei einem Datenbankfehler)
-        if (cursor == null) {
-        //    Toast.makeText(this, R.string.error_loading_transactions, Toast.LENGTH_SHORT).show();
-            return;
+        // Initialisiere den Adapter, wenn er noch nicht gesetzt wurde; die Transaktionen werden seitenweise geladen
+        if (reportAdapter == null) {
+            reportAdapter = new TransactionAdapter(this, transactionRepository, userId, true);
+            reportAdapter.setOnItemCountChangedListener(this::showReportState);
+            reportRecyclerView.setAdapter(reportAdapter); // Setze den Adapter für RecyclerView
         }
+        reportAdapter.refresh(); // Anzahl und erste Seite neu laden
+    }
 
-        // Wenn es Transaktionen gibt, setze RecyclerView sichtbar und zeige Berichte an
-        if (cursor.getCount() > 0) {
+    // Zeigt die Berichte oder die leere Nachricht, sobald die Anzahl der Transaktionen bekannt ist
+    private void showReportState(int count) {
+        if (count > 0) {
             emptyReportView.setVisibility(TextView.GONE); // Verstecke die leere Bericht-Nachricht
             reportRecyclerView.setVisibility(RecyclerView.VISIBLE); // Zeige RecyclerView an
-
-            // Initialisiere den Adapter, wenn er noch nicht gesetzt wurde
-            if (reportAdapter == null) {
-                reportAdapter = new TransactionAdapter(this, cursor, transactionRepository);
-                reportRecyclerView.setAdapter(reportAdapter); // Setze den Adapter für RecyclerView
-            } else {
-                // Wenn der Adapter bereits existiert, aktualisiere den Cursor mit neuen Daten
-                reportAdapter.updateCursor(cursor);
-            }
         } else {
             // Wenn keine Transaktionen vorhanden sind, zeige die leere Nachricht an
             emptyReportView.setVisibility(TextView.VISIBLE);
@@ -97,64 +81,38 @@ public class ReportActivity extends AppCompatActivity {
     }
 
     private void showStatistics() {
-        // Hole die Monatsstatistiken des Benutzers
-        Cursor cursor = transactionRepository.getMonthlyStatistics(userId); // Methode, die Monatsstatistiken abruft
-        if (cursor == null || cursor.getCount() <= 0) {
+        // Hole die Monatsstatistiken des Benutzers im Hintergrund
+        transactionRepository.getMonthlyStatisticsAsync(userId, this::openStatistics);
+    }
+
+    private void openStatistics(List<MonthlyTotal> totals) {
+        if (totals.isEmpty()) {
             Toast.makeText(this, "Keine Daten für die Statistik verfügbar.", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        List<Float> einnahmen = new ArrayList<>(); // Liste für Einkommenswerte
-        List<Float> ausgaben = new ArrayList<>();  // Liste für Ausgabenwerte
-        List<String> labels = new ArrayList<>();   // Liste für Monatsbezeichner
-
-        // Iteriere über den Cursor und hole die Werte
-        while (cursor.moveToNext()) {
-            String month = cursor.getString(cursor.getColumnIndex("month")); // Monatsname
-            float income = cursor.getFloat(cursor.getColumnIndex("total_income")); // Gesamteinnahmen des Monats
-            float expense = cursor.getFloat(cursor.getColumnIndex("total_expense")); // Gesamtausgaben des Monats
-
-            labels.add(month);  // Monat zur Label-Liste hinzufügen
-            einnahmen.add(income); // Einkommen zur Einkommens-Liste hinzufügen
-            ausgaben.add(expense); // Ausgaben zur Ausgaben-Liste hinzufügen
-        }
-
-        cursor.close(); // Schließe den Cursor nach der Nutzung, um Ressourcen freizugeben
-
-        // Übergebe die gesammelten Daten an die StatisticsActivity
-        Intent intent = new Intent(this, StatisticsActivity.class);
-        intent.putExtra("einnahmen", convertToFloatArray(einnahmen)); // Einkommensdaten als Array
-        intent.putExtra("ausgaben", convertToFloatArray(ausgaben)); // Ausgabedaten als Array
-        intent.putExtra("labels", labels.toArray(new String[0])); // Labels als String-Array
-        startActivity(intent); // Starte die StatisticsActivity
-    }
-
-    // Hilfsmethode zum Konvertieren von Listen in Arrays
-    private float[] convertToFloatArray(List<Float> list) {
-        float[] array = new float[list.size()];
-        for (int i = 0; i < list.size(); i++) {
-            array[i] = list.get(i); // Liste in Array konvertieren
-        }
-        return array;
+        // Die StatisticsActivity lädt ihre Daten selbst, keine Übergabe per Intent
+        startActivity(new Intent(this, StatisticsActivity.class));
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Wenn der Adapter existiert, schließe den Cursor beim Zerstören der Activity
+        // Wenn der Adapter existiert, verwerfe noch laufende Ladevorgänge beim Zerstören der Activity
         if (reportAdapter != null) {
-            reportAdapter.closeCursor();
+            reportAdapter.release();
         }
     }
 
     // Methode zum Löschen einer Transaktion
     public void deleteTransaction(int transactionId) {
-        boolean deleted = transactionRepository.deleteTransaction(transactionId); // Lösche die Transaktion
-        if (deleted) {
-            Toast.makeText(this, "Transaktion gelöscht", Toast.LENGTH_SHORT).show();
-            loadReport();  // Lade die Berichte nach dem Löschen neu
-        } else {
-            Toast.makeText(this, "Fehler beim Löschen der Transaktion", Toast.LENGTH_SHORT).show();
-        }
+        // Lösche die Transaktion im Hintergrund
+        transactionRepository.deleteTransactionAsync(transactionId, deleted -> {
+            if (deleted) {
+                Toast.makeText(this, "Transaktion gelöscht", Toast.LENGTH_SHORT).show(); // Liste folgt über die Änderungsmeldung
+            } else {
+                Toast.makeText(this, "Fehler beim Löschen der Transaktion", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 }
@@ -0,0 +1,105 @@
+package com.example.BudgetTracker;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache vorkompilierter SQLiteStatements für häufig ausgeführtes SQL (Inserts, Updates, Deletes
+ * und skalare Abfragen).
+ *
+ * Jede SQL-Zeichenkette wird einmal kompiliert und danach nur noch mit neuen Argumenten gebunden.
+ * Ein Statement hält seine Bindungen selbst; deshalb wird es während Binden und Ausführen
+ * gesperrt. Verschiedene Statements können parallel aus mehreren Threads genutzt werden.
+ */
+final class StatementCache {
+
+    private final DatabaseHelper dbHelper;
+    private final Map<String, SQLiteStatement> statements = new ConcurrentHashMap<>();
+
+    StatementCache(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    // Führt eine Abfrage mit genau einer Ergebniszeile und -spalte aus (z. B. COUNT, COALESCE((SELECT ...), 0))
+    long simpleQueryForLong(String sql, Object... args) {
+        SQLiteStatement statement = get(sql);
+        synchronized (statement) {
+            bind(statement, args);
+            try {
+                return statement.simpleQueryForLong();
+            } finally {
+                statement.clearBindings(); // keine Zeichenketten über den Aufruf hinaus festhalten
+            }
+        }
+    }
+
+    // Liefert die rowid der neuen Zeile oder -1
+    long executeInsert(String sql, Object... args) {
+        SQLiteStatement statement = get(sql);
+        synchronized (statement) {
+            bind(statement, args);
+            try {
+                return statement.executeInsert();
+            } finally {
+                statement.clearBindings();
+            }
+        }
+    }
+
+    // Liefert die Anzahl geänderter bzw. gelöschter Zeilen
+    int executeUpdateDelete(String sql, Object... args) {
+        SQLiteStatement statement = get(sql);
+        synchronized (statement) {
+            bind(statement, args);
+            try {
+                return statement.executeUpdateDelete();
+            } finally {
+                statement.clearBindings();
+            }
+        }
+    }
+
+    // Schließt alle Statements, z. B. wenn die Datenbank geschlossen wird
+    void clear() {
+        for (SQLiteStatement statement : statements.values()) {
+            synchronized (statement) {
+                statement.close();
+            }
+        }
+        statements.clear();
+    }
+
+    private SQLiteStatement get(String sql) {
+        SQLiteStatement statement = statements.get(sql);
+        if (statement == null) {
+            SQLiteDatabase db = dbHelper.getWritableDatabase(); // Statements gehören zur offenen Verbindung
+            SQLiteStatement compiled = db.compileStatement(sql);
+            statement = statements.putIfAbsent(sql, compiled);
+            if (statement == null) {
+                statement = compiled;
+            } else {
+                compiled.close(); // ein anderer Thread war schneller
+            }
+        }
+        return statement;
+    }
+
+    private static void bind(SQLiteStatement statement, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            int index = i + 1; // Parameter beginnen bei 1
+            if (arg == null) {
+                statement.bindNull(index);
+            } else if (arg instanceof Long || arg instanceof Integer) {
+                statement.bindLong(index, ((Number) arg).longValue());
+            } else if (arg instanceof Double) {
+                statement.bindDouble(index, (Double) arg);
+            } else {
+                statement.bindString(index, arg.toString());
+            }
+        }
+    }
+}
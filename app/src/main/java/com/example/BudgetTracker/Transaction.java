@@ -4,18 +4,18 @@ public class Transaction {
 
     private int id; // Transaction ID
     private int type; // Transaction type (e.g., income or expense)
-    private double amount; // Amount of the transaction
-    private String category; // Category of the transaction (e.g., Food, Rent)
-    private String date; // Date of the transaction
+    private long amountCents; // Amount of the transaction in cents (negative for expenses)
+    private int categoryId; // Category id from the categories table (CategoryDictionary.NONE for none)
+    private long epochDay; // Date of the transaction as days since 1970-01-01
     private String description; // Description or additional information about the transaction
 
     // Constructor to initialize a new Transaction object with given parameters
-    public Transaction(int id, int type, double amount, String category, String date, String description) {
+    public Transaction(int id, int type, long amountCents, int categoryId, long epochDay, String description) {
         this.id = id; // Initialize transaction ID
         this.type = type; // Initialize transaction type (e.g., income or expense)
-        this.amount = amount; // Initialize amount
-        this.category = category; // Initialize category (e.g., Food, Rent)
-        this.date = date; // Initialize transaction date
+        this.amountCents = amountCents; // Initialize amount in cents
+        this.categoryId = categoryId; // Initialize category id
+        this.epochDay = epochDay; // Initialize transaction date
         this.description = description; // Initialize description
     }
 
@@ -31,24 +31,24 @@ public class Transaction {
         this.id = transactionId;
     }
 
-    // Getter for transaction amount
-    public double getAmount() {
-        return amount;
+    // Getter for transaction amount in cents
+    public long getAmountCents() {
+        return amountCents;
     }
 
-    // Setter for transaction amount
-    public void setAmount(double amount) {
-        this.amount = amount;
+    // Setter for transaction amount in cents
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
     }
 
-    // Getter for transaction category
-    public String getCategory() {
-        return category;
+    // Getter for transaction category id (resolve the name with CategoryDictionary)
+    public int getCategoryId() {
+        return categoryId;
     }
 
-    // Setter for transaction category
-    public void setCategory(String category) {
-        this.category = category;
+    // Setter for transaction category id
+    public void setCategoryId(int categoryId) {
+        this.categoryId = categoryId;
     }
 
     // Getter for transaction description
@@ -71,14 +71,14 @@ public class Transaction {
         this.type = type;
     }
 
-    // Getter for transaction date
-    public String getDate() {
-        return date;
+    // Getter for transaction date (days since 1970-01-01)
+    public long getEpochDay() {
+        return epochDay;
     }
 
-    // Setter for transaction date
-    public void setDate(String date) {
-        this.date = date;
+    // Setter for transaction date (days since 1970-01-01)
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
     }
 
 }
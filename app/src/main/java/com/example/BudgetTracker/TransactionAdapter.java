@@ -3,39 +3,93 @@ package com.example.BudgetTracker;
 import android.annotation.SuppressLint;
 import android.app.AlertDialog;
 import android.content.Context;
-import android.database.Cursor;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
+import java.time.format.DateTimeParseException;
 
 public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.ViewHolder> {
 
     private final Context context; // Kontext zum Zugriff auf Ressourcen und UI
-    private Cursor transactionsCursor; // Cursor, der die Transaktionsdaten enthält
     private final TransactionRepository transactionRepository; // Repository für Datenbankoperationen
+    private final PagedTransactionList transactions; // Seitenweise geladene Transaktionen
+    private final CategoryDictionary categories; // Kategorienamen zu den ids der Transaktionen
+    private final TransactionRepository.ChangeListener changeListener; // Änderungen aus dem Repository
+    private OnItemCountChangedListener onItemCountChangedListener; // Benachrichtigung, z. B. für die leere Ansicht
+
+    // Einmal aufgelöste Texte und Farben, damit das Binden nichts nachschlagen oder formatieren muss
+    private final TransactionRowFormat rowFormat;
+    private final String incomeText, expenseText, defaultCategory, defaultDescription;
+    private final int incomeColor, expenseColor;
+
+    // Rückmeldung, sobald die Anzahl der Transaktionen bekannt ist
+    public interface OnItemCountChangedListener {
+        void onItemCountChanged(int count);
+    }
 
-    // Konstanten für Spaltennamen in der Datenbank
-    private static final String COLUMN_TYPE = "type";
-    private static final String COLUMN_AMOUNT = "amount";
-    private static final String COLUMN_CATEGORY = "category";
-    private static final String COLUMN_DATE = "date";
-    private static final String COLUMN_DESCRIPTION = "description";
-
-    // Konstruktor, der den Kontext, den Cursor und das Repository initialisiert
-    public TransactionAdapter(Context context, Cursor cursor, TransactionRepository transactionRepository) {
+    // Konstruktor, der den Kontext, das Repository und die Sortierung initialisiert
+    public TransactionAdapter(Context context, TransactionRepository transactionRepository, int userId, boolean sortByDate) {
         this.context = context;
-        this.transactionsCursor = cursor;
         this.transactionRepository = transactionRepository;
+        this.categories = transactionRepository.getCategories();
+        this.rowFormat = TransactionRowFormat.from(context);
+        this.incomeText = context.getString(R.string.type_income);
+        this.expenseText = context.getString(R.string.type_expense);
+        this.defaultCategory = context.getString(R.string.default_category);
+        this.defaultDescription = context.getString(R.string.default_description);
+        this.incomeColor = ContextCompat.getColor(context, R.color.income_color);
+        this.expenseColor = ContextCompat.getColor(context, R.color.expense_color);
+        // Nur die gemeldeten Zeilen neu binden; Animationen und Scrollposition bleiben erhalten
+        AdapterListUpdateCallback updates = new AdapterListUpdateCallback(this);
+        this.transactions = new PagedTransactionList(transactionRepository, userId, sortByDate, new PagedTransactionList.Listener() {
+            @Override
+            public void onReloaded() {
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onCountChanged(int count) {
+                if (onItemCountChangedListener != null) {
+                    onItemCountChangedListener.onItemCountChanged(count);
+                }
+            }
+
+            @Override
+            public void onInserted(int position, int count) {
+                updates.onInserted(position, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                updates.onRemoved(position, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                updates.onMoved(fromPosition, toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                updates.onChanged(position, count, payload);
+            }
+        });
+        // Liste folgt jeder Änderung, egal von wo sie kommt; kein refresh() nach eigenen Änderungen nötig
+        this.changeListener = transactions::applyChanges;
+        transactionRepository.addChangeListener(changeListener);
+    }
+
+    public void setOnItemCountChangedListener(OnItemCountChangedListener listener) {
+        this.onItemCountChangedListener = listener;
     }
 
     // ViewHolder-Klasse zum Halten von Referenzen auf die Views
@@ -45,6 +99,22 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
         final TextView categoryTextView; // TextView für die Transaktionskategorie
         final TextView dateTextView; // TextView für das Transaktionsdatum
         final TextView descriptionTextView; // TextView für die Transaktionsbeschreibung
+        final Button deleteButton; // Button zum Löschen der Transaktion
+        final Button editButton; // Button zum Bearbeiten der Transaktion
+
+        // Wiederverwendete Puffer für die Texte; die TextView übernimmt beim setText eine Kopie
+        final StringBuilder amountText = new StringBuilder(32);
+        final StringBuilder categoryText = new StringBuilder(48);
+        final StringBuilder dateText = new StringBuilder(24);
+        final StringBuilder descriptionText = new StringBuilder(64);
+
+        TransactionSnapshot rows; // Seite der gebundenen Zeile oder null für einen Platzhalter
+        int row; // Zeile innerhalb von rows
+
+        // Gebundene Transaktion als Objekt, erst beim Klick angelegt; null für einen Platzhalter
+        Transaction transaction() {
+            return rows != null ? rows.get(row) : null;
+        }
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -54,6 +124,8 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
             categoryTextView = itemView.findViewById(R.id.textViewCategory);
             dateTextView = itemView.findViewById(R.id.textViewDate);
             descriptionTextView = itemView.findViewById(R.id.textViewDescription);
+            deleteButton = itemView.findViewById(R.id.buttonDeleteTransaction);
+            editButton = itemView.findViewById(R.id.buttonEditTransaction);
         }
     }
 
@@ -62,86 +134,72 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         // Layout für das Listenelement aufblähen und den ViewHolder erstellen
         View view = LayoutInflater.from(context).inflate(R.layout.item_transaction, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+
+        // ClickListener einmal je ViewHolder; sie lesen die gerade gebundene Transaktion (Platzhalter: keine Aktion)
+        View.OnClickListener edit = v -> {
+            Transaction transaction = holder.transaction();
+            if (transaction != null) {
+                openEditTransactionDialog(transaction); // Öffnet den Bearbeitungsdialog
+            }
+        };
+        holder.itemView.setOnClickListener(edit);
+        holder.editButton.setOnClickListener(edit);
+        holder.deleteButton.setOnClickListener(v -> {
+            Transaction transaction = holder.transaction();
+            if (transaction != null) {
+                confirmDelete(transaction);
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        // Überprüfen, ob der Cursor gültig ist und auf die richtige Position bewegt wird
-        if (transactionsCursor == null || transactionsCursor.isClosed() || !transactionsCursor.moveToPosition(position)) {
-            bindEmptyData(holder); // Leere Daten binden, wenn der Cursor ungültig ist
-            return;
-        }
-
-        // Abrufen der Daten aus dem Cursor anhand der Spaltenindizes
-        int typeIndex = transactionsCursor.getColumnIndex(COLUMN_TYPE);
-        int amountIndex = transactionsCursor.getColumnIndex(COLUMN_AMOUNT);
-        int categoryIndex = transactionsCursor.getColumnIndex(COLUMN_CATEGORY);
-        int dateIndex = transactionsCursor.getColumnIndex(COLUMN_DATE);
-        int descriptionIndex = transactionsCursor.getColumnIndex(COLUMN_DESCRIPTION);
-
-        // Überprüfen, ob die Indizes gültig sind, andernfalls leere Daten binden
-        if (typeIndex == -1 || amountIndex == -1 || categoryIndex == -1 || dateIndex == -1 || descriptionIndex == -1) {
-            bindEmptyData(holder);
+        // Seite der Zeile holen; null, solange die Seite noch geladen wird
+        TransactionSnapshot rows = transactions.pageAt(position);
+        if (rows == null) {
+            bindEmptyData(holder); // Platzhalter binden
             return;
         }
 
-        // Werte aus dem Cursor extrahieren und ein Transaction-Objekt erstellen
-        int type = transactionsCursor.getInt(typeIndex);
-        double amount = transactionsCursor.getDouble(amountIndex);
-        String category = transactionsCursor.getString(categoryIndex);
-        String date = transactionsCursor.getString(dateIndex);
-        String description = transactionsCursor.getString(descriptionIndex);
-        int id = transactionsCursor.getInt(transactionsCursor.getColumnIndex("id"));
-
-        Transaction transaction = new Transaction(id, type, amount, category, date, description);
-
-        // ClickListener für das Bearbeiten der Transaktion setzen
-        holder.itemView.setOnClickListener(v -> openEditTransactionDialog(transaction));
+        int row = PagedTransactionList.rowInPage(position);
+        holder.rows = rows; // Ziel der ClickListener aus onCreateViewHolder
+        holder.row = row;
+        boolean income = rows.type(row) == DatabaseHelper.EINNAHME;
+        String category = categories.name(rows.categoryId(row)); // Name aus dem Speicher, kein Datenbankzugriff
+        String description = rows.description(row);
 
         // Falls Kategorie oder Beschreibung null ist, Standardwerte setzen
-        category = (category != null) ? category : context.getString(R.string.default_category);
-        description = (description != null) ? description : context.getString(R.string.default_description);
-
-        // Text für jede TextView setzen
-        String typeText = (type == DatabaseHelper.EINNAHME)
-                ? context.getString(R.string.type_income)
-                : context.getString(R.string.type_expense);
+        category = (category != null) ? category : defaultCategory;
+        description = (description != null) ? description : defaultDescription;
 
-        holder.typeTextView.setText(typeText);
-        holder.amountTextView.setText(String.format(Locale.getDefault(), context.getString(R.string.amount_format), amount));
-        holder.categoryTextView.setText(context.getString(R.string.category_label, category));
-        holder.dateTextView.setText(context.getString(R.string.date_label, formatDate(date)));
-        holder.descriptionTextView.setText(context.getString(R.string.description_label, description));
+        // Text für jede TextView setzen; die Puffer des ViewHolders werden wiederverwendet
+        holder.typeTextView.setText(income ? incomeText : expenseText);
+        holder.amountTextView.setText(rowFormat.amount(holder.amountText, rows.amountCents(row)));
+        holder.categoryTextView.setText(rowFormat.category(holder.categoryText, category));
+        holder.dateTextView.setText(rowFormat.date(holder.dateText, rows.epochDay(row)));
+        holder.descriptionTextView.setText(rowFormat.description(holder.descriptionText, description));
 
         // Textfarbe basierend auf dem Transaktionstyp (Einnahme oder Ausgabe) setzen
-        int textColor = (type == DatabaseHelper.EINNAHME)
-                ? ContextCompat.getColor(context, R.color.income_color)
-                : ContextCompat.getColor(context, R.color.expense_color);
-        holder.amountTextView.setTextColor(textColor);
-
-        // Löschen-Button ClickListener
-        holder.itemView.findViewById(R.id.buttonDeleteTransaction).setOnClickListener(v -> {
-            new AlertDialog.Builder(context)
-                    .setTitle(R.string.delete_confirmation_title)
-                    .setMessage(R.string.delete_confirmation_message)
-                    .setPositiveButton(R.string.yes, (dialog, which) -> {
-                        // Transaktion löschen und Liste aktualisieren
-                        int transactionId = transactionsCursor.getInt(transactionsCursor.getColumnIndex("id"));
-                        boolean success = transactionRepository.deleteTransaction(transactionId);
+        holder.amountTextView.setTextColor(income ? incomeColor : expenseColor);
+    }
+
+    // Methode, um das Löschen einer Transaktion bestätigen zu lassen
+    private void confirmDelete(Transaction transaction) {
+        new AlertDialog.Builder(context)
+                .setTitle(R.string.delete_confirmation_title)
+                .setMessage(R.string.delete_confirmation_message)
+                .setPositiveButton(R.string.yes, (dialog, which) -> {
+                    // Transaktion im Hintergrund löschen; die Liste folgt über die Änderungsmeldung
+                    transactionRepository.deleteTransactionAsync(transaction.getId(), success -> {
                         if (!success) {
                             Toast.makeText(context, R.string.delete_error, Toast.LENGTH_SHORT).show();
                         }
-                        updateCursor(transactionRepository.getTransactionsForUser(transactionRepository.getLoggedInUserId(), true));
-                    })
-                    .setNegativeButton(R.string.no, null)
-                    .show();
-        });
-
-        // Bearbeiten-Button ClickListener
-        holder.itemView.findViewById(R.id.buttonEditTransaction).setOnClickListener(v -> {
-            openEditTransactionDialog(transaction); // Öffnet den Bearbeitungsdialog
-        });
+                    });
+                })
+                .setNegativeButton(R.string.no, null)
+                .show();
     }
 
     // Methode, um den Bearbeitungsdialog für eine Transaktion anzuzeigen
@@ -160,31 +218,34 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
         EditText descriptionEditText = dialogView.findViewById(R.id.descriptionEditText);
 
         // Aktuelle Werte für die Felder setzen
-        amountEditText.setText(String.valueOf(transaction.getAmount()));
-        categoryEditText.setText(transaction.getCategory());
-        dateEditText.setText(transaction.getDate());
+        amountEditText.setText(Money.toPlainString(transaction.getAmountCents()));
+        categoryEditText.setText(categories.name(transaction.getCategoryId()));
+        dateEditText.setText(EpochDay.toIso(transaction.getEpochDay()));
         descriptionEditText.setText(transaction.getDescription());
 
         // Speichern-Button ClickListener
         builder.setPositiveButton(R.string.save, (dialog, which) -> {
-            double newAmount = Double.parseDouble(amountEditText.getText().toString());
+            // Eingaben erst hier in Cent und Epochentag umrechnen
+            long newAmountCents;
+            long newEpochDay;
+            try {
+                newAmountCents = Money.parseCents(amountEditText.getText().toString());
+                newEpochDay = EpochDay.fromIso(dateEditText.getText().toString());
+            } catch (NumberFormatException | DateTimeParseException e) {
+                Toast.makeText(context, R.string.transaction_update_error, Toast.LENGTH_SHORT).show();
+                return;
+            }
             String newCategory = categoryEditText.getText().toString();
-            String newDate = dateEditText.getText().toString();
             String newDescription = descriptionEditText.getText().toString();
 
-            // Transaktion in der Datenbank aktualisieren
-            boolean updated = transactionRepository.updateTransaction(transaction.getId(), newAmount, newCategory, newDate, newDescription);
-            if (updated) {
-                Toast.makeText(context, R.string.transaction_updated, Toast.LENGTH_SHORT).show();
-                updateCursor(transactionRepository.getTransactionsForUser(transactionRepository.getLoggedInUserId(), true));
-
-                // Kontostand im DashboardActivity aktualisieren
-                if (context instanceof DashboardActivity) {
-                    ((DashboardActivity) context).updateBalance();
+            // Transaktion im Hintergrund aktualisieren; Liste und Kontostand folgen über die Änderungsmeldung
+            transactionRepository.updateTransactionAsync(transaction.getId(), newAmountCents, newCategory, newEpochDay, newDescription, updated -> {
+                if (updated) {
+                    Toast.makeText(context, R.string.transaction_updated, Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(context, R.string.transaction_update_error, Toast.LENGTH_SHORT).show();
                 }
-            } else {
-                Toast.makeText(context, R.string.transaction_update_error, Toast.LENGTH_SHORT).show();
-            }
+            });
         });
 
         // Abbrechen-Button ClickListener
@@ -196,41 +257,29 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
 
     @Override
     public int getItemCount() {
-        // Gibt die Anzahl der Elemente im Cursor zurück
-        return (transactionsCursor != null && !transactionsCursor.isClosed()) ? transactionsCursor.getCount() : 0;
+        // Gesamtanzahl der Transaktionen; noch nicht geladene Zeilen werden als Platzhalter gebunden
+        return transactions.size();
     }
 
-    // Methode, um den Cursor mit neuen Daten zu aktualisieren
-    public void updateCursor(Cursor newCursor) {
-        if (transactionsCursor != null && !transactionsCursor.isClosed()) {
-            transactionsCursor.close();
-        }
-        transactionsCursor = newCursor;
-        notifyDataSetChanged();
+    // Methode, um die Liste neu zu laden; gemeldet werden nur die Unterschiede
+    public void refresh() {
+        transactions.refresh();
     }
 
-    // Methode, um den Cursor zu schließen, wenn er nicht mehr benötigt wird
-    public void closeCursor() {
-        if (transactionsCursor != null && !transactionsCursor.isClosed()) {
-            transactionsCursor.close();
-            transactionsCursor = null;
-        }
+    // Methode, um die Liste auf passende Transaktionen zu beschränken (leere Eingabe = alle)
+    public void setSearch(String input) {
+        transactions.setSearch(input);
     }
 
-    // Methode zur Formatierung des Datums von "yyyy-MM-dd" nach "dd.MM.yyyy"
-    private String formatDate(String date) {
-        SimpleDateFormat dbFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        SimpleDateFormat userFormat = new SimpleDateFormat("dd.MM.yyyy", Locale.getDefault());
-        try {
-            return userFormat.format(dbFormat.parse(date));
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return date;
-        }
+    // Methode, um laufende Ladevorgänge zu beenden, wenn die Liste nicht mehr benötigt wird
+    public void release() {
+        transactionRepository.removeChangeListener(changeListener);
+        transactions.release();
     }
 
-    // Methode, um leere Daten zu binden, falls der Cursor ungültig ist
+    // Methode, um leere Daten zu binden, solange die Zeile noch nicht geladen ist
     private void bindEmptyData(ViewHolder holder) {
+        holder.rows = null; // keine Aktionen auf Platzhaltern, damit keine Transaktion aus einer früheren Bindung bearbeitet wird
         holder.typeTextView.setText("");
         holder.amountTextView.setText("");
         holder.categoryTextView.setText("");
@@ -0,0 +1,69 @@
+package com.example.BudgetTracker;
+
+public class TransactionChange {
+
+    public static final int INSERTED = 1; // A new transaction was added
+    public static final int UPDATED = 2; // Amount, category, date or description of a transaction changed
+    public static final int DELETED = 3; // A transaction was removed
+    public static final int RELOADED = 4; // Many transactions changed at once (e.g. CSV import); reload everything of the user
+
+    private final int kind; // One of INSERTED, UPDATED, DELETED, RELOADED
+    private final long version; // Data version after this change; increases with every change
+    private final int userId; // Owner of the changed transaction(s)
+    private final int transactionId; // ID of the changed transaction (0 for RELOADED)
+    private final Transaction transaction; // New values for INSERTED and UPDATED, null otherwise
+    private final long balanceDeltaCents; // Change of the user's balance caused by this change (0 for RELOADED)
+    private final long previousEpochDay; // Epoch day before UPDATED and DELETED, locates the row in date-sorted indexes
+
+    // Constructor to initialize a change as published by the repository
+    TransactionChange(int kind, long version, int userId, int transactionId, Transaction transaction, long balanceDeltaCents,
+                      long previousEpochDay) {
+        this.kind = kind;
+        this.version = version;
+        this.userId = userId;
+        this.transactionId = transactionId;
+        this.transaction = transaction;
+        this.balanceDeltaCents = balanceDeltaCents;
+        this.previousEpochDay = previousEpochDay;
+    }
+
+    // Copy of this change with the data version assigned on commit
+    TransactionChange withVersion(long version) {
+        return new TransactionChange(kind, version, userId, transactionId, transaction, balanceDeltaCents, previousEpochDay);
+    }
+
+    // Getter for the kind of change
+    public int getKind() {
+        return kind;
+    }
+
+    // Getter for the data version after this change
+    public long getVersion() {
+        return version;
+    }
+
+    // Getter for the user ID
+    public int getUserId() {
+        return userId;
+    }
+
+    // Getter for the transaction ID
+    public int getTransactionId() {
+        return transactionId;
+    }
+
+    // Getter for the new values (INSERTED and UPDATED only)
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    // Getter for the balance change in cents
+    public long getBalanceDeltaCents() {
+        return balanceDeltaCents;
+    }
+
+    // Getter for the epoch day before the change (UPDATED and DELETED only)
+    long getPreviousEpochDay() {
+        return previousEpochDay;
+    }
+}
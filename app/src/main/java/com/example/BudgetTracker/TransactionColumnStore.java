@@ -0,0 +1,378 @@
+package com.example.BudgetTracker;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Spaltenweiser Speicher der Transaktionen je Benutzer für Auswertungen.
+ *
+ * Statt eines Transaction-Objekts pro Zeile hält der Speicher parallele primitive Arrays
+ * (id, Epochentag, Betrag in Cent, Typ, Kategorie-id), sortiert nach Datum und id. Das sind etwa
+ * 21 Byte pro Zeile; Summen über Zeitraum und Kategorie laufen ohne Boxing direkt über die Arrays.
+ *
+ * Die Spalten werden beim ersten Zugriff aus der Datenbank gelesen und danach mit den festgeschriebenen
+ * Änderungen des {@link TransactionRepository} nachgeführt ({@link #apply}), in Versionsreihenfolge und
+ * erst nach dem Commit. Das Laden hält keine Schreibsperre: es liest in Abschnitten nach (Epochentag, id),
+ * während Schreiber weiterlaufen, und spielt danach alle Änderungen nach, die seit Beginn des Ladens
+ * festgeschrieben wurden. {@link #get(int)} greift auf die Datenbank zu und läuft deshalb nur im Hintergrund.
+ */
+public final class TransactionColumnStore {
+
+    public static final int ANY = -1; // Filterwert: alle Kategorien bzw. beide Typen
+
+    private static final int LOAD_CHUNK_ROWS = 10_000; // Zeilen je Abfrage; passt in ein CursorWindow, jede Abfrage sieht einen Stand
+
+    private static final String LOAD_SQL = "SELECT " + DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_TYPE + ", "
+            + DatabaseHelper.COLUMN_AMOUNT_CENTS + ", " + DatabaseHelper.COLUMN_CATEGORY_ID + ", " + DatabaseHelper.COLUMN_EPOCH_DAY
+            + " FROM " + DatabaseHelper.TABLE_TRANSACTIONS + " WHERE " + DatabaseHelper.COLUMN_USER_ID + " = ?"
+            + " AND " + DatabaseHelper.COLUMN_EPOCH_DAY + " >= ? AND (" + DatabaseHelper.COLUMN_EPOCH_DAY + " > ? OR " + DatabaseHelper.COLUMN_ID + " > ?)"
+            + " ORDER BY " + DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_ID + " LIMIT " + LOAD_CHUNK_ROWS;
+
+    private final DatabaseHelper dbHelper;
+    private final Map<Integer, Columns> users = new ConcurrentHashMap<>();
+    private final Map<Integer, Replay> loading = new HashMap<>(); // laufende Ladevorgänge; unter der Sperre von this
+    private final Object loadLock = new Object(); // nur ein Ladevorgang zugleich; Schreiber warten nie darauf
+
+    TransactionColumnStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Spalten des Benutzers; beim ersten Aufruf werden sie aus der Datenbank geladen (Hintergrund-Thread).
+     */
+    public Columns get(int userId) {
+        Columns columns = users.get(userId);
+        if (columns != null) {
+            return columns;
+        }
+        synchronized (loadLock) {
+            while ((columns = users.get(userId)) == null) {
+                load(userId);
+            }
+        }
+        return columns;
+    }
+
+    // Liest die Spalten ohne Schreibsperre und trägt sie mit den seither festgeschriebenen Änderungen ein
+    private void load(int userId) {
+        Replay replay = new Replay();
+        synchronized (this) {
+            loading.put(userId, replay); // ab hier sammelt apply() die Änderungen des Benutzers
+        }
+        try {
+            Columns columns = Columns.load(dbHelper.getReadableDatabase(), userId);
+            synchronized (this) {
+                if (!replay.reloaded) { // sonst (Import, invalidate) noch einmal laden
+                    columns.replay(replay.changes);
+                    users.put(userId, columns);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                loading.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * Übernimmt festgeschriebene Änderungen; das Repository ruft das nach jedem Commit in Versionsreihenfolge auf.
+     * Beträge tragen bereits die Vorzeichenregel (DatabaseHelper.normalizeAmount).
+     */
+    synchronized void apply(List<TransactionChange> changes) {
+        for (TransactionChange change : changes) {
+            int userId = change.getUserId();
+            Replay replay = loading.get(userId);
+            if (change.getKind() == TransactionChange.RELOADED) {
+                users.remove(userId);
+                if (replay != null) {
+                    replay.reloaded = true;
+                }
+                continue;
+            }
+            if (replay != null) {
+                replay.changes.add(change);
+            }
+            Columns columns = users.get(userId);
+            if (columns != null) {
+                columns.apply(change);
+            }
+        }
+    }
+
+    // Verwirft die Spalten des Benutzers, z. B. nach einem Massenimport; der nächste Zugriff lädt neu
+    synchronized void invalidate(int userId) {
+        users.remove(userId);
+        Replay replay = loading.get(userId);
+        if (replay != null) {
+            replay.reloaded = true;
+        }
+    }
+
+    // Gibt den Speicher aller Benutzer frei, z. B. beim Abmelden
+    synchronized void clear() {
+        users.clear();
+        for (Replay replay : loading.values()) {
+            replay.reloaded = true;
+        }
+    }
+
+    // Änderungen, die während eines Ladevorgangs festgeschrieben wurden
+    private static final class Replay {
+        final List<TransactionChange> changes = new ArrayList<>();
+        boolean reloaded; // Spalten verworfen, während geladen wurde: Ergebnis nicht eintragen
+    }
+
+    /**
+     * Transaktionen eines Benutzers als parallele Arrays, sortiert nach (Epochentag, id).
+     * Alle Methoden sind synchronisiert; Auswertungen sehen immer einen vollständigen Stand.
+     */
+    public static final class Columns {
+        private int size;
+        private int[] ids = new int[0];
+        private int[] epochDays = new int[0];
+        private long[] amountCents = new long[0];
+        private byte[] types = new byte[0];
+        private int[] categoryIds = new int[0];
+
+        /**
+         * Liest die Zeilen in Abschnitten nach (Epochentag, id). Jeder Abschnitt ist eine eigene Abfrage und damit ein
+         * eigener Stand: eine dazwischen verschobene Zeile kann doppelt vorkommen oder fehlen. Solche Zeilen haben
+         * eine Änderung nach Beginn des Ladens, und {@link #replay} stellt sie richtig.
+         */
+        static Columns load(SQLiteDatabase db, int userId) {
+            Columns columns = new Columns();
+            String[] args = {String.valueOf(userId), String.valueOf(Integer.MIN_VALUE), String.valueOf(Integer.MIN_VALUE), "0"};
+            while (true) {
+                try (Cursor cursor = db.rawQuery(LOAD_SQL, args)) {
+                    int count = cursor.getCount();
+                    columns.ensureCapacity(columns.size + count);
+                    while (cursor.moveToNext()) {
+                        int size = columns.size;
+                        columns.ids[size] = cursor.getInt(0);
+                        columns.types[size] = (byte) cursor.getInt(1);
+                        columns.amountCents[size] = cursor.getLong(2);
+                        columns.categoryIds[size] = cursor.getInt(3); // NULL -> 0 = keine Kategorie
+                        columns.epochDays[size] = cursor.getInt(4);
+                        columns.size++;
+                    }
+                    if (count < LOAD_CHUNK_ROWS) {
+                        return columns;
+                    }
+                }
+                int last = columns.size - 1;
+                args[1] = args[2] = String.valueOf(columns.epochDays[last]);
+                args[3] = String.valueOf(columns.ids[last]);
+            }
+        }
+
+        /**
+         * Spielt die während des Ladens festgeschriebenen Änderungen nach: alle Zeilen der betroffenen ids
+         * werden entfernt (auch doppelt gelesene) und mit ihrem letzten Stand neu einsortiert. Ein Durchlauf
+         * über die Arrays, danach eine Einfügung je geänderter id.
+         */
+        private void replay(List<TransactionChange> changes) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            Map<Integer, TransactionChange> latest = new LinkedHashMap<>();
+            for (TransactionChange change : changes) {
+                latest.put(change.getTransactionId(), change);
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!latest.containsKey(ids[i])) {
+                    ids[kept] = ids[i];
+                    types[kept] = types[i];
+                    amountCents[kept] = amountCents[i];
+                    categoryIds[kept] = categoryIds[i];
+                    epochDays[kept] = epochDays[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            for (TransactionChange change : latest.values()) {
+                Transaction transaction = change.getTransaction();
+                if (transaction != null) { // eingefügt oder geändert; gelöschte bleiben entfernt
+                    insertSorted(transaction.getId(), transaction.getType(), transaction.getAmountCents(),
+                            transaction.getCategoryId(), (int) transaction.getEpochDay());
+                }
+            }
+        }
+
+        public synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Summe der Beträge in Cent im Zeitraum [fromDay, toDay] (beide einschließlich).
+         * @param categoryId Kategorie-id, {@link CategoryDictionary#NONE} für Transaktionen ohne Kategorie oder {@link #ANY}
+         * @param type {@link DatabaseHelper#EINNAHME}, {@link DatabaseHelper#AUSGABE} oder {@link #ANY}
+         */
+        public synchronized long sumCents(long fromDay, long toDay, int categoryId, int type) {
+            long sum = 0;
+            int end = lowerBound(toDay + 1);
+            for (int i = lowerBound(fromDay); i < end; i++) {
+                if ((categoryId == ANY || categoryIds[i] == categoryId) && (type == ANY || types[i] == type)) {
+                    sum += amountCents[i];
+                }
+            }
+            return sum;
+        }
+
+        // Anzahl der Transaktionen im Zeitraum [fromDay, toDay] mit denselben Filtern wie sumCents
+        public synchronized int count(long fromDay, long toDay, int categoryId, int type) {
+            int count = 0;
+            int end = lowerBound(toDay + 1);
+            for (int i = lowerBound(fromDay); i < end; i++) {
+                if ((categoryId == ANY || categoryIds[i] == categoryId) && (type == ANY || types[i] == type)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Summen je Kategorie im Zeitraum [fromDay, toDay] (beide einschließlich), als Array nach Kategorie-id.
+         * Liest nur die Zeilen des Zeitraums (Binärsuche auf dem Datum) und sortiert nichts.
+         * @param type {@link DatabaseHelper#EINNAHME}, {@link DatabaseHelper#AUSGABE} oder {@link #ANY}
+         * @return Beträge in Cent mit Vorzeichen; Index 0 = ohne Kategorie
+         */
+        public synchronized long[] centsByCategory(long fromDay, long toDay, int type) {
+            long[] sums = new long[16];
+            int end = lowerBound(toDay + 1);
+            for (int i = lowerBound(fromDay); i < end; i++) {
+                if (type == ANY || types[i] == type) {
+                    int categoryId = categoryIds[i];
+                    if (categoryId >= sums.length) {
+                        sums = Arrays.copyOf(sums, Math.max(categoryId + 1, sums.length * 2));
+                    }
+                    sums[categoryId] += amountCents[i];
+                }
+            }
+            return sums;
+        }
+
+        /**
+         * Summen je Tag, Woche, Monat, Quartal, Jahr und Kategorie in einem parallelen Durchlauf.
+         * Die Sperre bleibt bis zum Ende gehalten: die Threads des Pools lesen die Arrays, Schreibmethoden warten.
+         */
+        public synchronized Aggregates aggregate() {
+            return Aggregates.compute(epochDays, amountCents, categoryIds, size, ForkJoinPool.commonPool());
+        }
+
+        // Wie aggregate, mit eigenem Pool und eigener Abschnittsgröße (Vergleichsmessungen)
+        synchronized Aggregates aggregateWith(ForkJoinPool pool, int chunkRows) {
+            return Aggregates.compute(epochDays, amountCents, categoryIds, size, pool, chunkRows);
+        }
+
+        // Eine festgeschriebene Änderung; die Zeile wird per Binärsuche über ihren bisherigen (Epochentag, id) gefunden
+        private synchronized void apply(TransactionChange change) {
+            Transaction transaction = change.getTransaction();
+            if (change.getKind() == TransactionChange.INSERTED) {
+                insertSorted(transaction.getId(), transaction.getType(), transaction.getAmountCents(),
+                        transaction.getCategoryId(), (int) transaction.getEpochDay());
+                return;
+            }
+            int index = indexOf(change.getPreviousEpochDay(), change.getTransactionId());
+            if (index < 0) {
+                return;
+            }
+            if (change.getKind() == TransactionChange.DELETED) {
+                removeAt(index);
+            } else if (epochDays[index] == transaction.getEpochDay()) {
+                amountCents[index] = transaction.getAmountCents(); // Position bleibt gleich
+                categoryIds[index] = transaction.getCategoryId();
+                types[index] = (byte) transaction.getType();
+            } else {
+                removeAt(index);
+                insertSorted(transaction.getId(), transaction.getType(), transaction.getAmountCents(),
+                        transaction.getCategoryId(), (int) transaction.getEpochDay());
+            }
+        }
+
+        // Erste Position mit einem Epochentag >= day
+        private int lowerBound(long day) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Position der Zeile (epochDay, id) per Binärsuche oder -1
+        private int indexOf(long epochDay, int id) {
+            int index = lowerBound(epochDay, id);
+            return index < size && epochDays[index] == epochDay && ids[index] == id ? index : -1;
+        }
+
+        // Erste Position mit (Epochentag, id) >= (day, id)
+        private int lowerBound(long day, int id) {
+            int low = lowerBound(day);
+            int high = lowerBound(day + 1);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[mid] < id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void insertSorted(int id, int type, long cents, int categoryId, int epochDay) {
+            // Hinter allen Zeilen mit kleinerem (Epochentag, id) einfügen; neue Zeilen landen meist am Ende
+            int index = lowerBound(epochDay, id);
+            ensureCapacity(size + 1);
+            int moved = size - index;
+            System.arraycopy(ids, index, ids, index + 1, moved);
+            System.arraycopy(epochDays, index, epochDays, index + 1, moved);
+            System.arraycopy(amountCents, index, amountCents, index + 1, moved);
+            System.arraycopy(types, index, types, index + 1, moved);
+            System.arraycopy(categoryIds, index, categoryIds, index + 1, moved);
+            ids[index] = id;
+            epochDays[index] = epochDay;
+            amountCents[index] = cents;
+            types[index] = (byte) type;
+            categoryIds[index] = categoryId;
+            size++;
+        }
+
+        private void removeAt(int index) {
+            int moved = size - index - 1;
+            System.arraycopy(ids, index + 1, ids, index, moved);
+            System.arraycopy(epochDays, index + 1, epochDays, index, moved);
+            System.arraycopy(amountCents, index + 1, amountCents, index, moved);
+            System.arraycopy(types, index + 1, types, index, moved);
+            System.arraycopy(categoryIds, index + 1, categoryIds, index, moved);
+            size--;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) {
+                return;
+            }
+            int grown = Math.max(capacity, ids.length + (ids.length >> 1) + 16);
+            ids = Arrays.copyOf(ids, grown);
+            epochDays = Arrays.copyOf(epochDays, grown);
+            amountCents = Arrays.copyOf(amountCents, grown);
+            types = Arrays.copyOf(types, grown);
+            categoryIds = Arrays.copyOf(categoryIds, grown);
+        }
+    }
+}
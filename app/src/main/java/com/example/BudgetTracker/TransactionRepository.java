@@ -1,83 +1,821 @@
 package com.example.BudgetTracker;
 
+import android.content.ComponentCallbacks2;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class TransactionRepository {
+    private static final String TAG = "TransactionRepository";
+
+    private static TransactionRepository instance; // ein Repository für alle Activities
+
+    // Begrenzter Pool für Datenbankzugriffe: zwei Threads (WAL erlaubt Lesen neben Schreiben), höchstens 64 wartende Aufgaben
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(64), runnable -> {
+        Thread thread = new Thread(runnable, "TransactionRepository");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true); // Threads beenden, wenn längere Zeit nichts zu tun ist
+    }
+
+    // Ergebnis eines asynchronen Aufrufs, immer auf dem Main-Thread zugestellt
+    public interface Callback<T> {
+        void onResult(T result);
+
+        default void onError(Exception e) {
+            Log.e(TAG, "Datenbankzugriff fehlgeschlagen", e);
+        }
+    }
+
+    // Write-Behind: höchstens so viele Schreibvorgänge je Gruppe bzw. so lange Wartezeit bis zum Commit
+    private static final int WRITE_BATCH_ROWS = 500;
+    private static final long WRITE_DELAY_MS = 20;
+    private static final int CACHED_RESULTS = 64; // Leseergebnisse im Cache, alle Benutzer zusammen
+
+    /**
+     * Empfänger von Änderungen an Transaktionen, immer auf dem Main-Thread und erst nach dem Commit.
+     * Die Änderungen eines Aufrufs sind nach {@link TransactionChange#getVersion()} aufsteigend sortiert.
+     */
+    public interface ChangeListener {
+        void onTransactionsChanged(List<TransactionChange> changes);
+    }
+
+    // SQL der Listenabfragen einmal erzeugen: gleiche Zeichenketten treffen den Statement-Cache der Verbindung,
+    // LIMIT/OFFSET sind deshalb Parameter statt Literale
+    private static final String[] PAGE_QUERIES = listQueries(false);
+    private static final String[] KEY_QUERIES = listQueries(true);
+    private static final String[] COUNT_AFTER_QUERIES = countAfterQueries();
+    private static final String RANGE_QUERY = "SELECT " + DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_TYPE + ", "
+            + DatabaseHelper.COLUMN_AMOUNT_CENTS + ", " + DatabaseHelper.COLUMN_CATEGORY_ID + ", " + DatabaseHelper.COLUMN_EPOCH_DAY + ", "
+            + DatabaseHelper.COLUMN_DESCRIPTION + " FROM " + DatabaseHelper.getTableTransactions()
+            + " WHERE " + DatabaseHelper.getColumnUserId() + " = ? AND " + DatabaseHelper.getColumnEpochDay() + " BETWEEN ? AND ?"
+            + " ORDER BY " + DatabaseHelper.getColumnEpochDay() + ", " + DatabaseHelper.COLUMN_ID + " LIMIT ?";
+
     private final DatabaseHelper dbHelper; // Instanz des DatabaseHelper, um auf die Datenbank zuzugreifen
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final TransactionColumnStore columnStore; // Spalten für Auswertungen, nach jedem Commit nachgeführt
+    private final DailyBalanceIndex balanceIndex; // Präfixsummen über Epochentage für Kontostand zu einem Datum
+    private final WriteBehindQueue writeQueue; // Gruppen-Commit der asynchronen Schreibvorgänge
+    private volatile boolean writeBehind; // true: asynchrone Schreibvorgänge laufen über writeQueue
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong dataVersion = new AtomicLong(); // steigt mit jeder festgeschriebenen Änderung
+    private final QueryCache queryCache = new QueryCache(CACHED_RESULTS); // Leseergebnisse je Benutzer, bis zur nächsten Änderung
+    private final Object materializeLock = new Object(); // Daueraufträge nur in einem Thread buchen
+    // Änderungen der laufenden Datenbanktransaktion je Thread, veröffentlicht erst nach dem äußersten Commit
+    private final ThreadLocal<List<TransactionChange>> uncommittedChanges = ThreadLocal.withInitial(ArrayList::new);
+
+    // Liefert das prozessweite Repository über der gemeinsamen Datenbankverbindung
+    public static synchronized TransactionRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new TransactionRepository(DatabaseHelper.getInstance(context));
+            instance.flushWhenHidden(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Sobald keine Activity mehr sichtbar ist, wartende Schreibvorgänge sofort festschreiben: ab dann kann der Prozess beendet werden
+    private void flushWhenHidden(Context appContext) {
+        appContext.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                    writeQueue.requestFlush();
+                }
+                if (level >= TRIM_MEMORY_BACKGROUND) {
+                    queryCache.clear();
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                writeQueue.requestFlush();
+                queryCache.clear();
+            }
+        });
+    }
+
+    // Konstruktor mit vorhandenem DatabaseHelper (z. B. In-Memory-Datenbank in Tests)
+    TransactionRepository(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.columnStore = new TransactionColumnStore(dbHelper);
+        this.balanceIndex = new DailyBalanceIndex(dbHelper);
+        this.writeQueue = new WriteBehindQueue(dbHelper, WRITE_BATCH_ROWS, WRITE_DELAY_MS, this::onGroupEnd);
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    // Version des zuletzt veröffentlichten Datenstands; unverändert heißt: seitdem keine Änderung
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    // Lesezugriffe, die der Ergebnis-Cache beantwortet hat bzw. die die Datenbank lesen mussten
+    public long getCacheHitCount() {
+        return queryCache.hitCount();
+    }
+
+    public long getCacheMissCount() {
+        return queryCache.missCount();
+    }
+
+    // Merkt eine Änderung der laufenden Transaktion vor
+    private void recordChange(int kind, int userId, int transactionId, Transaction transaction, long balanceDeltaCents) {
+        recordChange(kind, userId, transactionId, transaction, balanceDeltaCents, 0);
+    }
+
+    // previousEpochDay: bisheriger Tag bei UPDATED und DELETED, damit der Spaltenspeicher die Zeile per Binärsuche findet
+    private void recordChange(int kind, int userId, int transactionId, Transaction transaction, long balanceDeltaCents, long previousEpochDay) {
+        uncommittedChanges.get().add(new TransactionChange(kind, 0, userId, transactionId, transaction, balanceDeltaCents, previousEpochDay));
+    }
+
+    // Nach Commit bzw. Rollback der äußersten Transaktion: vorgemerkte Änderungen veröffentlichen oder verwerfen
+    private void endChanges(boolean committed) {
+        List<TransactionChange> pending = uncommittedChanges.get();
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<TransactionChange> changes = new ArrayList<>(pending.size());
+        if (committed) {
+            synchronized (dataVersion) { // Versionen eines Commits lückenlos hintereinander
+                for (TransactionChange change : pending) {
+                    queryCache.invalidate(change.getUserId()); // nach dem Commit: neu gelesene Ergebnisse enthalten die Änderung
+                    changes.add(change.withVersion(dataVersion.incrementAndGet()));
+                }
+                columnStore.apply(changes); // in Versionsreihenfolge, auch für gerade ladende Spalten
+            }
+        }
+        pending.clear();
+        if (!changes.isEmpty()) {
+            mainHandler.post(() -> {
+                for (ChangeListener listener : changeListeners) {
+                    listener.onTransactionsChanged(changes);
+                }
+            });
+        }
+    }
+
+    // Ende einer Write-Behind-Gruppe; nach einem Rollback enthalten die Präfixsummen die Deltas der
+    // zurückgerollten Vorgänge und werden verworfen, bevor die Warteschlange sie einzeln wiederholt
+    private void onGroupEnd(boolean committed) {
+        if (!committed) {
+            balanceIndex.clear();
+        }
+        endChanges(committed);
+    }
+
+    /**
+     * Schaltet Write-Behind ein oder aus (Standard: aus). Eingeschaltet werden add-, update- und deleteTransactionAsync
+     * gesammelt und gruppenweise in einer Transaktion geschrieben; ihr Callback kommt nach dem Commit.
+     * Wer eigene Schreibvorgänge sofort lesen muss, wartet vorher mit {@link #flushWritesAsync}.
+     * Eingereihte Vorgänge liegen nur im Speicher: stirbt der Prozess vor dem Commit, gehen sie verloren
+     * (ohne Callback). Daher nur für Schreibserien einschalten, z. B. automatisierte Buchungen, und danach wieder aus.
+     */
+    public void setWriteBehind(boolean enabled) {
+        writeBehind = enabled;
+        if (!enabled) {
+            writeQueue.requestFlush(); // bereits Eingereihtes nicht liegen lassen
+        }
+    }
+
+    // Wartet, bis alle bisher eingereihten Schreibvorgänge festgeschrieben sind (nur im Hintergrund aufrufen)
+    public void flushWrites() throws InterruptedException {
+        writeQueue.flush();
+    }
+
+    // Callback, sobald alle bisher eingereihten Schreibvorgänge festgeschrieben sind
+    public void flushWritesAsync(Callback<Void> callback) {
+        runAsync(() -> {
+            flushWrites();
+            return null;
+        }, callback);
+    }
+
+    // Schreibvorgang über die Write-Behind-Warteschlange oder direkt im Hintergrund
+    private void writeAsync(Supplier<Boolean> write, Callback<Boolean> callback) {
+        if (!writeBehind) {
+            runAsync(write::get, callback);
+            return;
+        }
+        writeQueue.submit(write, new WriteBehindQueue.Completion() {
+            @Override
+            public void onCommitted(boolean result) {
+                mainHandler.post(() -> callback.onResult(result));
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                mainHandler.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    // Führt einen Datenbankzugriff im Hintergrund aus und stellt Ergebnis oder Fehler auf dem Main-Thread zu
+    private <T> void runAsync(Callable<T> task, Callback<T> callback) {
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    T result = task.call();
+                    mainHandler.post(() -> callback.onResult(result));
+                } catch (Exception e) {
+                    mainHandler.post(() -> callback.onError(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Warteschlange voll: lieber melden als auf dem Main-Thread ausführen
+            mainHandler.post(() -> callback.onError(e));
+        }
+    }
+
+    // Asynchrone Varianten für die Activities; die synchronen Methoden nur im Hintergrund aufrufen
+
+    public void getMonthlyStatisticsAsync(int userId, Callback<List<MonthlyTotal>> callback) {
+        runAsync(() -> getMonthlyStatistics(userId), callback);
+    }
+
+    public void getBalanceAsync(int userId, Callback<Long> callback) {
+        runAsync(() -> getBalance(userId), callback);
+    }
+
+    public void getBalanceAsOfAsync(int userId, long epochDay, Callback<Long> callback) {
+        runAsync(() -> getBalanceAsOf(userId, epochDay), callback);
+    }
+
+    public void getNetFlowAsync(int userId, long fromDay, long toDay, Callback<Long> callback) {
+        runAsync(() -> getNetFlow(userId, fromDay, toDay), callback);
+    }
+
+    public void addTransactionAsync(int userId, int type, long amountCents, String category, long epochDay, String description, Callback<Boolean> callback) {
+        writeAsync(() -> addTransaction(userId, type, amountCents, category, epochDay, description), callback);
+    }
+
+    public void updateTransactionAsync(int id, long amountCents, String category, long epochDay, String description, Callback<Boolean> callback) {
+        writeAsync(() -> updateTransaction(id, amountCents, category, epochDay, description), callback);
+    }
+
+    public void deleteTransactionAsync(int transactionId, Callback<Boolean> callback) {
+        writeAsync(() -> deleteTransaction(transactionId), callback);
+    }
+
+    // Spalten des Benutzers im Hintergrund laden, damit die erste Auswertung nicht warten muss
+    public void preloadColumnsAsync(int userId) {
+        runAsync(() -> getColumns(userId), columns -> Log.d(TAG, "Spalten geladen: " + columns.size() + " Transaktionen"));
+    }
+
+    // Summe in Cent im Zeitraum [fromDay, toDay], gefiltert nach Kategorie und Typ (TransactionColumnStore.ANY für alle);
+    // enthält die geplanten Ausführungen der Daueraufträge im Zeitraum
+    public void sumCentsAsync(int userId, long fromDay, long toDay, int categoryId, int type, Callback<Long> callback) {
+        runAsync(() -> getColumns(userId).sumCents(fromDay, toDay, categoryId, type)
+                + plannedCents(userId, fromDay, toDay, categoryId, type), callback);
+    }
+
+    public void getAggregatesAsync(int userId, Callback<Aggregates> callback) {
+        runAsync(() -> getAggregates(userId), callback);
+    }
+
+    public void getCategoryBreakdownAsync(int userId, long fromDay, long toDay, long previousFromDay, long previousToDay, int topN,
+                                          Callback<CategoryBreakdown> callback) {
+        runAsync(() -> getCategoryBreakdown(userId, fromDay, toDay, previousFromDay, previousToDay, topN), callback);
+    }
+
+    public void getTransactionsBetweenAsync(int userId, long fromDay, long toDay, int limit, Callback<TransactionSnapshot> callback) {
+        runAsync(() -> getTransactionsBetween(userId, fromDay, toDay, limit), callback);
+    }
+
+    // Liefert die id des neuen Dauerauftrags; bereits fällige Ausführungen sind beim Callback gebucht
+    public void addRecurringRuleAsync(int userId, int type, long amountCents, String category, String description,
+                                      long startDay, long endDay, int unit, int every, Callback<Long> callback) {
+        runAsync(() -> addRecurringRule(userId, type, amountCents, category, description, startDay, endDay, unit, every), callback);
+    }
+
+    public void endRecurringRuleAsync(int userId, int ruleId, long lastDay, Callback<Boolean> callback) {
+        runAsync(() -> endRecurringRule(userId, ruleId, lastDay), callback);
+    }
+
+    // Bucht alle bis heute fälligen Ausführungen; liefert ihre Anzahl
+    public void materializeRecurringAsync(int userId, Callback<Integer> callback) {
+        runAsync(() -> materializeRecurring(userId, LocalDate.now().toEpochDay()), callback);
+    }
+
+    // Detailstufen für das Diagramm (Tag bis Jahr) aus den Summen von getAggregates
+    void getChartLevelsAsync(int userId, Callback<ChartSeries[]> callback) {
+        runAsync(() -> queryCache.get(userId, "chartLevels", () -> ChartSeries.levels(getAggregates(userId))), callback);
+    }
 
-    // Konstruktor, der den DatabaseHelper initialisiert
-    public TransactionRepository(Context context) {
-        this.dbHelper = new DatabaseHelper(context);
+    // Benutzer-ID zu den Anmeldedaten oder -1, wenn sie nicht stimmen
+    public void getUserIdAsync(String username, String password, Callback<Integer> callback) {
+        runAsync(() -> dbHelper.getUserId(username, password), callback);
     }
 
-    // Methode, um die monatlichen Statistiken (Einnahmen und Ausgaben) des Benutzers abzurufen
-    public Cursor getMonthlyStatistics(int userId) {
+    public void isUsernameTakenAsync(String username, Callback<Boolean> callback) {
+        runAsync(() -> dbHelper.isUsernameTaken(username), callback);
+    }
+
+    // Liefert die ID des neuen Benutzers oder -1 bei einem Fehler
+    public void addUserAsync(String username, String password, Callback<Long> callback) {
+        runAsync(() -> dbHelper.addUser(username, password), callback);
+    }
+
+    // Methode, um die monatlichen Statistiken (Einnahmen und Ausgaben in Cent) des Benutzers abzurufen
+    public List<MonthlyTotal> getMonthlyStatistics(int userId) {
+        return queryCache.get(userId, "monthlyStatistics", () -> Collections.unmodifiableList(loadMonthlyStatistics(userId)));
+    }
+
+    private List<MonthlyTotal> loadMonthlyStatistics(int userId) {
         SQLiteDatabase db = dbHelper.getReadableDatabase(); // Lesezugriff auf die Datenbank
 
-        // SQL-Abfrage, um die monatlichen Einnahmen und Ausgaben zu berechnen
-        String query = "SELECT strftime('%m', " + DatabaseHelper.getColumnDate() + ") AS month, " +
-                "SUM(CASE WHEN " + DatabaseHelper.getColumnAmount() + " > 0 THEN " + DatabaseHelper.getColumnAmount() + " ELSE 0 END) AS total_income, " +
-                "SUM(CASE WHEN " + DatabaseHelper.getColumnAmount() + " < 0 THEN " + DatabaseHelper.getColumnAmount() + " ELSE 0 END) AS total_expense " +
-                "FROM " + DatabaseHelper.getTableTransactions() +
-                " WHERE " + DatabaseHelper.getColumnUserId() + " = ? " + // Benutzer-ID als Parameter
-                "GROUP BY month " +
-                "ORDER BY month";
+        // Bereichszugriff auf den Primärschlüssel der Monatssummen, bereits nach Jahr und Monat sortiert
+        List<MonthlyTotal> totals = new ArrayList<>();
+        try (Cursor cursor = db.query(DatabaseHelper.TABLE_MONTHLY_ROLLUPS,
+                new String[]{DatabaseHelper.COLUMN_YEAR, DatabaseHelper.COLUMN_MONTH,
+                        DatabaseHelper.COLUMN_INCOME_CENTS, DatabaseHelper.COLUMN_EXPENSE_CENTS,
+                        DatabaseHelper.COLUMN_INCOME_COUNT, DatabaseHelper.COLUMN_EXPENSE_COUNT},
+                DatabaseHelper.getColumnUserId() + " = ?", new String[]{String.valueOf(userId)}, // Benutzer-ID als Parameter
+                null, null,
+                DatabaseHelper.COLUMN_YEAR + ", " + DatabaseHelper.COLUMN_MONTH)) {
+            while (cursor.moveToNext()) {
+                // Spaltenreihenfolge wie in der Projektion oben
+                totals.add(new MonthlyTotal(cursor.getInt(0), cursor.getInt(1), cursor.getLong(2), cursor.getLong(3), cursor.getInt(4), cursor.getInt(5)));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Einnahmen und Ausgaben je Tag, ISO-Woche, Monat, Quartal, Jahr und Kategorie, in einem Durchlauf
+     * über den Spaltenspeicher und auf mehrere Threads verteilt (nur im Hintergrund aufrufen).
+     */
+    public Aggregates getAggregates(int userId) {
+        return queryCache.get(userId, "aggregates", () -> getColumns(userId).aggregate());
+    }
+
+    /**
+     * Die {@code topN} Kategorien mit den höchsten Ausgaben in [fromDay, toDay], verglichen mit
+     * [previousFromDay, previousToDay]. Liest nur die Zeilen beider Zeiträume aus dem Spaltenspeicher
+     * (nur im Hintergrund aufrufen); die Kategorienamen sind danach geladen.
+     */
+    public CategoryBreakdown getCategoryBreakdown(int userId, long fromDay, long toDay, long previousFromDay, long previousToDay, int topN) {
+        return queryCache.get(userId, "categoryBreakdown", () -> {
+            TransactionColumnStore.Columns columns = getColumns(userId);
+            List<RecurringRule> rules = getRecurringRules(userId);
+            long[] current = negate(addPlanned(columns.centsByCategory(fromDay, toDay, DatabaseHelper.AUSGABE),
+                    rules, fromDay, toDay, DatabaseHelper.AUSGABE));
+            long[] previous = negate(addPlanned(columns.centsByCategory(previousFromDay, previousToDay, DatabaseHelper.AUSGABE),
+                    rules, previousFromDay, previousToDay, DatabaseHelper.AUSGABE));
+            dbHelper.getCategories().load(); // Namen für die Anzeige bereithalten
+            return CategoryBreakdown.of(fromDay, toDay, current, previous, topN);
+        }, fromDay, toDay, previousFromDay, previousToDay, topN);
+    }
+
+    // Geplante Ausführungen im Zeitraum zu den Summen je Kategorie-id addieren
+    private static long[] addPlanned(long[] sums, List<RecurringRule> rules, long fromDay, long toDay, int type) {
+        for (RecurringRule rule : rules) {
+            if (rule.getType() != type) {
+                continue;
+            }
+            long cents = rule.plannedCents(fromDay, toDay);
+            if (cents != 0) {
+                if (rule.getCategoryId() >= sums.length) {
+                    sums = Arrays.copyOf(sums, rule.getCategoryId() + 1);
+                }
+                sums[rule.getCategoryId()] += cents;
+            }
+        }
+        return sums;
+    }
+
+    // Ausgaben sind negativ gespeichert; die Auswertung zählt sie als Betrag
+    private static long[] negate(long[] cents) {
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = -cents[i];
+        }
+        return cents;
+    }
+
+    // Methode, um die Monatssummen aus den vorhandenen Transaktionen neu aufzubauen (Backfill)
+    public void rebuildMonthlyStatistics() {
+        dbHelper.rebuildMonthlyRollups();
+        queryCache.clear();
+    }
+
+    // Jede Sortierung endet mit der id, damit sie stabil ist und vollständig aus dem passenden
+    // Index (user_id, epoch_day, id) bzw. (user_id, amount_cents, id) gelesen wird
+    static String orderBy(boolean sortByDate) {
+        return sortByDate
+                ? DatabaseHelper.getColumnEpochDay() + " DESC, " + DatabaseHelper.COLUMN_ID + " DESC" // Sortieren nach Datum
+                : DatabaseHelper.getColumnAmountCents() + " ASC, " + DatabaseHelper.COLUMN_ID + " ASC"; // Sortieren nach Betrag
+    }
+
+    // Anzahl der Transaktionen eines Benutzers (Primärschlüssel-Zugriff auf die Kontostandstabelle)
+    public int getTransactionCount(int userId) {
+        return getTransactionCount(userId, null);
+    }
+
+    // Anzahl der Treffer einer Suche; ohne Suchbegriff alle Transaktionen des Benutzers
+    public int getTransactionCount(int userId, String matchQuery) {
+        return queryCache.get(userId, "count", () -> matchQuery == null
+                ? dbHelper.getTransactionCount(userId) : dbHelper.countSearchMatches(userId, matchQuery), matchQuery);
+    }
 
-        // Ausführen der SQL-Abfrage und Rückgabe des Cursors
-        return db.rawQuery(query, new String[]{String.valueOf(userId)});
+    /**
+     * Lädt eine Seite der Transaktionsliste per Keyset-Paginierung.
+     * @param matchQuery Volltextsuche aus {@link #toMatchQuery(String)} oder null für alle Transaktionen
+     * @param after Schlüssel der letzten Zeile der vorherigen Seite oder null für die erste Seite
+     */
+    public TransactionSnapshot getTransactionPage(int userId, boolean sortByDate, String matchQuery, PagedTransactionList.Key after, int limit) {
+        return queryCache.get(userId, "page", () -> loadTransactionPage(userId, sortByDate, matchQuery, after, limit),
+                sortByDate, matchQuery, after, limit);
     }
 
-    // Methode, um alle Transaktionen eines Benutzers abzurufen
-    public Cursor getTransactionsForUser(int userId, boolean sortByDate) {
+    private TransactionSnapshot loadTransactionPage(int userId, boolean sortByDate, String matchQuery, PagedTransactionList.Key after, int limit) {
         SQLiteDatabase db = dbHelper.getReadableDatabase(); // Lesezugriff auf die Datenbank
-        String orderBy = sortByDate ? DatabaseHelper.getColumnDate() + " DESC" : DatabaseHelper.getColumnAmount() + " ASC"; // Sortieren nach Datum oder Betrag
+        String sql = pageQuery(sortByDate, matchQuery, after);
+
+        TransactionSnapshot.Builder page = new TransactionSnapshot.Builder(Math.min(limit, PagedTransactionList.PAGE_SIZE));
+        try (Cursor cursor = db.rawQuery(sql, listArgs(userId, matchQuery, after, limit))) {
+            // Spaltenindizes einmal pro Cursor auflösen
+            int idIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID);
+            int typeIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_TYPE);
+            int amountIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_AMOUNT_CENTS);
+            int categoryIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_CATEGORY_ID);
+            int dayIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_EPOCH_DAY);
+            int descriptionIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DESCRIPTION);
+            while (cursor.moveToNext()) {
+                page.add(cursor.getInt(idIndex), cursor.getInt(typeIndex), cursor.getLong(amountIndex),
+                        cursor.getInt(categoryIndex), cursor.getLong(dayIndex), cursor.getString(descriptionIndex)); // NULL -> 0 = keine Kategorie
+            }
+        }
+        dbHelper.getCategories().load(); // Namen für die Anzeige bereithalten, bevor die Seite den Main-Thread erreicht
+        return page.build();
+    }
+
+    /**
+     * Liefert den Sortierschlüssel der Zeile, die {@code offset} Zeilen hinter {@code after} liegt.
+     * Ohne Suche liest die Abfrage nur den Index (user_id, epoch_day, id) bzw. (user_id, amount_cents, id), keine Tabellenzeilen.
+     */
+    public PagedTransactionList.Key getTransactionKeyAt(int userId, boolean sortByDate, String matchQuery, PagedTransactionList.Key after, int offset) {
+        return queryCache.get(userId, "keyAt", () -> {
+            SQLiteDatabase db = dbHelper.getReadableDatabase(); // Lesezugriff auf die Datenbank
+            String sql = keyQuery(sortByDate, matchQuery, after);
+            try (Cursor cursor = db.rawQuery(sql, listArgs(userId, matchQuery, after, offset))) {
+                return cursor.moveToFirst() ? new PagedTransactionList.Key(cursor.getLong(0), cursor.getLong(1)) : null;
+            }
+        }, sortByDate, matchQuery, after, offset);
+    }
+
+    /**
+     * Anzahl der Zeilen hinter {@code after} in Sortierrichtung; ohne Suche ein reiner Indexbereich.
+     * Daraus ergibt sich, wie viele Zeilen vor einem geladenen Ausschnitt der Liste liegen.
+     */
+    public int getTransactionCountAfter(int userId, boolean sortByDate, String matchQuery, PagedTransactionList.Key after) {
+        return queryCache.get(userId, "countAfter", () -> {
+            SQLiteDatabase db = dbHelper.getReadableDatabase(); // Lesezugriff auf die Datenbank
+            String sql = countAfterQuery(sortByDate, matchQuery);
+            List<String> args = keyArgs(userId, matchQuery, after);
+            return (int) DatabaseUtils.longForQuery(db, sql, args.toArray(new String[0]));
+        }, sortByDate, matchQuery, after);
+    }
+
+    /**
+     * Transaktionen in [fromDay, toDay] aufsteigend nach Datum, zusammen mit den geplanten Ausführungen der
+     * Daueraufträge in diesem Zeitraum (negative id, siehe {@link OccurrenceMerge#isPlanned}). Gelesen werden
+     * höchstens {@code limit} gespeicherte Zeilen aus dem Index (user_id, epoch_day, id); Ausführungen werden
+     * nur bis zum Ende des Ergebnisses erzeugt.
+     */
+    public TransactionSnapshot getTransactionsBetween(int userId, long fromDay, long toDay, int limit) {
+        return queryCache.get(userId, "between", () -> {
+            SQLiteDatabase db = dbHelper.getReadableDatabase(); // Lesezugriff auf die Datenbank
+            TransactionSnapshot.Builder stored = new TransactionSnapshot.Builder(Math.min(limit, PagedTransactionList.PAGE_SIZE));
+            try (Cursor cursor = db.rawQuery(RANGE_QUERY, new String[]{String.valueOf(userId), String.valueOf(fromDay),
+                    String.valueOf(toDay), String.valueOf(limit)})) {
+                while (cursor.moveToNext()) {
+                    // Spaltenreihenfolge wie in RANGE_QUERY; NULL -> 0 = keine Kategorie
+                    stored.add(cursor.getInt(0), cursor.getInt(1), cursor.getLong(2), cursor.getInt(3), cursor.getLong(4), cursor.getString(5));
+                }
+            }
+            TransactionSnapshot rows = OccurrenceMerge.merge(stored.build(), getRecurringRules(userId), fromDay, toDay, limit);
+            dbHelper.getCategories().load(); // Namen für die Anzeige bereithalten
+            return rows;
+        }, fromDay, toDay, limit);
+    }
+
+    /**
+     * Wandelt eine Sucheingabe in eine FTS-Abfrage um: jedes Wort wird als Präfix gesucht, alle Wörter
+     * müssen vorkommen ("ama pri" findet "Amazon Prime"). Sonderzeichen der FTS-Syntax werden entfernt.
+     * @return die Abfrage oder null, wenn die Eingabe kein Wort enthält
+     */
+    public static String toMatchQuery(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= input.length(); i++) {
+            char c = i < input.length() ? input.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                query.append(word).append('*'); // Präfixsuche
+                word.setLength(0);
+            }
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    // Bedingung "hinter dem Schlüssel" in Sortierrichtung; die Form a <= ? AND (a < ? OR id < ?) nutzt den Index als Bereich
+    private static String seekCondition(boolean sortByDate) {
+        return sortByDate
+                ? " AND " + DatabaseHelper.getColumnEpochDay() + " <= ? AND (" + DatabaseHelper.getColumnEpochDay() + " < ? OR " + DatabaseHelper.COLUMN_ID + " < ?)"
+                : " AND " + DatabaseHelper.getColumnAmountCents() + " >= ? AND (" + DatabaseHelper.getColumnAmountCents() + " > ? OR " + DatabaseHelper.COLUMN_ID + " > ?)";
+    }
+
+    // Argumente in der Reihenfolge der Platzhalter: Benutzer, Suche, Schlüssel, zuletzt LIMIT bzw. OFFSET
+    static String[] listArgs(int userId, String matchQuery, PagedTransactionList.Key after, int last) {
+        List<String> args = keyArgs(userId, matchQuery, after);
+        args.add(String.valueOf(last));
+        return args.toArray(new String[0]);
+    }
+
+    static List<String> keyArgs(int userId, String matchQuery, PagedTransactionList.Key after) {
+        List<String> args = new ArrayList<>(6);
+        args.add(String.valueOf(userId));
+        if (matchQuery != null) {
+            args.add(matchQuery);
+        }
+        if (after != null) {
+            String value = String.valueOf(after.value);
+            args.add(value);
+            args.add(value);
+            args.add(String.valueOf(after.id));
+        }
+        return args;
+    }
+
+    // SQL von getTransactionPage, getTransactionKeyAt und getTransactionCountAfter (auch für die Prüfung der Abfragepläne)
+    static String pageQuery(boolean sortByDate, String matchQuery, PagedTransactionList.Key after) {
+        return PAGE_QUERIES[queryIndex(sortByDate, matchQuery, after)];
+    }
+
+    static String keyQuery(boolean sortByDate, String matchQuery, PagedTransactionList.Key after) {
+        return KEY_QUERIES[queryIndex(sortByDate, matchQuery, after)];
+    }
+
+    static String countAfterQuery(boolean sortByDate, String matchQuery) {
+        return COUNT_AFTER_QUERIES[(sortByDate ? 0 : 2) + (matchQuery != null ? 1 : 0)];
+    }
+
+    // Index in PAGE_QUERIES/KEY_QUERIES: Sortierung x mit/ohne Suche x mit/ohne Startschlüssel
+    private static int queryIndex(boolean sortByDate, String matchQuery, PagedTransactionList.Key after) {
+        return (sortByDate ? 0 : 4) + (matchQuery != null ? 2 : 0) + (after != null ? 1 : 0);
+    }
 
-        // SQL-Abfrage, um die Transaktionen des Benutzers zu erhalten
-        return db.rawQuery(
-                "SELECT * FROM " + DatabaseHelper.getTableTransactions() +
-                        " WHERE " + DatabaseHelper.getColumnUserId() + " = ?" + // Benutzer-ID als Parameter
-                        " ORDER BY " + orderBy, // Sortierreihenfolge
-                new String[]{String.valueOf(userId)} // Parameter für Benutzer-ID
-        );
+    // Alle Varianten einer Listenabfrage in der Reihenfolge von queryIndex
+    private static String[] listQueries(boolean keysOnly) {
+        String[] queries = new String[8];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = listQuery(keysOnly, i < 4, (i & 2) != 0, (i & 1) != 0);
+        }
+        return queries;
+    }
+
+    // COUNT(*) hinter einem Schlüssel: Sortierung x mit/ohne Suche
+    private static String[] countAfterQueries() {
+        String[] queries = new String[4];
+        for (int i = 0; i < queries.length; i++) {
+            boolean sortByDate = i < 2;
+            queries[i] = "SELECT COUNT(*) FROM " + DatabaseHelper.getTableTransactions() +
+                    " WHERE " + DatabaseHelper.getColumnUserId() + " = ?" +
+                    ((i & 1) != 0 ? " AND " + DatabaseHelper.COLUMN_ID + " IN (" + DatabaseHelper.SQL_SEARCH_IDS + ")" : "") +
+                    seekCondition(sortByDate);
+        }
+        return queries;
+    }
+
+    private static String listQuery(boolean keysOnly, boolean sortByDate, boolean search, boolean seek) {
+        String columns = keysOnly
+                ? (sortByDate ? DatabaseHelper.getColumnEpochDay() : DatabaseHelper.getColumnAmountCents()) + ", " + DatabaseHelper.COLUMN_ID
+                : DatabaseHelper.COLUMN_ID + ", " + DatabaseHelper.COLUMN_TYPE + ", " + DatabaseHelper.COLUMN_AMOUNT_CENTS + ", " +
+                DatabaseHelper.COLUMN_CATEGORY_ID + ", " + DatabaseHelper.COLUMN_EPOCH_DAY + ", " + DatabaseHelper.COLUMN_DESCRIPTION;
+        return "SELECT " + columns +
+                " FROM " + DatabaseHelper.getTableTransactions() +
+                " WHERE " + DatabaseHelper.getColumnUserId() + " = ?" +
+                (search ? " AND " + DatabaseHelper.COLUMN_ID + " IN (" + DatabaseHelper.SQL_SEARCH_IDS + ")" : "") +
+                (seek ? seekCondition(sortByDate) : "") +
+                " ORDER BY " + orderBy(sortByDate) + (keysOnly ? " LIMIT 1 OFFSET ?" : " LIMIT ?");
     }
 
     // Methode, um eine Transaktion zu löschen
     public boolean deleteTransaction(int transactionId) {
-        SQLiteDatabase db = dbHelper.getWritableDatabase(); // Schreibzugriff auf die Datenbank
-        // Löschen der Transaktion mit der gegebenen ID
-        int rowsDeleted = db.delete(
-                DatabaseHelper.getTableTransactions(),
-                "id = ?", // Bedingung für das Löschen (ID der Transaktion)
-                new String[]{String.valueOf(transactionId)} // Transaktions-ID als Parameter
-        );
-        return rowsDeleted > 0; // Gibt true zurück, wenn die Transaktion erfolgreich gelöscht wurde
-    }
-
-    // Methode, um den aktuellen Kontostand des Benutzers abzurufen
-    public double getBalance(int userId) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase(); // Lesezugriff auf die Datenbank
+        return write(() -> {
+            long[] old = dbHelper.getTransactionValues(transactionId); // alter Stand für Präfixsummen-Index und Änderung
+            boolean deleted = dbHelper.deleteTransaction(transactionId);
+            if (deleted) {
+                if (old != null) {
+                    balanceIndex.apply((int) old[0], old[3], -old[2]);
+                    recordChange(TransactionChange.DELETED, (int) old[0], transactionId, null, -old[2], old[3]);
+                }
+            }
+            return deleted; // Gibt true zurück, wenn die Transaktion erfolgreich gelöscht wurde
+        });
+    }
+
+    /**
+     * Führt eine Schreiboperation in einer Datenbanktransaktion aus. Der Präfixsummen-Index wird innerhalb
+     * derselben Transaktion nachgeführt und verworfen, wenn das Schreiben fehlschlägt; der Spaltenspeicher
+     * übernimmt die Änderungen erst nach dem Commit (endChanges).
+     */
+    private boolean write(Supplier<Boolean> operation) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            boolean result;
+            db.beginTransaction();
+            try {
+                result = operation.get();
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            if (!db.inTransaction()) {
+                endChanges(true); // sonst veröffentlicht die äußere Transaktion (z. B. eine Write-Behind-Gruppe)
+            }
+            return result;
+        } catch (RuntimeException e) {
+            balanceIndex.clear();
+            if (!db.inTransaction()) {
+                endChanges(false);
+            }
+            throw e;
+        }
+    }
+
+    // Spaltenweiser Stand aller Transaktionen des Benutzers (lädt beim ersten Aufruf, nur im Hintergrund aufrufen)
+    public TransactionColumnStore.Columns getColumns(int userId) {
+        return columnStore.get(userId);
+    }
+
+    // Methode, um den aktuellen Kontostand des Benutzers in Cent abzurufen (Primärschlüssel-Zugriff, unabhängig von der Historie)
+    public long getBalance(int userId) {
+        return queryCache.get(userId, "balance", () -> dbHelper.getBalance(userId));
+    }
+
+    // Kontostand in Cent nach allen Buchungen bis einschließlich epochDay, in O(log n) aus dem Präfixsummen-Index;
+    // liegt epochDay in der Zukunft, sind die bis dahin geplanten Ausführungen der Daueraufträge enthalten
+    public long getBalanceAsOf(int userId, long epochDay) {
+        return balanceIndex.balanceAsOf(userId, epochDay) + plannedCents(userId, Long.MIN_VALUE, epochDay, TransactionColumnStore.ANY, TransactionColumnStore.ANY);
+    }
+
+    // Saldo in Cent aller Buchungen von fromDay bis toDay (beide einschließlich), in O(log n), mit geplanten Ausführungen
+    public long getNetFlow(int userId, long fromDay, long toDay) {
+        return balanceIndex.netFlow(userId, fromDay, toDay) + plannedCents(userId, fromDay, toDay, TransactionColumnStore.ANY, TransactionColumnStore.ANY);
+    }
+
+    // Daueraufträge des Benutzers (nur im Hintergrund aufrufen)
+    public List<RecurringRule> getRecurringRules(int userId) {
+        return queryCache.get(userId, "recurringRules", () -> Collections.unmodifiableList(dbHelper.getRecurringRules(userId)));
+    }
 
-        // SQL-Abfrage, um die Summe der Transaktionsbeträge des Benutzers zu berechnen
-        String query = "SELECT SUM(" + DatabaseHelper.getColumnAmount() + ") AS balance FROM " + DatabaseHelper.getTableTransactions() +
-                " WHERE " + DatabaseHelper.getColumnUserId() + " = ?";
-        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(userId)}); // Ausführen der Abfrage
+    // Summe der noch nicht gebuchten Ausführungen in [fromDay, toDay]; je Auftrag ein Rechenschritt, unabhängig von der Anzahl
+    private long plannedCents(int userId, long fromDay, long toDay, int categoryId, int type) {
+        long sum = 0;
+        for (RecurringRule rule : getRecurringRules(userId)) {
+            if ((categoryId == TransactionColumnStore.ANY || rule.getCategoryId() == categoryId)
+                    && (type == TransactionColumnStore.ANY || rule.getType() == type)) {
+                sum += rule.plannedCents(fromDay, toDay);
+            }
+        }
+        return sum;
+    }
 
-        double balance = 0.0; // Standardwert für das Guthaben
-        if (cursor != null && cursor.moveToFirst()) { // Wenn der Cursor nicht leer ist
-            balance = cursor.getDouble(cursor.getColumnIndexOrThrow("balance")); // Guthaben aus dem Cursor lesen
-            cursor.close(); // Cursor schließen, wenn er nicht mehr benötigt wird
+    /**
+     * Legt einen Dauerauftrag an und bucht sofort die Ausführungen bis heute (z. B. bei einem Starttag in der
+     * Vergangenheit). Spätere Ausführungen bleiben geplant, bis {@link #materializeRecurring} sie bucht.
+     * @param endDay letzter möglicher Tag oder {@link RecurringRule#OPEN_END}
+     * @return id des Auftrags oder -1
+     */
+    public long addRecurringRule(int userId, int type, long amountCents, String category, String description,
+                                 long startDay, long endDay, int unit, int every) {
+        int categoryId = dbHelper.getCategories().idFor(category);
+        long id = dbHelper.addRecurringRule(userId, type, amountCents, categoryId, description, startDay, endDay, unit, every);
+        queryCache.invalidate(userId); // Planungen enthalten den neuen Auftrag
+        if (id != -1) {
+            materializeRecurring(userId, LocalDate.now().toEpochDay());
         }
+        return id;
+    }
+
+    // Beendet einen Dauerauftrag nach lastDay; bereits gebuchte Ausführungen bleiben erhalten
+    public boolean endRecurringRule(int userId, int ruleId, long lastDay) {
+        boolean ended = dbHelper.endRecurringRule(ruleId, lastDay);
+        queryCache.invalidate(userId);
+        return ended;
+    }
 
-        return balance; // Rückgabe des berechneten Guthabens
+    /**
+     * Bucht alle Ausführungen bis einschließlich today als Transaktionen, je Schreibtransaktion höchstens
+     * WRITE_BATCH_ROWS. Zeilen und Fortschritt des Auftrags (next_index) werden zusammen festgeschrieben,
+     * eine Ausführung wird also nie doppelt oder gar nicht gebucht. Nur im Hintergrund aufrufen.
+     * @return Anzahl der neu gebuchten Ausführungen
+     */
+    public int materializeRecurring(int userId, long today) {
+        synchronized (materializeLock) { // zwei gleichzeitige Aufrufe würden dieselben Ausführungen buchen
+            int booked = 0;
+            for (RecurringRule rule : dbHelper.getRecurringRules(userId)) { // aktueller Fortschritt, nicht aus dem Cache
+                long end = Math.min(rule.endIndex(), rule.firstIndexFrom(today + 1));
+                for (long first = rule.getNextIndex(); first < end; first += WRITE_BATCH_ROWS) {
+                    long from = first;
+                    long to = Math.min(end, first + WRITE_BATCH_ROWS);
+                    write(() -> {
+                        for (long n = from; n < to; n++) {
+                            insertTransaction(userId, rule.getType(), rule.getAmountCents(), rule.getCategoryId(),
+                                    rule.occurrence(n), rule.getDescription());
+                        }
+                        return dbHelper.setRecurringRuleNextIndex(rule.getId(), to);
+                    });
+                    booked += (int) (to - from);
+                }
+            }
+            return booked;
+        }
+    }
+
+    // Methode, um die Kontostandstabelle gegen die Live-Summen zu prüfen und neu aufzubauen
+    public boolean verifyBalances() {
+        boolean consistent = dbHelper.verifyAndRebuildBalances();
+        queryCache.clear();
+        return consistent;
+    }
+
+    // Methode, um eine neue Transaktion hinzuzufügen; eine neue Kategorie wird dabei angelegt
+    public boolean addTransaction(int userId, int type, long amountCents, String category, long epochDay, String description) {
+        int categoryId = dbHelper.getCategories().idFor(category);
+        long cents = DatabaseHelper.normalizeAmount(type, amountCents);
+        return write(() -> insertTransaction(userId, type, cents, categoryId, epochDay, description) != -1); // true, wenn hinzugefügt
+    }
+
+    // Schreibt eine Transaktion und führt Präfixsummen und Änderungen nach (innerhalb von write)
+    private long insertTransaction(int userId, int type, long cents, int categoryId, long epochDay, String description) {
+        long id = dbHelper.addTransaction(userId, type, cents, categoryId, epochDay, description);
+        if (id != -1) {
+            balanceIndex.apply(userId, epochDay, cents);
+            recordChange(TransactionChange.INSERTED, userId, (int) id,
+                    new Transaction((int) id, type, cents, categoryId, epochDay, description), cents);
+        }
+        return id;
+    }
+
+    // Methode, um einen CSV-Kontoauszug zu importieren (blockiert, nur im Hintergrund aufrufen)
+    public CsvImporter.Result importCsv(int userId, InputStream in, String source, CsvImporter.ProgressListener listener) throws IOException {
+        try {
+            return new CsvImporter(dbHelper, userId).importCsv(in, source, listener);
+        } finally {
+            columnStore.invalidate(userId); // auch ein abgebrochener Import hat bereits Batches geschrieben
+            balanceIndex.invalidate(userId);
+            recordChange(TransactionChange.RELOADED, userId, 0, null, 0);
+            endChanges(true);
+        }
     }
 
-    // Methode, um eine neue Transaktion hinzuzufügen
-    public boolean addTransaction(int userId, int type, double amount, String category, String date, String description) {
-        dbHelper.addTransaction(userId, type, amount, category, date, description); // Transaktion in die Datenbank hinzufügen
-        return true; // Gibt true zurück, wenn die Transaktion erfolgreich hinzugefügt wurde
+    // Kategorienamen zu den ids der geladenen Transaktionen
+    public CategoryDictionary getCategories() {
+        return dbHelper.getCategories();
     }
 
     // Methode, um die ID des aktuell angemeldeten Benutzers abzurufen
@@ -88,19 +826,29 @@ public class TransactionRepository {
     // Methode, um den Benutzer abzumelden
     public void logout() {
         dbHelper.logout(); // Abmelden des Benutzers
+        columnStore.clear();
+        balanceIndex.clear();
+        queryCache.clear();
     }
 
     // Methode, um eine Transaktion zu aktualisieren
-    public boolean updateTransaction(int id, double amount, String category, String date, String description) {
-        SQLiteDatabase db = dbHelper.getWritableDatabase(); // Schreibzugriff auf die Datenbank
-        ContentValues contentValues = new ContentValues(); // ContentValues für die neuen Werte
-        contentValues.put("amount", amount); // Betrag setzen
-        contentValues.put("category", category); // Kategorie setzen
-        contentValues.put("date", date); // Datum setzen
-        contentValues.put("description", description); // Beschreibung setzen
-
-        // SQL-Abfrage, um die Transaktion mit der gegebenen ID zu aktualisieren
-        int result = db.update(DatabaseHelper.getTableTransactions(), contentValues, "id = ?", new String[]{String.valueOf(id)});
-        return result > 0; // Gibt true zurück, wenn die Transaktion erfolgreich aktualisiert wurde
+    public boolean updateTransaction(int id, long amountCents, String category, long epochDay, String description) {
+        int categoryId = dbHelper.getCategories().idFor(category);
+        return write(() -> {
+            long[] old = dbHelper.getTransactionValues(id); // alter Stand für Präfixsummen-Index und Änderung
+            if (old == null) {
+                return false;
+            }
+            // Der Typ bleibt beim Bearbeiten erhalten; der Betrag bekommt dessen Vorzeichen wie beim Hinzufügen
+            long cents = DatabaseHelper.normalizeAmount((int) old[1], amountCents);
+            boolean updated = dbHelper.updateTransaction(id, cents, categoryId, epochDay, description);
+            if (updated) {
+                balanceIndex.apply((int) old[0], old[3], -old[2]);
+                balanceIndex.apply((int) old[0], epochDay, cents);
+                recordChange(TransactionChange.UPDATED, (int) old[0], id,
+                        new Transaction(id, (int) old[1], cents, categoryId, epochDay, description), cents - old[2], old[3]);
+            }
+            return updated; // Gibt true zurück, wenn die Transaktion erfolgreich aktualisiert wurde
+        });
     }
 }
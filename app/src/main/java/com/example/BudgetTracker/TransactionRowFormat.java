@@ -0,0 +1,72 @@
+package com.example.BudgetTracker;
+
+import android.content.Context;
+
+import java.util.Locale;
+
+/**
+ * Texte einer Transaktionszeile, zusammengesetzt in wiederverwendete StringBuilder.
+ *
+ * Die Formatvorlagen (z. B. "Betrag: %.2f €") werden einmal in Text vor und hinter dem Platzhalter
+ * zerlegt; Beträge und Datum hängt das {@link DisplayFormat} der Locale an.
+ * Beim Binden entsteht so kein Objekt außer dem Text, den die TextView selbst übernimmt.
+ */
+final class TransactionRowFormat {
+
+    private final String amountPrefix, amountSuffix;
+    private final String categoryPrefix, categorySuffix;
+    private final String datePrefix, dateSuffix;
+    private final String descriptionPrefix, descriptionSuffix;
+    private final DisplayFormat format;
+
+    TransactionRowFormat(String amountFormat, String categoryFormat, String dateFormat, String descriptionFormat, Locale locale) {
+        String[] amount = split(amountFormat, "%.2f");
+        String[] category = split(categoryFormat, "%s");
+        String[] date = split(dateFormat, "%s");
+        String[] description = split(descriptionFormat, "%s");
+        amountPrefix = amount[0];
+        amountSuffix = amount[1];
+        categoryPrefix = category[0];
+        categorySuffix = category[1];
+        datePrefix = date[0];
+        dateSuffix = date[1];
+        descriptionPrefix = description[0];
+        descriptionSuffix = description[1];
+        format = DisplayFormat.of(locale);
+    }
+
+    static TransactionRowFormat from(Context context) {
+        return new TransactionRowFormat(context.getString(R.string.amount_format), context.getString(R.string.category_label),
+                context.getString(R.string.date_label), context.getString(R.string.description_label), Locale.getDefault());
+    }
+
+    StringBuilder amount(StringBuilder out, long cents) {
+        out.setLength(0);
+        return format.appendEuros(out.append(amountPrefix), cents).append(amountSuffix);
+    }
+
+    StringBuilder category(StringBuilder out, String name) {
+        out.setLength(0);
+        return out.append(categoryPrefix).append(name).append(categorySuffix);
+    }
+
+    StringBuilder date(StringBuilder out, long epochDay) {
+        out.setLength(0);
+        return format.appendDate(out.append(datePrefix), epochDay).append(dateSuffix);
+    }
+
+    StringBuilder description(StringBuilder out, String description) {
+        out.setLength(0);
+        return out.append(descriptionPrefix).append(description).append(descriptionSuffix);
+    }
+
+    // Zerlegt eine Formatvorlage am Platzhalter; "%%" wird wie bei String.format zu "%"
+    private static String[] split(String format, String placeholder) {
+        int index = format.indexOf(placeholder);
+        if (index < 0) {
+            throw new IllegalArgumentException("Platzhalter " + placeholder + " fehlt in: " + format);
+        }
+        return new String[]{format.substring(0, index).replace("%%", "%"),
+                format.substring(index + placeholder.length()).replace("%%", "%")};
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.BudgetTracker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unveränderlicher Ausschnitt der Transaktionsliste in parallelen primitiven Arrays.
+ *
+ * Kategorien liegen ohnehin als ids vor; Beschreibungen werden je Ausschnitt über ein Wörterbuch codiert,
+ * wiederkehrende Texte (Daueraufträge, Händler) belegen dadurch nur einmal Speicher. Eine Zeile kostet so
+ * etwa 30 Byte statt eines Transaction-Objekts samt Zeichenkette bzw. eines CursorWindow-Eintrags, und
+ * der Ausschnitt bleibt gültig, solange er referenziert wird, ganz ohne offenen Cursor.
+ * Wird im Hintergrund gebaut und danach nur noch gelesen; Änderungen erzeugen eine Kopie.
+ */
+public final class TransactionSnapshot {
+
+    private final int[] ids;
+    private final byte[] types;
+    private final long[] amountCents;
+    private final long[] epochDays;
+    private final int[] categoryIds;
+    private final int[] descriptionCodes; // Index in descriptions; -1 für keine Beschreibung
+    private final String[] descriptions;
+
+    private TransactionSnapshot(int[] ids, byte[] types, long[] amountCents, long[] epochDays, int[] categoryIds,
+                                int[] descriptionCodes, String[] descriptions) {
+        this.ids = ids;
+        this.types = types;
+        this.amountCents = amountCents;
+        this.epochDays = epochDays;
+        this.categoryIds = categoryIds;
+        this.descriptionCodes = descriptionCodes;
+        this.descriptions = descriptions;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public int type(int index) {
+        return types[index];
+    }
+
+    public long amountCents(int index) {
+        return amountCents[index];
+    }
+
+    public long epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public int categoryId(int index) {
+        return categoryIds[index];
+    }
+
+    public String description(int index) {
+        int code = descriptionCodes[index];
+        return code < 0 ? null : descriptions[code];
+    }
+
+    // Zeile als Objekt, z. B. für den Bearbeitungsdialog; nicht beim Binden verwenden
+    public Transaction get(int index) {
+        return new Transaction(ids[index], types[index], amountCents[index], categoryIds[index], epochDays[index], description(index));
+    }
+
+    // Position der Transaktion mit der id oder -1
+    public int indexOf(int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // true, wenn beide Zeilen dasselbe anzeigen
+    boolean sameContent(int index, TransactionSnapshot other, int otherIndex) {
+        return types[index] == other.types[otherIndex] && amountCents[index] == other.amountCents[otherIndex]
+                && categoryIds[index] == other.categoryIds[otherIndex] && epochDays[index] == other.epochDays[otherIndex]
+                && equal(description(index), other.description(otherIndex));
+    }
+
+    // Kopie, in der eine Zeile durch neue Werte ersetzt ist
+    TransactionSnapshot with(int index, Transaction row) {
+        Builder builder = new Builder(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            if (i == index) {
+                builder.add(row.getId(), row.getType(), row.getAmountCents(), row.getCategoryId(), row.getEpochDay(), row.getDescription());
+            } else {
+                builder.add(this, i);
+            }
+        }
+        return builder.build();
+    }
+
+    // Zeilen from (einschließlich) bis to (ausschließlich) als eigener Ausschnitt
+    TransactionSnapshot slice(int from, int to) {
+        Builder builder = new Builder(to - from);
+        for (int i = from; i < to; i++) {
+            builder.add(this, i);
+        }
+        return builder.build();
+    }
+
+    // Mehrere Ausschnitte hintereinander
+    static TransactionSnapshot concat(List<TransactionSnapshot> parts) {
+        int rows = 0;
+        for (TransactionSnapshot part : parts) {
+            rows += part.size();
+        }
+        Builder builder = new Builder(rows);
+        for (TransactionSnapshot part : parts) {
+            for (int i = 0; i < part.size(); i++) {
+                builder.add(part, i);
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Baut einen Ausschnitt zeilenweise auf, z. B. beim Lesen eines Cursors.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private byte[] types;
+        private long[] amountCents;
+        private long[] epochDays;
+        private int[] categoryIds;
+        private int[] descriptionCodes;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] descriptions = new String[8];
+
+        public Builder(int capacity) {
+            ids = new int[capacity];
+            types = new byte[capacity];
+            amountCents = new long[capacity];
+            epochDays = new long[capacity];
+            categoryIds = new int[capacity];
+            descriptionCodes = new int[capacity];
+        }
+
+        public Builder add(int id, int type, long cents, int categoryId, long epochDay, String description) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            types[size] = (byte) type;
+            amountCents[size] = cents;
+            epochDays[size] = epochDay;
+            categoryIds[size] = categoryId;
+            descriptionCodes[size] = code(description);
+            size++;
+            return this;
+        }
+
+        private void add(TransactionSnapshot source, int index) {
+            add(source.ids[index], source.types[index], source.amountCents[index], source.categoryIds[index],
+                    source.epochDays[index], source.description(index));
+        }
+
+        public TransactionSnapshot build() {
+            return new TransactionSnapshot(Arrays.copyOf(ids, size), Arrays.copyOf(types, size), Arrays.copyOf(amountCents, size),
+                    Arrays.copyOf(epochDays, size), Arrays.copyOf(categoryIds, size), Arrays.copyOf(descriptionCodes, size),
+                    Arrays.copyOf(descriptions, codes.size()));
+        }
+
+        private int code(String description) {
+            if (description == null) {
+                return -1;
+            }
+            Integer code = codes.get(description);
+            if (code == null) {
+                code = codes.size();
+                if (code == descriptions.length) {
+                    descriptions = Arrays.copyOf(descriptions, code * 2);
+                }
+                descriptions[code] = description;
+                codes.put(description, code);
+            }
+            return code;
+        }
+
+        private void grow() {
+            int capacity = Math.max(16, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+        }
+    }
+}
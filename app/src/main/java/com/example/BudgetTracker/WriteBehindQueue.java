@@ -0,0 +1,194 @@
+package com.example.BudgetTracker;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Write-Behind-Warteschlange: Schreibvorgänge werden im Speicher gesammelt und gruppenweise in einer
+ * gemeinsamen Datenbanktransaktion festgeschrieben (Group Commit).
+ *
+ * Eine Gruppe wird geschrieben, sobald {@code maxBatch} Vorgänge warten oder der älteste Vorgang
+ * {@code maxDelayMs} alt ist. Jeder Vorgang meldet sein Ergebnis erst nach dem Commit seiner Gruppe.
+ * {@link #flush()} wartet, bis alles bis dahin Eingereihte festgeschrieben ist; {@link #requestFlush()}
+ * schreibt sofort, ohne zu warten (z. B. wenn die App in den Hintergrund geht).
+ * Endet der Schreib-Thread, schlagen wartende und neue Vorgänge fehl, statt liegen zu bleiben.
+ */
+final class WriteBehindQueue {
+    private static final String TAG = "WriteBehindQueue";
+
+    // Rückmeldung eines Vorgangs nach dem Commit (auf dem Schreib-Thread)
+    interface Completion {
+        void onCommitted(boolean result);
+
+        void onFailed(Exception e);
+    }
+
+    // Ende einer Gruppe (auf dem Schreib-Thread): committed = false nach einem Rollback
+    interface GroupListener {
+        void onGroupEnd(boolean committed);
+    }
+
+    private static final class Pending {
+        final Supplier<Boolean> write;
+        final Completion completion;
+        final long enqueuedAt;
+
+        Pending(Supplier<Boolean> write, Completion completion, long enqueuedAt) {
+            this.write = write;
+            this.completion = completion;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final int maxBatch;
+    private final long maxDelayMs;
+    private final GroupListener groupListener;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private long submitted; // Anzahl aller eingereihten Vorgänge
+    private long committed; // Anzahl aller abgeschlossenen Vorgänge (festgeschrieben oder fehlgeschlagen)
+    private long flushUpTo; // bis zu diesem Vorgang ohne Wartezeit schreiben
+    private Thread writer;
+    private boolean stopped; // Schreib-Thread beendet; nimmt nichts mehr an
+
+    WriteBehindQueue(DatabaseHelper dbHelper, int maxBatch, long maxDelayMs, GroupListener groupListener) {
+        this.dbHelper = dbHelper;
+        this.maxBatch = maxBatch;
+        this.maxDelayMs = maxDelayMs;
+        this.groupListener = groupListener;
+    }
+
+    // Reiht einen Schreibvorgang ein; blockiert nicht und darf auf dem Main-Thread aufgerufen werden
+    void submit(Supplier<Boolean> write, Completion completion) {
+        synchronized (lock) {
+            if (!stopped) {
+                pending.add(new Pending(write, completion, SystemClock.elapsedRealtime()));
+                submitted++;
+                if (writer == null) {
+                    writer = new Thread(this::writeLoop, "WriteBehind");
+                    writer.setDaemon(true);
+                    writer.start();
+                }
+                lock.notifyAll();
+                return;
+            }
+        }
+        completion.onFailed(new IllegalStateException("Schreib-Thread beendet"));
+    }
+
+    // Schreibt alle wartenden Vorgänge sofort, ohne auf das Ergebnis zu warten
+    void requestFlush() {
+        synchronized (lock) {
+            flushUpTo = submitted;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Wartet, bis alle bisher eingereihten Vorgänge abgeschlossen sind (nur im Hintergrund aufrufen).
+     * @throws IllegalStateException wenn der Schreib-Thread vorher beendet wurde
+     */
+    void flush() throws InterruptedException {
+        synchronized (lock) {
+            long target = submitted;
+            flushUpTo = Math.max(flushUpTo, target);
+            lock.notifyAll();
+            while (committed < target) {
+                if (stopped) {
+                    throw new IllegalStateException("Schreib-Thread beendet, " + (target - committed) + " Vorgänge nicht geschrieben");
+                }
+                lock.wait();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                synchronized (lock) {
+                    while (pending.isEmpty()) {
+                        lock.wait();
+                    }
+                    // Gruppe füllen, bis sie voll ist, das Zeitbudget des ältesten Vorgangs abläuft oder ein Flush ansteht
+                    long deadline = pending.peek().enqueuedAt + maxDelayMs;
+                    long wait;
+                    while (pending.size() < maxBatch && flushUpTo <= committed
+                            && (wait = deadline - SystemClock.elapsedRealtime()) > 0) {
+                        lock.wait(wait);
+                    }
+                    while (batch.size() < maxBatch && !pending.isEmpty()) {
+                        batch.add(pending.poll());
+                    }
+                }
+
+                commit(batch);
+
+                synchronized (lock) {
+                    committed += batch.size();
+                    lock.notifyAll();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Schreib-Thread unterbrochen", e); // Daemon-Thread: nur beim Prozessende
+                stop(e);
+                return;
+            }
+        }
+    }
+
+    // Nach dem Ende des Schreib-Threads: Wartende wecken und noch eingereihte Vorgänge fehlschlagen lassen
+    private void stop(InterruptedException cause) {
+        List<Pending> dropped;
+        synchronized (lock) {
+            stopped = true;
+            dropped = new ArrayList<>(pending);
+            pending.clear();
+            lock.notifyAll();
+        }
+        for (Pending write : dropped) {
+            write.completion.onFailed(cause);
+        }
+    }
+
+    // Eine Gruppe in einer Transaktion; scheitert ein Vorgang, wird jeder einzeln wiederholt
+    private void commit(List<Pending> batch) {
+        boolean[] results = new boolean[batch.size()];
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    results[i] = batch.get(i).write.get();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Gruppe mit " + batch.size() + " Vorgängen zurückgerollt, einzelne Wiederholung", e);
+            dbHelper.getCategories().invalidate(); // in der Gruppe angelegte Kategorien gibt es nicht mehr
+            groupListener.onGroupEnd(false);
+            for (Pending write : batch) {
+                try {
+                    write.completion.onCommitted(write.write.get());
+                } catch (RuntimeException single) {
+                    write.completion.onFailed(single);
+                }
+            }
+            return;
+        }
+        groupListener.onGroupEnd(true);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).completion.onCommitted(results[i]);
+        }
+    }
+}
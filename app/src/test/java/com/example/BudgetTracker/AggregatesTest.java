@@ -0,0 +1,130 @@
+package com.example.BudgetTracker;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Aggregation in einem Durchlauf: gleiche Summen wie eine Gruppierung über LocalDate je Stufe, unabhängig
+ * davon, wie die Zeilen auf Abschnitte und Threads verteilt werden.
+ */
+public class AggregatesTest {
+
+    private static final int ROWS = 200_000;
+    private static final int CATEGORIES = 12;
+
+    private static int[] days;
+    private static long[] cents;
+    private static int[] categories;
+
+    @BeforeClass
+    public static void createRows() {
+        Random random = new Random(23);
+        days = new int[ROWS];
+        cents = new long[ROWS];
+        categories = new int[ROWS];
+        int day = 14_000;
+        for (int i = 0; i < ROWS; i++) {
+            day += random.nextInt(3) == 0 ? 1 : 0; // sortiert, mehrere Buchungen je Tag
+            boolean income = random.nextInt(4) == 0;
+            days[i] = day;
+            cents[i] = (income ? 1 : -1) * random.nextInt(100_000); // auch 0: zählt wie in den Monatssummen nicht
+            categories[i] = random.nextInt(CATEGORIES + 1); // 0 = ohne Kategorie
+        }
+    }
+
+    @Test
+    public void levels_matchGroupingByDate() {
+        Aggregates aggregates = Aggregates.compute(days, cents, categories, ROWS, ForkJoinPool.commonPool());
+        for (int level = Aggregates.DAY; level <= Aggregates.YEAR; level++) {
+            TreeMap<Long, long[]> expected = new TreeMap<>(); // Start -> {Einnahmen, Ausgaben, Anzahl}
+            for (int i = 0; i < ROWS; i++) {
+                if (cents[i] == 0) {
+                    continue;
+                }
+                long[] sums = expected.computeIfAbsent(startOf(level, days[i]), start -> new long[3]);
+                sums[cents[i] > 0 ? 0 : 1] += Math.abs(cents[i]);
+                sums[2]++;
+            }
+            Aggregates.Buckets buckets = aggregates.level(level);
+            assertEquals(expected.size(), buckets.size());
+            int index = 0;
+            for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+                assertEquals(entry.getKey().longValue(), buckets.start(index));
+                assertEquals(entry.getValue()[0], buckets.incomeCents(index));
+                assertEquals(entry.getValue()[1], buckets.expenseCents(index));
+                assertEquals(entry.getValue()[2], buckets.incomeCount(index) + buckets.expenseCount(index));
+                assertTrue(buckets.end(index) > buckets.start(index));
+                index++;
+            }
+        }
+
+        long[] categoryExpense = new long[CATEGORIES + 1];
+        for (int i = 0; i < ROWS; i++) {
+            if (cents[i] < 0) {
+                categoryExpense[categories[i]] -= cents[i];
+            }
+        }
+        assertEquals(CATEGORIES + 1, aggregates.categoryCount());
+        for (int i = 0; i < aggregates.categoryCount(); i++) {
+            assertEquals(i, aggregates.categoryId(i));
+            assertEquals(categoryExpense[i], aggregates.categoryExpenseCents(i));
+        }
+    }
+
+    @Test
+    public void chunking_doesNotChangeResult() {
+        Aggregates whole = Aggregates.compute(days, cents, categories, ROWS, ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int chunkRows : new int[]{1, 7, 1_000, AggregationTask.CHUNK_ROWS}) {
+            Aggregates chunked = Aggregates.compute(days, cents, categories, ROWS, pool, chunkRows);
+            for (int level = Aggregates.DAY; level <= Aggregates.YEAR; level++) {
+                Aggregates.Buckets expected = whole.level(level);
+                Aggregates.Buckets actual = chunked.level(level);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.start(i), actual.start(i));
+                    assertEquals(expected.incomeCents(i), actual.incomeCents(i));
+                    assertEquals(expected.expenseCount(i), actual.expenseCount(i));
+                }
+            }
+            for (int i = 0; i < whole.categoryCount(); i++) {
+                assertEquals(whole.categoryIncomeCents(i), chunked.categoryIncomeCents(i));
+                assertEquals(whole.categoryTransactionCount(i), chunked.categoryTransactionCount(i));
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void empty_hasNoBuckets() {
+        Aggregates aggregates = Aggregates.compute(new int[0], new long[0], new int[0], 0, ForkJoinPool.commonPool());
+        assertEquals(0, aggregates.level(Aggregates.MONTH).size());
+        assertEquals(0, aggregates.categoryCount());
+    }
+
+    // Bucket-Beginn unabhängig von Aggregates berechnet
+    private static long startOf(int level, long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        switch (level) {
+            case Aggregates.DAY:
+                return epochDay;
+            case Aggregates.WEEK:
+                return date.minusDays(date.getDayOfWeek().getValue() - 1).toEpochDay(); // Montag
+            case Aggregates.MONTH:
+                return date.withDayOfMonth(1).toEpochDay();
+            case Aggregates.QUARTER:
+                return date.with(IsoFields.DAY_OF_QUARTER, 1).toEpochDay();
+            default:
+                return date.withDayOfYear(1).toEpochDay();
+        }
+    }
+}
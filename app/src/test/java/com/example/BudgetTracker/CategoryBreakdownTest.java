@@ -0,0 +1,55 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Top-N der Kategorien: gleiche Auswahl wie vollständiges Sortieren, Anteile und Rest ergeben die Gesamtsumme.
+ */
+public class CategoryBreakdownTest {
+
+    @Test
+    public void topN_matchesFullSort() {
+        Random random = new Random(24);
+        long[] current = new long[300];
+        long[] previous = new long[250];
+        for (int id = 0; id < current.length; id++) {
+            current[id] = random.nextInt(5) == 0 ? 0 : random.nextInt(1_000_000);
+        }
+        for (int id = 0; id < previous.length; id++) {
+            previous[id] = random.nextInt(1_000_000);
+        }
+
+        CategoryBreakdown breakdown = CategoryBreakdown.of(100, 130, current, previous, 8);
+
+        long[] sorted = current.clone();
+        Arrays.sort(sorted);
+        assertEquals(8, breakdown.size());
+        long shown = 0;
+        for (int i = 0; i < breakdown.size(); i++) {
+            assertEquals(sorted[sorted.length - 1 - i], breakdown.cents(i));
+            assertEquals(current[breakdown.categoryId(i)], breakdown.cents(i));
+            int id = breakdown.categoryId(i);
+            assertEquals(id < previous.length ? previous[id] : 0, breakdown.previousCents(i));
+            shown += breakdown.cents(i);
+        }
+        assertEquals(Arrays.stream(current).sum(), breakdown.totalCents());
+        assertEquals(breakdown.totalCents() - shown, breakdown.otherCents());
+        assertEquals(Arrays.stream(previous).sum(), breakdown.previousTotalCents());
+    }
+
+    @Test
+    public void shareAndChange() {
+        CategoryBreakdown breakdown = CategoryBreakdown.of(0, 0, new long[]{0, 300, 100}, new long[]{0, 200}, 5);
+        assertEquals(2, breakdown.size());
+        assertEquals(1, breakdown.categoryId(0));
+        assertEquals(0.75, breakdown.share(0), 1e-9);
+        assertEquals(0.5, breakdown.change(0), 1e-9); // 200 -> 300
+        assertTrue(Double.isNaN(breakdown.change(1))); // im Vorzeitraum keine Ausgaben
+        assertEquals(0, breakdown.otherCents());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.BudgetTracker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Detailstufen und Zusammenfassen des Diagramms: passende Stufe je Ausschnitt, Spitzen bleiben
+ * beim Herauszoomen sichtbar, und ein Bildaufbau liest nie mehr Buckets, als Spalten in die Breite passen.
+ */
+public class ChartLayoutTest {
+
+    private static final int DAYS = 20_000;
+    private static final long FIRST_DAY = 0;
+    private static final float WIDTH = 1000;
+
+    private ChartSeries[] levels;
+    private final ChartLayout layout = new ChartLayout();
+
+    @Before
+    public void setUp() {
+        // Je Tag eine Einnahme und eine Ausgabe, sortiert wie im Spaltenspeicher
+        Random random = new Random(21);
+        int[] days = new int[2 * DAYS];
+        long[] cents = new long[2 * DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            days[2 * i] = days[2 * i + 1] = (int) FIRST_DAY + i;
+            cents[2 * i] = random.nextInt(10_000);
+            cents[2 * i + 1] = -random.nextInt(10_000);
+        }
+        cents[2 * 12_345 + 1] = -5_000_000; // einzelne Spitze
+        levels = ChartSeries.levels(Aggregates.compute(days, cents, new int[2 * DAYS], 2 * DAYS, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void levels_sumSameTotals() {
+        for (ChartSeries level : levels) {
+            double sum = 0;
+            for (int i = 0; i < level.size(); i++) {
+                sum += level.ausgaben[i];
+            }
+            assertEquals(sumOf(levels[0].ausgaben), sum, 1);
+        }
+        assertEquals(ChartSeries.DAY, levels[0].level);
+        assertEquals(DAYS, levels[0].size());
+        assertEquals(0, Math.floorMod(levels[1].starts[1] + 3, 7)); // Wochen beginnen montags
+        assertEquals("Jan 70", levels[2].label(0));
+        assertEquals("KW 1", levels[1].label(0));
+        assertEquals("Q1 70", levels[3].label(0));
+        assertEquals("1970", levels[4].label(0));
+    }
+
+    @Test
+    public void zoomLevel_followsVisibleRange() {
+        layout.compute(levels, FIRST_DAY, FIRST_DAY + 60, 0, WIDTH);
+        assertEquals(ChartSeries.DAY, layout.series.level);
+        assertFalse(layout.downsampled);
+        assertEquals(60, layout.columns);
+
+        layout.compute(levels, FIRST_DAY, FIRST_DAY + 2 * 365, 0, WIDTH);
+        assertEquals(ChartSeries.WEEK, layout.series.level);
+        assertFalse(layout.downsampled);
+
+        layout.compute(levels, FIRST_DAY, FIRST_DAY + 10 * 365, 0, WIDTH);
+        assertEquals(ChartSeries.MONTH, layout.series.level);
+        assertFalse(layout.downsampled);
+
+        layout.compute(levels, FIRST_DAY, FIRST_DAY + DAYS, 0, WIDTH);
+        assertEquals(ChartSeries.YEAR, layout.series.level);
+    }
+
+    @Test
+    public void fullRange_downsamplesAndKeepsPeaks() {
+        float narrow = 120; // 20 Spalten für 55 Jahre
+        layout.compute(levels, FIRST_DAY, FIRST_DAY + DAYS, 0, narrow);
+        assertEquals(ChartSeries.YEAR, layout.series.level);
+        assertTrue(layout.downsampled);
+        assertTrue(layout.columns <= narrow / ChartLayout.MIN_BUCKET_PX);
+
+        float maxYear = 0;
+        for (float value : levels[4].ausgaben) {
+            maxYear = Math.max(maxYear, value);
+        }
+        float maxColumn = 0;
+        for (int i = 0; i < layout.columns; i++) {
+            assertTrue(layout.ausgabenMin[i] <= layout.ausgabenMax[i]);
+            maxColumn = Math.max(maxColumn, layout.ausgabenMax[i]);
+        }
+        assertEquals(maxYear, maxColumn, 0);
+        assertEquals(maxYear, layout.maxValue, 0);
+    }
+
+    @Test
+    public void panAcrossAllLevels_readsAtMostOneBucketPerColumn() {
+        int maxColumns = (int) (WIDTH / ChartLayout.MIN_BUCKET_PX);
+        pan(0);
+        float[] lefts = layout.lefts; // Ergebnis-Arrays werden wiederverwendet
+        for (int frame = 0; frame < 10_000; frame++) {
+            double[] view = pan(frame);
+            int level = levelOf(layout.series);
+            int visible = visibleBuckets(layout.series, view);
+
+            // Aufwand je Bild: die sichtbaren Buckets der gewählten Stufe, nie mehr als Spalten in die Breite passen
+            assertFalse(layout.downsampled); // selbst die Jahre über 20.000 Tage passen in 1000 px
+            assertTrue("Stufe " + level + ": " + visible + " Buckets", visible <= maxColumns);
+            assertEquals(visible, layout.columns);
+            // ... und es ist die feinste Stufe, die passt
+            assertTrue(level == 0 || visibleBuckets(levels[level - 1], view) > maxColumns);
+            assertSame(lefts, layout.lefts);
+        }
+    }
+
+    private int levelOf(ChartSeries series) {
+        for (int level = 0; level < levels.length; level++) {
+            if (levels[level] == series) {
+                return level;
+            }
+        }
+        throw new AssertionError("keine Stufe gewählt");
+    }
+
+    private static int visibleBuckets(ChartSeries series, double[] view) {
+        return series.firstStartingAt(view[1]) - series.firstEndingAfter(view[0]);
+    }
+
+    // Wechselnde Ausschnitte von 30 Tagen bis zum gesamten Bereich; liefert den Ausschnitt [von, bis)
+    private double[] pan(int frame) {
+        double span = 30 + (frame * 37 % DAYS);
+        double from = FIRST_DAY + (frame * 101 % (DAYS - span + 1));
+        layout.compute(levels, from, from + span, 100, WIDTH);
+        return new double[]{from, from + span};
+    }
+
+    private static double sumOf(float[] values) {
+        double sum = 0;
+        for (float value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
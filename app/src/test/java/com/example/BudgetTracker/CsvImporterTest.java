@@ -0,0 +1,57 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Beträge im CSV-Import: Tausender- und Dezimaltrennzeichen je nach Layout, und nie stillschweigend gerundet.
+ */
+public class CsvImporterTest {
+
+    @Test
+    public void germanLayout_readsThousandsSeparator() {
+        assertEquals(123_400, CsvImporter.parseAmount("1.234", true));
+        assertEquals(123_456, CsvImporter.parseAmount("1.234,56", true));
+        assertEquals(-123_456_789, CsvImporter.parseAmount("-1.234.567,89 €", true));
+        assertEquals(1_250, CsvImporter.parseAmount("12,50", true));
+        assertEquals(150, CsvImporter.parseAmount("1.5", true));
+    }
+
+    @Test
+    public void englishLayout_readsThousandsSeparator() {
+        assertEquals(1_234_500, CsvImporter.parseAmount("12,345", false));
+        assertEquals(123_456, CsvImporter.parseAmount("1,234.56", false));
+        assertEquals(123_456, CsvImporter.parseAmount("1234.56", false));
+        assertEquals(-399, CsvImporter.parseAmount("-3.99 EUR", false));
+    }
+
+    @Test
+    public void moreThanTwoDecimals_isRejected() {
+        assertRejected("12,345", true); // deutsches Layout: drei Nachkommastellen, nicht 12,35
+        assertRejected("1.234", false); // englisches Layout: drei Nachkommastellen, nicht 1,23
+        assertRejected("0,005", true);
+        assertEquals(123, Money.parseCents("1.230")); // nachfolgende Nullen sind exakt
+        try {
+            Money.parseCents("1.234");
+            fail("gerundet statt abgelehnt");
+        } catch (NumberFormatException expected) {
+        }
+    }
+
+    @Test
+    public void misplacedThousandsSeparator_isRejected() {
+        assertRejected("1234.567", true);
+        assertRejected("1.23.456", true);
+        assertRejected("1.234,5.6", true);
+        assertRejected("12,34,567.00", false);
+    }
+
+    private static void assertRejected(String text, boolean decimalComma) {
+        try {
+            long cents = CsvImporter.parseAmount(text, decimalComma);
+            fail(text + " gelesen als " + cents + " Cent");
+        } catch (NumberFormatException expected) {
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Gemeinsame Formatierung: gleiche Texte wie String.format bzw. DateTimeFormatter je Locale,
+ * wiederholte Werte aus dem Cache.
+ */
+public class DisplayFormatTest {
+
+    @Test
+    public void euros_matchStringFormat() {
+        Random random = new Random(19);
+        for (Locale locale : new Locale[]{Locale.GERMANY, Locale.US, Locale.FRANCE, Locale.ROOT}) {
+            DisplayFormat format = DisplayFormat.of(locale);
+            for (int i = 0; i < 5_000; i++) {
+                long cents = random.nextInt(20_000_000) - 10_000_000;
+                assertEquals(String.format(locale, "%.2f", cents / 100.0), format.euros(cents));
+            }
+        }
+    }
+
+    @Test
+    public void dates_matchDateTimeFormatter() {
+        DateTimeFormatter display = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        DisplayFormat format = DisplayFormat.of(Locale.GERMANY);
+        for (long epochDay = -30_000; epochDay < 30_000; epochDay += 7) {
+            assertEquals(LocalDate.ofEpochDay(epochDay).format(display), format.date(epochDay));
+        }
+        assertEquals(EpochDay.toDisplay(19_723), format.date(19_723));
+    }
+
+    @Test
+    public void repeatedValues_comeFromBoundedCache() {
+        DisplayFormat format = DisplayFormat.of(Locale.GERMANY);
+        assertSame(DisplayFormat.of(Locale.GERMANY), format);
+
+        String first = format.euros(123_456);
+        assertSame(first, format.euros(123_456));
+        for (long cents = 0; cents < 10_000; cents++) {
+            format.euros(cents); // verdrängt den ältesten Eintrag
+        }
+        String again = format.euros(123_456);
+        assertNotSame(first, again);
+        assertEquals(first, again);
+    }
+}
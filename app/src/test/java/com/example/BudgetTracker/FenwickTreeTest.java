@@ -0,0 +1,57 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Eigenschaftstests des Fenwick-Baums gegen ein einfaches Array mit aufsummierten Bereichen.
+ */
+public class FenwickTreeTest {
+
+    @Test
+    public void randomUpdates_matchBruteForceSums() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            int size = 1 + random.nextInt(300);
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(20_000) - 10_000;
+            }
+            FenwickTree tree = new FenwickTree(values.clone());
+
+            for (int step = 0; step < 200; step++) {
+                int position = random.nextInt(size);
+                long delta = random.nextInt(20_000) - 10_000;
+                values[position] += delta;
+                tree.add(position, delta);
+
+                int from = random.nextInt(size);
+                int to = from + random.nextInt(size - from);
+                assertEquals(bruteForce(values, from, to), tree.rangeSum(from, to));
+                assertEquals(bruteForce(values, 0, to), tree.prefixSum(to));
+            }
+            assertArrayEquals(values, tree.toValues());
+        }
+    }
+
+    @Test
+    public void prefixSum_isClampedOutsideTheTree() {
+        FenwickTree tree = new FenwickTree(new long[]{5, -2, 7});
+        assertEquals(0, tree.prefixSum(-1));
+        assertEquals(10, tree.prefixSum(3));
+        assertEquals(10, tree.prefixSum(Integer.MAX_VALUE - 1));
+        assertEquals(0, tree.rangeSum(2, 1));
+        assertEquals(0, new FenwickTree(0).prefixSum(5));
+    }
+
+    private static long bruteForce(long[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i <= to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ergebnis-Cache: Treffer bis zur nächsten Änderung des Benutzers, begrenzte Größe,
+ * und kein Speichern von Ergebnissen, die während einer Änderung gelesen wurden.
+ */
+public class QueryCacheTest {
+
+    private final QueryCache cache = new QueryCache(4);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void repeatedRead_hitsUntilUserChanges() {
+        assertEquals("1:a", read(1, "a"));
+        assertEquals("1:a", read(1, "a"));
+        assertEquals("2:a", read(2, "a"));
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+
+        cache.invalidate(1);
+        read(1, "a");
+        read(2, "a"); // anderer Benutzer bleibt gültig
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    public void parameters_areSeparateEntries() {
+        read(1, "a");
+        read(1, "b");
+        read(1, null);
+        read(1, null);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void capacity_evictsLeastRecentlyUsed() {
+        for (String param : new String[]{"a", "b", "c", "d"}) {
+            read(1, param);
+        }
+        read(1, "a"); // zuletzt verwendet
+        read(1, "e"); // verdrängt "b"
+        loads.set(0);
+        read(1, "a");
+        read(1, "b");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void changeDuringLoad_isNotStored() {
+        cache.get(1, "query", () -> {
+            cache.invalidate(1); // Schreibvorgang festgeschrieben, während gelesen wird
+            return "alt";
+        });
+        assertEquals("neu", cache.get(1, "query", () -> "neu"));
+
+        cache.get(1, "query", () -> {
+            cache.clear();
+            return "alt";
+        });
+        assertEquals("neu", cache.get(1, "query", () -> "neu"));
+    }
+
+    private String read(int userId, String param) {
+        return cache.get(userId, "query", () -> {
+            loads.incrementAndGet();
+            return userId + ":" + param;
+        }, param);
+    }
+}
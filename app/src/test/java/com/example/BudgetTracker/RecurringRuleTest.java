@@ -0,0 +1,115 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Daueraufträge: Ausführungstage ohne Verschieben am Monatsende, Zählen geplanter Ausführungen ohne
+ * Aufzählen, und das Zusammenführen mit gespeicherten Zeilen in Datumsreihenfolge.
+ */
+public class RecurringRuleTest {
+
+    private static final long JAN_31 = LocalDate.of(2024, 1, 31).toEpochDay();
+
+    @Test
+    public void monthly_staysAtEndOfMonth() {
+        RecurringRule rent = rule(1, JAN_31, RecurringRule.OPEN_END, RecurringRule.MONTH, 1, 0);
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), rent.occurrence(1));
+        assertEquals(LocalDate.of(2024, 3, 31).toEpochDay(), rent.occurrence(2)); // vom Start gerechnet, nicht vom 29.
+        assertEquals(LocalDate.of(2025, 2, 28).toEpochDay(), rent.occurrence(13));
+    }
+
+    @Test
+    public void firstIndexFrom_matchesEnumeration() {
+        for (int unit = RecurringRule.DAY; unit <= RecurringRule.YEAR; unit++) {
+            for (int every : new int[]{1, 2, 3}) {
+                RecurringRule rule = rule(1, JAN_31, RecurringRule.OPEN_END, unit, every, 0);
+                long n = 0;
+                for (long day = JAN_31 - 5; day < JAN_31 + 3 * 365; day++) {
+                    while (rule.occurrence(n) < day) {
+                        n++;
+                    }
+                    assertEquals("Einheit " + unit + ", alle " + every + ", Tag " + day, n, rule.firstIndexFrom(day));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void plannedCount_skipsBookedAndEnded() {
+        long end = JAN_31 + 200;
+        RecurringRule weekly = rule(1, JAN_31, end, RecurringRule.WEEK, 1, 4); // Ausführungen 0 bis 3 gebucht
+        for (long from = JAN_31 - 10; from < end + 20; from += 3) {
+            for (long to = from; to < end + 20; to += 5) {
+                int expected = 0;
+                for (long n = 4; weekly.occurrence(n) <= end; n++) {
+                    long day = weekly.occurrence(n);
+                    if (day >= from && day <= to) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, weekly.plannedCount(from, to));
+            }
+        }
+        assertEquals(-3 * 1_000, weekly.plannedCents(weekly.occurrence(4), weekly.occurrence(6)));
+        assertEquals(0, weekly.endingAt(weekly.occurrence(3)).plannedCount(Long.MIN_VALUE, end));
+    }
+
+    @Test
+    public void merge_ordersByDateAndStopsAtLimit() {
+        long from = JAN_31;
+        long to = JAN_31 + 60;
+        TransactionSnapshot stored = new TransactionSnapshot.Builder(4)
+                .add(10, DatabaseHelper.AUSGABE, -500, 0, JAN_31, "Einkauf")
+                .add(11, DatabaseHelper.AUSGABE, -700, 0, JAN_31 + 7, "Einkauf")
+                .add(12, DatabaseHelper.EINNAHME, 900, 0, JAN_31 + 30, "Erstattung")
+                .build();
+        List<RecurringRule> rules = Arrays.asList(
+                rule(2, JAN_31, RecurringRule.OPEN_END, RecurringRule.WEEK, 1, 0),
+                rule(1, JAN_31 + 1, RecurringRule.OPEN_END, RecurringRule.MONTH, 1, 0));
+
+        TransactionSnapshot merged = OccurrenceMerge.merge(stored, rules, from, to, 100);
+        List<Long> days = new ArrayList<>();
+        for (int i = 0; i < merged.size(); i++) {
+            days.add(merged.epochDay(i));
+        }
+        List<Long> sorted = new ArrayList<>(days);
+        Collections.sort(sorted);
+        assertEquals(sorted, days);
+        assertEquals(3 + 9 + 2, merged.size()); // 9 Wochen ab dem 31.01., zwei Monate ab dem 01.02.
+        assertEquals(10, merged.id(0)); // am selben Tag zuerst die gespeicherte Zeile
+        assertTrue(OccurrenceMerge.isPlanned(merged.id(1)));
+        assertEquals(-2, merged.id(1));
+
+        TransactionSnapshot first = OccurrenceMerge.merge(stored, rules, from, to, 4);
+        assertEquals(4, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(merged.id(i), first.id(i));
+        }
+    }
+
+    @Test
+    public void openRule_expandsOnlyRequestedRows() {
+        RecurringRule daily = rule(1, 0, RecurringRule.OPEN_END, RecurringRule.DAY, 1, 0);
+        RecurringRule.Occurrences occurrences = daily.occurrences(0, 1_000_000_000L);
+        assertEquals(1, occurrences.computed()); // nur der erste Tag beim Anlegen
+
+        TransactionSnapshot rows = OccurrenceMerge.merge(new TransactionSnapshot.Builder(0).build(),
+                Collections.singletonList(occurrences), 20);
+        assertEquals(20, rows.size());
+        assertEquals(19, rows.epochDay(19));
+        assertEquals(21, occurrences.computed()); // 20 angezeigte Zeilen und der Tag danach, nicht eine Milliarde
+        assertEquals(1_000_000_001L, daily.plannedCount(0, 1_000_000_000L)); // gezählt, nicht aufgezählt
+    }
+
+    private static RecurringRule rule(int id, long startDay, long endDay, int unit, int every, long nextIndex) {
+        return new RecurringRule(id, 1, DatabaseHelper.AUSGABE, -1_000, 0, "Miete", startDay, endDay, unit, every, nextIndex);
+    }
+}
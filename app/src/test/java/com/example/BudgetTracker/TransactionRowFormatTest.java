@@ -0,0 +1,69 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Texte einer Listenzeile: gleiches Ergebnis wie String.format bzw. DateTimeFormatter,
+ * aber ohne Allokationen beim wiederholten Binden in dieselben Puffer.
+ */
+public class TransactionRowFormatTest {
+
+    private static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final TransactionRowFormat format = new TransactionRowFormat(
+            "Betrag: %.2f €", "Kategorie: %s", "Datum: %s", "Beschreibung: %s", Locale.GERMANY);
+
+    @Test
+    public void texts_matchStringFormat() {
+        Random random = new Random(17);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            long cents = random.nextInt(2_000_000) - 1_000_000;
+            assertEquals(String.format(Locale.GERMANY, "Betrag: %.2f €", cents / 100.0), format.amount(out, cents).toString());
+
+            long epochDay = random.nextInt(200_000) - 100_000; // etwa 1696 bis 2243
+            assertEquals("Datum: " + LocalDate.ofEpochDay(epochDay).format(DISPLAY), format.date(out, epochDay).toString());
+        }
+        assertEquals("Betrag: -0,05 €", format.amount(out, -5).toString());
+        assertEquals("Betrag: -92233720368547758,08 €", format.amount(out, Long.MIN_VALUE).toString());
+        assertEquals("Datum: 01.01.1970", format.date(out, 0).toString());
+        assertEquals("Datum: 29.02.2024", format.date(out, LocalDate.of(2024, 2, 29).toEpochDay()).toString());
+        assertEquals("Kategorie: Miete", format.category(out, "Miete").toString());
+        assertEquals("Betrag: 1.50 €", new TransactionRowFormat("Betrag: %.2f €", "%s", "%s", "%s", Locale.US).amount(out, 150).toString());
+    }
+
+    @Test
+    public void binding_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        StringBuilder amount = new StringBuilder(32);
+        StringBuilder category = new StringBuilder(48);
+        StringBuilder date = new StringBuilder(24);
+        StringBuilder description = new StringBuilder(64);
+
+        bindRows(amount, category, date, description, 10_000); // Aufwärmen, Puffer auf Endgröße
+        long before = threads.getThreadAllocatedBytes(threadId);
+        bindRows(amount, category, date, description, 100_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Messung selbst darf wenige Bytes kosten, pro Zeile muss es null sein
+        assertTrue("Allokation beim Binden: " + allocated + " Bytes", allocated < 1_024);
+    }
+
+    private void bindRows(StringBuilder amount, StringBuilder category, StringBuilder date, StringBuilder description, int rows) {
+        for (int i = 0; i < rows; i++) {
+            format.amount(amount, i * 37L - 500_000);
+            format.category(category, "Lebensmittel");
+            format.date(date, 19_000 + i % 3_000);
+            format.description(description, "Wocheneinkauf");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.BudgetTracker;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ausschnitte der Transaktionsliste: Werte, Wörterbuch der Beschreibungen und Kopien beim Ändern.
+ */
+public class TransactionSnapshotTest {
+
+    @Test
+    public void rows_keepValuesAndShareDescriptions() {
+        TransactionSnapshot.Builder builder = new TransactionSnapshot.Builder(1); // wächst über die Kapazität hinaus
+        for (int i = 0; i < 100; i++) {
+            builder.add(i, i % 2 == 0 ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE, i * 100L - 5_000, i % 7,
+                    19_000 + i, i % 10 == 0 ? null : "Miete " + (i % 3));
+        }
+        TransactionSnapshot rows = builder.build();
+
+        assertEquals(100, rows.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, rows.id(i));
+            assertEquals(i % 2 == 0 ? DatabaseHelper.EINNAHME : DatabaseHelper.AUSGABE, rows.type(i));
+            assertEquals(i * 100L - 5_000, rows.amountCents(i));
+            assertEquals(i % 7, rows.categoryId(i));
+            assertEquals(19_000 + i, rows.epochDay(i));
+            assertEquals(i % 10 == 0 ? null : "Miete " + (i % 3), rows.description(i));
+        }
+        assertSame("gleiche Beschreibung nur einmal gespeichert", rows.description(1), rows.description(4));
+        assertEquals(42, rows.indexOf(42));
+        assertEquals(-1, rows.indexOf(1_000));
+    }
+
+    @Test
+    public void changes_produceCopies() {
+        TransactionSnapshot rows = new TransactionSnapshot.Builder(3)
+                .add(1, DatabaseHelper.AUSGABE, -100, 1, 19_000, "a")
+                .add(2, DatabaseHelper.AUSGABE, -200, 1, 19_001, "b")
+                .add(3, DatabaseHelper.EINNAHME, 300, 2, 19_002, null)
+                .build();
+
+        TransactionSnapshot changed = rows.with(1, new Transaction(2, DatabaseHelper.AUSGABE, -250, 3, 19_001, "c"));
+        assertEquals(-200, rows.amountCents(1)); // Original unverändert
+        assertEquals(-250, changed.amountCents(1));
+        assertEquals("c", changed.description(1));
+        assertTrue(rows.sameContent(0, changed, 0));
+        assertFalse(rows.sameContent(1, changed, 1));
+
+        TransactionSnapshot joined = TransactionSnapshot.concat(Arrays.asList(rows.slice(2, 3), rows.slice(0, 2)));
+        assertEquals(3, joined.size());
+        assertEquals(3, joined.id(0));
+        assertNull(joined.description(0));
+        assertEquals("b", joined.description(2));
+        assertEquals(0, rows.slice(1, 1).size());
+    }
+}